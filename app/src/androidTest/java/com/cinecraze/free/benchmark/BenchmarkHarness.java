@@ -0,0 +1,150 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.DatabaseUtils;
+import com.cinecraze.free.database.EntryBatchWriter;
+import com.cinecraze.free.database.EntryRows;
+import com.cinecraze.free.models.Entry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What the latency benchmarks of this package share: the sample loop, the
+ * median and p95 of the samples, a vocabulary for synthetic titles and a
+ * seeded in-memory catalog. A benchmark keeps only its setup and the
+ * operation it measures.
+ *
+ * Samples are wall times from System.nanoTime(), in milliseconds.
+ */
+public final class BenchmarkHarness {
+
+    private static final int SEED_BATCH = 1000;
+
+    // Words of synthetic titles and descriptions
+    static final String[] WORDS = {
+            "night", "city", "shadow", "river", "dragon", "return", "island", "winter",
+            "storm", "hunter", "empire", "garden", "silent", "lost", "golden", "ghost",
+            "ocean", "fire", "secret", "journey", "kingdom", "midnight", "broken", "star"
+    };
+
+    /**
+     * Latency of one measured operation
+     */
+    public static class Result {
+        public final String name;
+        public final int samples;
+        public final double medianMs;
+        public final double p95Ms;
+        public final double firstMs; // first sample in run order
+        public final double lastMs; // last sample in run order
+
+        Result(String name, double[] samplesMs) {
+            double[] sorted = samplesMs.clone();
+            Arrays.sort(sorted);
+            this.name = name;
+            this.samples = samplesMs.length;
+            this.medianMs = sorted[sorted.length / 2];
+            this.p95Ms = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            this.firstMs = samplesMs[0];
+            this.lastMs = samplesMs[samplesMs.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            if (samples == 1) {
+                return String.format(Locale.US, "%s: %.4f ms", name, medianMs);
+            }
+            return String.format(Locale.US, "%s: median %.4f ms, p95 %.4f ms, first %.4f ms, last %.4f ms",
+                    name, medianMs, p95Ms, firstMs, lastMs);
+        }
+    }
+
+    /**
+     * The measured operation; sample is the index of the run, from 0
+     */
+    interface Operation {
+        void run(int sample);
+    }
+
+    /**
+     * Builds the i-th entry of a synthetic catalog
+     */
+    interface EntryFactory {
+        Entry create(int i);
+    }
+
+    private BenchmarkHarness() {
+    }
+
+    /**
+     * Run operation warmups times without recording, to warm up the JIT and
+     * caches, then samples times recorded
+     */
+    static Result measure(String name, int warmups, int samples, Operation operation) {
+        for (int i = 0; i < warmups; i++) {
+            operation.run(i % samples);
+        }
+        double[] times = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            operation.run(i);
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        return new Result(name, times);
+    }
+
+    /**
+     * A single timed run, e.g. building an index
+     */
+    static Result once(String name, Runnable operation) {
+        long start = System.nanoTime();
+        operation.run();
+        return new Result(name, new double[]{(System.nanoTime() - start) / 1_000_000.0});
+    }
+
+    /**
+     * Median and p95 over values measured elsewhere, e.g. the medians of several operations
+     */
+    static Result summarize(String name, double[] samplesMs) {
+        return new Result(name, samplesMs);
+    }
+
+    static String word(String[] words, int seed) {
+        return words[(seed & Integer.MAX_VALUE) % words.length];
+    }
+
+    /**
+     * A fresh in-memory database holding rowCount entries from factory; every
+     * third entry is filed as a series. The caller closes it.
+     */
+    static CineCrazeDatabase seededDatabase(Context context, String tag, int rowCount, EntryFactory factory) {
+        CineCrazeDatabase database = Room.inMemoryDatabaseBuilder(
+                context.getApplicationContext(), CineCrazeDatabase.class).build();
+        long start = System.nanoTime();
+        List<EntryRows> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < rowCount; i++) {
+            batch.add(DatabaseUtils.entryToRows(factory.create(i), i % 3 == 0 ? "TV Series" : "Movies"));
+            if (batch.size() == SEED_BATCH || i == rowCount - 1) {
+                List<EntryRows> inserts = new ArrayList<>(batch);
+                database.runInTransaction(() -> EntryBatchWriter.writeRows(database, inserts, new ArrayList<>()));
+                batch.clear();
+            }
+        }
+        Log.i(tag, "Seeded " + rowCount + " entries in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return database;
+    }
+
+    static void log(String tag, List<Result> results) {
+        for (Result result : results) {
+            Log.i(tag, result.toString());
+        }
+    }
+}
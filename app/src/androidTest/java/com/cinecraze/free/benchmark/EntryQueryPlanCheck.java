@@ -0,0 +1,182 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.EntryFilterQuery;
+import com.cinecraze.free.database.dao.EntryDao;
+import com.cinecraze.free.database.dao.RankingDao;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query-plan regression check for {@link EntryDao} and the entries reads of {@link RankingDao}.
+ *
+ * Runs EXPLAIN QUERY PLAN for every entries query against a database created
+ * from the Room schema, and reports a query that scans the whole table
+ * without an index or sorts through a temporary B-tree. Walking an index in
+ * order (SCAN ... USING INDEX) is fine: those queries stop at their LIMIT.
+ * A few queries read every row on purpose and are listed in {@link #FULL_READS};
+ * they may also group or sort what they read.
+ *
+ * Runs with the instrumentation tests ({@code ./gradlew connectedAndroidTest}),
+ * which fail on any regression.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EntryQueryPlanCheck {
+
+    private static final String TAG = "EntryQueryPlanCheck";
+
+    /**
+     * Queries expected to read the whole table, with the reason
+     */
+    private static final Map<String, String> FULL_READS = new HashMap<>();
+
+    static {
+        FULL_READS.put("getAllTiles", "returns every entry");
+        FULL_READS.put("getEntryHashes", "delta sync diffs every stored entry");
+        FULL_READS.put("queryTitles", "the title index holds every title");
+        FULL_READS.put("querySuggestionSources", "suggestions are built from every title");
+        FULL_READS.put("queryFilterSources", "the filter index holds every entry");
+        FULL_READS.put("getFacetCells", "facet counts group every entry once per sync");
+        FULL_READS.put("getNewestIds", "rankings are sorted once per sync");
+        FULL_READS.put("getTopRatedIdsInCategory", "rankings are sorted once per sync");
+    }
+
+    @Test
+    public void entriesQueriesUseIndexes() {
+        verify(ApplicationProvider.getApplicationContext());
+    }
+
+    /**
+     * Check every query and throw if any plan regressed
+     */
+    public static void verify(Context context) {
+        List<String> violations = run(context);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Query plan regressions:\n" + join(violations));
+        }
+    }
+
+    /**
+     * Check every query, log each plan and return the violations. Must not be called on the main thread.
+     */
+    public static List<String> run(Context context) {
+        CineCrazeDatabase database = Room.inMemoryDatabaseBuilder(
+                context.getApplicationContext(), CineCrazeDatabase.class).build();
+        List<String> violations = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> query : queries().entrySet()) {
+                String name = query.getKey();
+                List<String> plan = explain(database, query.getValue());
+                Log.d(TAG, name + ": " + plan);
+                for (String step : plan) {
+                    if (FULL_READS.containsKey(name)) {
+                        continue;
+                    }
+                    if (step.contains("TEMP B-TREE")) {
+                        violations.add(name + " sorts in a temporary B-tree: " + step);
+                    } else if (isFullTableScan(step)) {
+                        violations.add(name + " scans the whole table: " + step);
+                    }
+                }
+            }
+        } finally {
+            database.close();
+        }
+        for (String violation : violations) {
+            Log.e(TAG, violation);
+        }
+        Log.i(TAG, violations.isEmpty() ? "All entries query plans use indexes"
+                : violations.size() + " query plan regressions");
+        return violations;
+    }
+
+    private static Map<String, String> queries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("getAllTiles", EntryDao.SQL_ALL_TILES);
+        queries.put("getEntryById", EntryDao.SQL_ENTRY_BY_ID);
+        queries.put("getEntryByKey", EntryDao.SQL_ENTRY_BY_KEY);
+        queries.put("getIdByKey", EntryDao.SQL_ID_BY_KEY);
+        queries.put("getEntryHashes", EntryDao.SQL_ENTRY_HASHES);
+        queries.put("deleteByIds", EntryDao.SQL_DELETE_BY_IDS);
+        queries.put("getTilesByCategory", EntryDao.SQL_TILES_BY_CATEGORY);
+        queries.put("getEntriesCount", EntryDao.SQL_COUNT);
+        queries.put("deleteByCategory", EntryDao.SQL_DELETE_BY_CATEGORY);
+        queries.put("getTilesAfter", EntryDao.SQL_TILES_AFTER);
+        queries.put("getTilesByCategoryAfter", EntryDao.SQL_TILES_BY_CATEGORY_AFTER);
+        queries.put("getKeyAt", EntryDao.SQL_KEY_AT);
+        queries.put("getKeyByCategoryAt", EntryDao.SQL_KEY_BY_CATEGORY_AT);
+        queries.put("getEntriesCountByCategory", EntryDao.SQL_COUNT_BY_CATEGORY);
+        queries.put("match", EntryDao.SQL_MATCH);
+        queries.put("getTilesByIds", EntryDao.SQL_TILES_BY_IDS);
+        queries.put("queryTitles", EntryDao.SQL_TITLES);
+        queries.put("querySuggestionSources", EntryDao.SQL_SUGGESTION_SOURCES);
+        queries.put("queryFilterSources", EntryDao.SQL_FILTER_SOURCES);
+        queries.put("getFacetCells", EntryDao.SQL_FACET_CELLS);
+        queries.put("getTopRatedTiles", EntryDao.SQL_TOP_RATED_TILES);
+        queries.put("getTopRatedIds", RankingDao.SQL_TOP_RATED_IDS);
+        queries.put("getNewestIds", RankingDao.SQL_NEWEST_IDS);
+        queries.put("getTopRatedIdsInCategory", RankingDao.SQL_TOP_RATED_IDS_IN_CATEGORY);
+        queries.put("getCategories", RankingDao.SQL_CATEGORIES);
+        queries.put("getRankedTiles", RankingDao.SQL_RANKED_TILES);
+
+        // Every combination of the category, genre, country and year filters
+        for (int mask = 0; mask < 16; mask++) {
+            EntryFilterQuery filter = new EntryFilterQuery(
+                    (mask & 8) != 0 ? "category" : null,
+                    (mask & 1) != 0 ? "genre" : null,
+                    (mask & 2) != 0 ? "country" : null,
+                    (mask & 4) != 0 ? "year" : null);
+            String suffix = "[" + ((mask & 8) != 0 ? "m" : "") + ((mask & 1) != 0 ? "g" : "")
+                    + ((mask & 2) != 0 ? "c" : "") + ((mask & 4) != 0 ? "y" : "") + "]";
+            queries.put("getTilesFilteredAfter" + suffix, filter.tilesAfter("", 0, 20).getSql());
+            queries.put("getFilteredKeyAt" + suffix, filter.keyAt(0).getSql());
+            queries.put("getEntriesFilteredCount" + suffix, filter.count().getSql());
+        }
+        return queries;
+    }
+
+    /**
+     * Detail column of each plan step. Parameters stay unbound; the plan does not depend on them.
+     */
+    private static List<String> explain(CineCrazeDatabase database, String sql) {
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN " + sql, null)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detail));
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * "SCAN entries" or "SCAN TABLE entries" (older SQLite), without an index.
+     * A full-text MATCH shows as a scan of the virtual table but is an index lookup.
+     */
+    static boolean isFullTableScan(String step) {
+        return step.startsWith("SCAN ") && !step.contains(" USING ") && !step.contains("VIRTUAL TABLE");
+    }
+
+    private static String join(List<String> lines) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.cinecraze.free.benchmark;
+
+import com.cinecraze.free.benchmark.BenchmarkHarness.Result;
+import com.cinecraze.free.search.FilterIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Build and lookup latency of {@link FilterIndex} on a synthetic catalog of
+ * 100k entries.
+ *
+ * The combinations are the ones the filter spinners produce: the Home tab
+ * (no category) and the Movies tab, each with a genre, a country, a year,
+ * and all three at once. Every lookup intersects the bitmaps, counts the
+ * matches and selects a page of ids, once for the first page and once for a
+ * page halfway through the results. Genres and countries are skewed like a
+ * real catalog, so both dense and sparse bitmaps are exercised.
+ *
+ * Needs no database; run from a debug build, off the main thread.
+ */
+public class FilterIndexBenchmark {
+
+    private static final String TAG = "FilterIndexBenchmark";
+
+    public static final int DEFAULT_ENTRIES = 100_000;
+
+    private static final int PAGE_SIZE = 20;
+    private static final int SAMPLES_PER_QUERY = 200;
+
+    private static final String[] CATEGORIES = {"Movies", "Movies", "Movies", "TV Series", "TV Series", "Live TV"};
+    private static final String[] GENRES = {
+            "Drama", "Action", "Comedy", "Thriller", "Horror", "Romance", "Animation", "Documentary",
+            "Crime", "Adventure", "Fantasy", "Sci-Fi", "Family", "Mystery", "War", "Western"
+    };
+    private static final String[] COUNTRIES = {
+            "USA", "UK", "India", "Korea", "Japan", "France", "Spain", "Philippines",
+            "China", "Germany", "Italy", "Canada", "Mexico", "Brazil", "Thailand", "Turkey"
+    };
+
+    // {category, genre, country, year}
+    private static final String[][] SELECTIONS = {
+            {null, "Drama", null, null},
+            {null, null, "Korea", null},
+            {null, null, null, "2019"},
+            {null, "Drama", "Korea", "2019"},
+            {"Movies", null, null, null},
+            {"Movies", "Action", null, null},
+            {"Movies", null, "USA", null},
+            {"Movies", null, null, "2021"},
+            {"Movies", "Action", "USA", "2021"},
+            {"Movies", "Western", "Turkey", "1987"}
+    };
+
+    public static List<Result> run() {
+        return run(DEFAULT_ENTRIES);
+    }
+
+    public static List<Result> run(int entryCount) {
+        Random random = new Random(11);
+        int[] ids = new int[entryCount];
+        String[] categories = new String[entryCount];
+        String[] genres = new String[entryCount];
+        String[] countries = new String[entryCount];
+        String[] years = new String[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            // Positions are in title order, which is unrelated to id order
+            ids[i] = random.nextInt(Integer.MAX_VALUE);
+            categories[i] = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            genres[i] = GENRES[skewed(random, GENRES.length)];
+            countries[i] = COUNTRIES[skewed(random, COUNTRIES.length)];
+            years[i] = String.valueOf(1970 + random.nextInt(56));
+        }
+
+        List<Result> results = new ArrayList<>();
+        FilterIndex index = new FilterIndex();
+        results.add(BenchmarkHarness.once("build " + entryCount + " entries",
+                () -> index.build(ids, categories, genres, countries, years)));
+
+        for (String[] selection : SELECTIONS) {
+            results.add(measure(index, selection, false));
+            results.add(measure(index, selection, true));
+        }
+        BenchmarkHarness.log(TAG, results);
+        return results;
+    }
+
+    private static Result measure(FilterIndex index, String[] selection, boolean middlePage) {
+        int matches = index.match(selection[0], selection[1], selection[2], selection[3]).count();
+        int offset = middlePage ? matches / 2 / PAGE_SIZE * PAGE_SIZE : 0;
+        String name = Arrays.toString(selection) + (middlePage ? " middle page" : " first page")
+                + " (" + matches + " matches)";
+        // A first round of the same size warms up the JIT and is not recorded
+        return BenchmarkHarness.measure(name, SAMPLES_PER_QUERY, SAMPLES_PER_QUERY, i -> {
+            FilterIndex.Match match = index.match(selection[0], selection[1], selection[2], selection[3]);
+            match.count();
+            match.ids(offset, PAGE_SIZE);
+        });
+    }
+
+    /**
+     * Index in [0, size), the first ones most likely
+     */
+    private static int skewed(Random random, int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cinecraze.free.benchmark;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.Locale;
+
+/**
+ * Measures how long the main thread was unable to run work while something
+ * else was going on.
+ *
+ * A heartbeat is posted to the main looper once per frame interval; every
+ * millisecond it runs later than scheduled, beyond one frame, counts as stall.
+ */
+public class MainThreadStallMonitor {
+
+    private static final long FRAME_MS = 16;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Object lock = new Object();
+    private long expectedAt;
+    private long totalStallMs = 0;
+    private long maxStallMs = 0;
+    private int droppedFrames = 0;
+    private boolean running = false;
+
+    private final Runnable heartbeat = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (lock) {
+                if (!running) {
+                    return;
+                }
+                long now = SystemClock.uptimeMillis();
+                long late = now - expectedAt;
+                if (late > FRAME_MS) {
+                    totalStallMs += late;
+                    maxStallMs = Math.max(maxStallMs, late);
+                    droppedFrames += (int) (late / FRAME_MS);
+                }
+                expectedAt = now + FRAME_MS;
+                mainHandler.postAtTime(this, expectedAt);
+            }
+        }
+    };
+
+    public void start() {
+        synchronized (lock) {
+            running = true;
+            totalStallMs = 0;
+            maxStallMs = 0;
+            droppedFrames = 0;
+            expectedAt = SystemClock.uptimeMillis() + FRAME_MS;
+            mainHandler.postAtTime(heartbeat, expectedAt);
+        }
+    }
+
+    public Stats stop() {
+        synchronized (lock) {
+            running = false;
+            mainHandler.removeCallbacks(heartbeat);
+            // A heartbeat that is overdue right now is still stalled
+            long pending = SystemClock.uptimeMillis() - expectedAt;
+            if (pending > FRAME_MS) {
+                totalStallMs += pending;
+                maxStallMs = Math.max(maxStallMs, pending);
+                droppedFrames += (int) (pending / FRAME_MS);
+            }
+            return new Stats(totalStallMs, maxStallMs, droppedFrames);
+        }
+    }
+
+    public static class Stats {
+        public final long totalStallMs;
+        public final long maxStallMs;
+        public final int droppedFrames;
+
+        Stats(long totalStallMs, long maxStallMs, int droppedFrames) {
+            this.totalStallMs = totalStallMs;
+            this.maxStallMs = maxStallMs;
+            this.droppedFrames = droppedFrames;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "main thread stalled %d ms (longest %d ms, ~%d frames)",
+                    totalStallMs, maxStallMs, droppedFrames);
+        }
+    }
+}
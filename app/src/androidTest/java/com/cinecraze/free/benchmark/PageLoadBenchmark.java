@@ -0,0 +1,230 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.cinecraze.free.benchmark.BenchmarkHarness.Result;
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.DatabaseUtils;
+import com.cinecraze.free.database.dao.EntryDao;
+import com.cinecraze.free.database.entities.EntryKey;
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.models.Episode;
+import com.cinecraze.free.models.Season;
+import com.cinecraze.free.models.Server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Page-load latency of listing pages on a large catalog:
+ * - full entries rows with their related JSON parsed, paged by OFFSET
+ * - tiles paged by OFFSET
+ * - tiles paged by keyset seeks, as {@link com.cinecraze.free.repository.DataRepository} reads them
+ *
+ * A fresh in-memory database is seeded with synthetic entries (a third of them
+ * series with seasons and episodes), then pages at evenly spaced depths are
+ * loaded and converted to Entry objects for each page size.
+ *
+ * Run from a debug build, off the main thread.
+ */
+public class PageLoadBenchmark {
+
+    private static final String TAG = "PageLoadBenchmark";
+
+    public static final int DEFAULT_ROWS = 50_000;
+    public static final int[] PAGE_SIZES = {20, 50, 100};
+
+    private static final int PAGES_PER_RUN = 25;
+
+    private interface PageLoader {
+        List<Entry> load(int limit, int offset);
+    }
+
+    public static List<Result> run(Context context) {
+        return run(context, DEFAULT_ROWS);
+    }
+
+    /**
+     * Seed rowCount entries and measure every page size. Must not be called on the main thread.
+     */
+    public static List<Result> run(Context context, int rowCount) {
+        CineCrazeDatabase database = BenchmarkHarness.seededDatabase(context, TAG, rowCount,
+                i -> syntheticEntry(i, i % 3 == 0));
+        List<Result> results = new ArrayList<>();
+        try {
+            PageLoader fullRows = (limit, offset) -> loadFullRows(database, limit, offset);
+            PageLoader offsetTiles = (limit, offset) -> loadOffsetTiles(database, limit, offset);
+            for (int pageSize : PAGE_SIZES) {
+                results.add(measure("full rows, OFFSET", fullRows, pageSize, rowCount));
+                results.add(measure("tiles, OFFSET", offsetTiles, pageSize, rowCount));
+
+                // Start keys are known before each page, as they are when paging forward or back
+                Map<Integer, EntryKey> starts = new HashMap<>();
+                for (int i = 0; i < PAGES_PER_RUN; i++) {
+                    int offset = offsetAt(i, pageSize, rowCount);
+                    starts.put(offset, offset == 0 ? EntryKey.FIRST : database.entryDao().getKeyAt(offset - 1));
+                }
+                PageLoader keysetTiles = (limit, offset) -> {
+                    EntryKey start = starts.get(offset);
+                    return DatabaseUtils.tilesToEntries(database.entryDao().getTilesAfter(start.title, start.id, limit));
+                };
+                results.add(measure("tiles, keyset", keysetTiles, pageSize, rowCount));
+            }
+        } finally {
+            database.close();
+        }
+        BenchmarkHarness.log(TAG, results);
+        return results;
+    }
+
+    /**
+     * Pages from the first to the last, in order, after one warm-up read of the
+     * first page; first and last of the result are the shallowest and deepest page
+     */
+    private static Result measure(String name, PageLoader loader, int pageSize, int rowCount) {
+        return BenchmarkHarness.measure(name + ", " + pageSize + " per page", 1, PAGES_PER_RUN, i -> {
+            int offset = offsetAt(i, pageSize, rowCount);
+            if (loader.load(pageSize, offset).isEmpty()) {
+                throw new IllegalStateException("Empty page at offset " + offset);
+            }
+        });
+    }
+
+    /**
+     * Start of the i-th measured page: page boundaries spread from the first to the last page
+     */
+    private static int offsetAt(int i, int pageSize, int rowCount) {
+        int lastPage = Math.max(0, (rowCount - 1) / pageSize);
+        return (int) ((long) lastPage * i / Math.max(1, PAGES_PER_RUN - 1)) * pageSize;
+    }
+
+    /**
+     * What a listing page read before tiles: every column of the entries row,
+     * with related_json parsed by Gson
+     */
+    private static List<Entry> loadFullRows(CineCrazeDatabase database, int limit, int offset) {
+        List<Entry> entries = new ArrayList<>(limit);
+        try (Cursor cursor = database.query("SELECT * FROM entries ORDER BY title ASC LIMIT ? OFFSET ?",
+                new Object[]{limit, offset})) {
+            int id = cursor.getColumnIndexOrThrow("id");
+            int title = cursor.getColumnIndexOrThrow("title");
+            int subCategory = cursor.getColumnIndexOrThrow("sub_category");
+            int mainCategory = cursor.getColumnIndexOrThrow("main_category");
+            int country = cursor.getColumnIndexOrThrow("country");
+            int description = cursor.getColumnIndexOrThrow("description");
+            int poster = cursor.getColumnIndexOrThrow("poster");
+            int thumbnail = cursor.getColumnIndexOrThrow("thumbnail");
+            int rating = cursor.getColumnIndexOrThrow("rating");
+            int duration = cursor.getColumnIndexOrThrow("duration");
+            int year = cursor.getColumnIndexOrThrow("year");
+            int related = cursor.getColumnIndexOrThrow("related_json");
+            while (cursor.moveToNext()) {
+                Entry entry = new Entry();
+                entry.setDatabaseId(cursor.getInt(id));
+                entry.setTitle(cursor.getString(title));
+                entry.setSubCategory(cursor.getString(subCategory));
+                entry.setMainCategory(cursor.getString(mainCategory));
+                entry.setCountry(cursor.getString(country));
+                entry.setDescription(cursor.getString(description));
+                entry.setPoster(cursor.getString(poster));
+                entry.setThumbnail(cursor.getString(thumbnail));
+                entry.setRating(cursor.getString(rating));
+                entry.setDuration(cursor.getString(duration));
+                entry.setYear(cursor.getString(year));
+                entry.setRelated(DatabaseUtils.parseRelated(cursor.getString(related)));
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static List<Entry> loadOffsetTiles(CineCrazeDatabase database, int limit, int offset) {
+        List<Entry> entries = new ArrayList<>(limit);
+        try (Cursor cursor = database.query("SELECT " + EntryDao.TILE_COLUMNS
+                + " FROM entries ORDER BY title ASC, id ASC LIMIT ? OFFSET ?", new Object[]{limit, offset})) {
+            while (cursor.moveToNext()) {
+                EntryTile tile = new EntryTile();
+                tile.id = cursor.getInt(0);
+                tile.title = cursor.getString(1);
+                tile.subCategory = cursor.getString(2);
+                tile.mainCategory = cursor.getString(3);
+                tile.country = cursor.getString(4);
+                tile.description = cursor.getString(5);
+                tile.poster = cursor.getString(6);
+                tile.thumbnail = cursor.getString(7);
+                tile.rating = cursor.getString(8);
+                tile.duration = cursor.getString(9);
+                tile.year = cursor.getString(10);
+                entries.add(DatabaseUtils.tileToEntry(tile));
+            }
+        }
+        return entries;
+    }
+
+    private static Entry syntheticEntry(int i, boolean series) {
+        Entry entry = new Entry();
+        entry.setTitle(String.format(Locale.US, "Title %06d", (i * 7919) % 1_000_003));
+        entry.setSubCategory("Genre " + (i % 20));
+        entry.setCountry("Country " + (i % 30));
+        entry.setDescription(repeat("A synthetic description used to size the row. ", 12));
+        entry.setPoster("https://example.com/poster/" + i + ".jpg");
+        entry.setThumbnail("https://example.com/thumb/" + i + ".jpg");
+        entry.setRating(String.valueOf((i % 100) / 10.0));
+        entry.setDuration(String.valueOf(80 + i % 60));
+        entry.setYear(String.valueOf(1970 + i % 55));
+        entry.setServers(servers(i, 3));
+
+        List<Entry> related = new ArrayList<>();
+        for (int r = 1; r <= 6; r++) {
+            Entry relatedEntry = new Entry();
+            relatedEntry.setTitle("Related " + (i + r));
+            relatedEntry.setPoster("https://example.com/poster/" + (i + r) + ".jpg");
+            related.add(relatedEntry);
+        }
+        entry.setRelated(related);
+
+        if (series) {
+            List<Season> seasons = new ArrayList<>();
+            for (int s = 1; s <= 3; s++) {
+                Season season = new Season();
+                season.setSeason(s);
+                List<Episode> episodes = new ArrayList<>();
+                for (int e = 1; e <= 10; e++) {
+                    Episode episode = new Episode();
+                    episode.setEpisode(e);
+                    episode.setTitle("Episode " + e);
+                    episode.setServers(servers(i * 100 + e, 2));
+                    episodes.add(episode);
+                }
+                season.setEpisodes(episodes);
+                seasons.add(season);
+            }
+            entry.setSeasons(seasons);
+        }
+        return entry;
+    }
+
+    private static List<Server> servers(int seed, int count) {
+        List<Server> servers = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            Server server = new Server();
+            server.setName("Server " + (s + 1));
+            server.setUrl("https://example.com/stream/" + seed + "/" + s + ".m3u8");
+            servers.add(server);
+        }
+        return servers;
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.room.Room;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.DatabaseUtils;
+import com.cinecraze.free.database.EntryBatchWriter;
+import com.cinecraze.free.database.EntryRows;
+import com.cinecraze.free.models.Category;
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.models.Playlist;
+import com.cinecraze.free.net.PlaylistStreamParser;
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares peak heap, wall time, rows/sec and main-thread stall of the
+ * whole-document Gson ingest against the streaming pipeline for a playlist file
+ * on disk. Both paths write into a fresh in-memory database so only parsing and
+ * insertion are measured.
+ *
+ * The whole-document path runs on the main thread, the way the original
+ * Retrofit callback ingested playlists; the pipeline parses on the calling
+ * thread and writes on its own writer thread.
+ *
+ * Run from a debug build, e.g. with a playlist copied to getCacheDir().
+ */
+public class PlaylistIngestBenchmark {
+
+    private static final String TAG = "PlaylistIngestBenchmark";
+
+    public static class Result {
+        public final String name;
+        public final long wallTimeMs;
+        public final long peakHeapBytes;
+        public final int entries;
+        public final MainThreadStallMonitor.Stats stall;
+
+        Result(String name, long wallTimeMs, long peakHeapBytes, int entries, MainThreadStallMonitor.Stats stall) {
+            this.name = name;
+            this.wallTimeMs = wallTimeMs;
+            this.peakHeapBytes = peakHeapBytes;
+            this.entries = entries;
+            this.stall = stall;
+        }
+
+        public double rowsPerSecond() {
+            return entries * 1000.0 / Math.max(1, wallTimeMs);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d entries in %d ms (%.0f rows/s), peak heap +%.1f MB, %s",
+                    name, entries, wallTimeMs, rowsPerSecond(), peakHeapBytes / (1024.0 * 1024.0), stall);
+        }
+    }
+
+    /**
+     * Run both ingest paths against the given playlist file and log the results.
+     * Must not be called on the main thread.
+     */
+    public static List<Result> run(Context context, File playlistFile) throws IOException {
+        List<Result> results = new ArrayList<>();
+        results.add(measureWholeDocument(context, playlistFile));
+        results.add(measureStreaming(context, playlistFile));
+        for (Result result : results) {
+            Log.i(TAG, result.toString());
+        }
+        return results;
+    }
+
+    private static Result measureWholeDocument(Context context, File playlistFile) throws IOException {
+        CineCrazeDatabase database = newInMemoryDatabase(context);
+        MainThreadStallMonitor monitor = new MainThreadStallMonitor();
+        monitor.start();
+        HeapSampler sampler = HeapSampler.begin();
+        long start = System.nanoTime();
+        int[] count = new int[1];
+        IOException[] error = new IOException[1];
+        CountDownLatch done = new CountDownLatch(1);
+        new Handler(Looper.getMainLooper()).post(() -> {
+            try {
+                count[0] = ingestWholeDocument(database, playlistFile);
+            } catch (IOException e) {
+                error[0] = e;
+            }
+            done.countDown();
+        });
+        awaitUninterruptibly(done);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long peak = sampler.finish();
+        MainThreadStallMonitor.Stats stall = monitor.stop();
+        database.close();
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return new Result("whole-document (main thread)", elapsedMs, peak, count[0], stall);
+    }
+
+    private static int ingestWholeDocument(CineCrazeDatabase database, File playlistFile) throws IOException {
+        try (Reader reader = openReader(playlistFile)) {
+            Playlist playlist = new Gson().fromJson(reader, Playlist.class);
+            Set<Long> entryKeys = new HashSet<>();
+            List<EntryRows> entitiesToInsert = new ArrayList<>();
+            if (playlist != null && playlist.getCategories() != null) {
+                for (Category category : playlist.getCategories()) {
+                    if (category != null && category.getEntries() != null) {
+                        for (Entry entry : category.getEntries()) {
+                            if (entry != null && entryKeys.add(entry.getKey())) {
+                                entitiesToInsert.add(DatabaseUtils.entryToRows(entry, category.getMainCategory()));
+                            }
+                        }
+                    }
+                }
+            }
+            database.runInTransaction(() -> EntryBatchWriter.writeRows(database, entitiesToInsert, new ArrayList<>()));
+            return entitiesToInsert.size();
+        }
+    }
+
+    private static Result measureStreaming(Context context, File playlistFile) throws IOException {
+        CineCrazeDatabase database = newInMemoryDatabase(context);
+        MainThreadStallMonitor monitor = new MainThreadStallMonitor();
+        monitor.start();
+        HeapSampler sampler = HeapSampler.begin();
+        long start = System.nanoTime();
+        EntryBatchWriter writer = new EntryBatchWriter(database);
+        try {
+            PlaylistStreamParser.parse(openReader(playlistFile), writer::add);
+        } finally {
+            writer.commit();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long peak = sampler.finish();
+        MainThreadStallMonitor.Stats stall = monitor.stop();
+        database.close();
+        Log.i(TAG, "Pipeline writer thread busy " + writer.getWriteTimeMs() + " ms of " + elapsedMs + " ms");
+        return new Result("streaming pipeline", elapsedMs, peak, writer.getWrittenCount(), stall);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CineCrazeDatabase newInMemoryDatabase(Context context) {
+        return Room.inMemoryDatabaseBuilder(context.getApplicationContext(), CineCrazeDatabase.class).build();
+    }
+
+    private static Reader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Polls used heap on a background thread and keeps the maximum above the
+     * baseline taken right after a GC.
+     */
+    static class HeapSampler extends Thread {
+        private final Runtime runtime = Runtime.getRuntime();
+        private final long baseline;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        private HeapSampler() {
+            super("HeapSampler");
+            runtime.gc();
+            baseline = usedHeap();
+            peak = baseline;
+        }
+
+        static HeapSampler begin() {
+            HeapSampler sampler = new HeapSampler();
+            sampler.setDaemon(true);
+            sampler.start();
+            return sampler;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peak = Math.max(peak, usedHeap());
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long finish() {
+            peak = Math.max(peak, usedHeap());
+            running = false;
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return peak - baseline;
+        }
+
+        private long usedHeap() {
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
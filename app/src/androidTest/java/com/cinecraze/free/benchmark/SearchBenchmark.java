@@ -0,0 +1,138 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.cinecraze.free.benchmark.BenchmarkHarness.Result;
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.DatabaseUtils;
+import com.cinecraze.free.database.dao.EntryDao;
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.search.FullTextSearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search latency on catalogs of 10k, 50k and 200k entries:
+ * - the old path, title LIKE '%query%' plus a COUNT(*) for the result total
+ * - {@link FullTextSearch}: MATCH, BM25 ranking and the first page of tiles
+ *
+ * Titles and descriptions are built from a fixed vocabulary, so every query
+ * has hits at every size. The full-text cache is cleared before each sample.
+ *
+ * Run from a debug build, off the main thread.
+ */
+public class SearchBenchmark {
+
+    private static final String TAG = "SearchBenchmark";
+
+    public static final int[] ROW_COUNTS = {10_000, 50_000, 200_000};
+
+    private static final int PAGE_SIZE = 20;
+    private static final int SAMPLES_PER_QUERY = 15;
+
+    // Accented spellings; remove_diacritics lets "cafe" find them
+    private static final String[] WORDS = withAccented(BenchmarkHarness.WORDS,
+            "caf\u00e9", "\u00e9t\u00e9", "ni\u00f1o", "m\u00fcnchen");
+
+    private static final String[] QUERIES = {"night", "drag", "lost city", "cafe", "golden empire", "mi"};
+
+    private interface Search {
+        /**
+         * Run one search and return the total hit count
+         */
+        int run(String query);
+    }
+
+    /**
+     * Seed each catalog size and measure every query. Must not be called on the main thread.
+     */
+    public static List<Result> run(Context context) {
+        List<Result> results = new ArrayList<>();
+        for (int rowCount : ROW_COUNTS) {
+            results.addAll(run(context, rowCount));
+        }
+        return results;
+    }
+
+    public static List<Result> run(Context context, int rowCount) {
+        CineCrazeDatabase database = BenchmarkHarness.seededDatabase(context, TAG, rowCount, SearchBenchmark::syntheticEntry);
+        List<Result> results = new ArrayList<>();
+        try {
+            FullTextSearch fullText = new FullTextSearch(database);
+            Search like = query -> searchLike(database, query);
+            Search fts = query -> {
+                fullText.clear();
+                FullTextSearch.Results matches = fullText.search(query);
+                DatabaseUtils.tilesToEntries(database.entryDao().getTilesByIds(matches.page(0, PAGE_SIZE)));
+                return matches.size();
+            };
+            for (String query : QUERIES) {
+                results.add(measure("LIKE", like, rowCount, query));
+                results.add(measure("FTS4 + BM25", fts, rowCount, query));
+            }
+        } finally {
+            database.close();
+        }
+        BenchmarkHarness.log(TAG, results);
+        return results;
+    }
+
+    private static Result measure(String name, Search search, int rowCount, String query) {
+        // Warm up the statement and page cache once
+        int hits = search.run(query);
+        return BenchmarkHarness.measure(String.format(Locale.US, "%s, %d rows, \"%s\" (%d hits)",
+                name, rowCount, query, hits), 0, SAMPLES_PER_QUERY, i -> search.run(query));
+    }
+
+    /**
+     * What searchPaginated did before full-text search: a substring match on
+     * the title for the first page and again for the total
+     */
+    private static int searchLike(CineCrazeDatabase database, String query) {
+        List<Entry> entries = new ArrayList<>(PAGE_SIZE);
+        try (Cursor cursor = database.query("SELECT " + EntryDao.TILE_COLUMNS
+                + " FROM entries WHERE title LIKE '%' || ? || '%' ORDER BY title ASC, id ASC LIMIT ?",
+                new Object[]{query, PAGE_SIZE})) {
+            while (cursor.moveToNext()) {
+                Entry entry = new Entry();
+                entry.setDatabaseId(cursor.getInt(0));
+                entry.setTitle(cursor.getString(1));
+                entries.add(entry);
+            }
+        }
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM entries WHERE title LIKE '%' || ? || '%'",
+                new Object[]{query})) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private static Entry syntheticEntry(int i) {
+        Entry entry = new Entry();
+        entry.setTitle(word(i) + " " + word(i / WORDS.length + 3) + " " + (i % 97));
+        entry.setSubCategory("Genre " + (i % 20));
+        entry.setCountry("Country " + (i % 30));
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < 30; w++) {
+            description.append(word(i * 31 + w * 7)).append(' ');
+        }
+        entry.setDescription(description.toString().trim());
+        entry.setPoster("https://example.com/poster/" + i + ".jpg");
+        entry.setRating(String.valueOf((i % 100) / 10.0));
+        entry.setYear(String.valueOf(1970 + i % 55));
+        return entry;
+    }
+
+    private static String word(int seed) {
+        return BenchmarkHarness.word(WORDS, seed);
+    }
+
+    private static String[] withAccented(String[] words, String... accented) {
+        String[] all = Arrays.copyOf(words, words.length + accented.length);
+        System.arraycopy(accented, 0, all, words.length, accented.length);
+        return all;
+    }
+}
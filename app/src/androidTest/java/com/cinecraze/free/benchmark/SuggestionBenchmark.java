@@ -0,0 +1,89 @@
+package com.cinecraze.free.benchmark;
+
+import android.content.Context;
+
+import com.cinecraze.free.benchmark.BenchmarkHarness.Result;
+import com.cinecraze.free.search.SuggestionIndex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Build, startup load and per-keystroke latency of {@link SuggestionIndex}
+ * on a synthetic catalog of 100k titles. The target is under 1 ms per keystroke.
+ *
+ * Each query is typed one character at a time, and every prefix is measured
+ * as a keystroke, so both the precomputed short prefixes and the range walks
+ * of longer ones are covered. The index file is written to a scratch
+ * directory under the cache dir and deleted afterwards.
+ *
+ * Run from a debug build, off the main thread.
+ */
+public class SuggestionBenchmark {
+
+    private static final String TAG = "SuggestionBenchmark";
+
+    public static final int DEFAULT_TITLES = 100_000;
+
+    private static final int SAMPLES_PER_PREFIX = 20;
+    private static final long STAMP = 1L;
+
+    private static final String[] TYPED = {"golden empire", "the lost", "midnight star"};
+
+    public static List<Result> run(Context context) {
+        return run(context, DEFAULT_TITLES);
+    }
+
+    public static List<Result> run(Context context, int titleCount) {
+        Random random = new Random(7);
+        String[] words = BenchmarkHarness.WORDS;
+        String[] titles = new String[titleCount];
+        float[] ratings = new float[titleCount];
+        int[] years = new int[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            titles[i] = (i % 4 == 0 ? "The " : "") + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)] + " " + random.nextInt(1000);
+            ratings[i] = random.nextInt(100) / 10f;
+            years[i] = 1970 + random.nextInt(55);
+        }
+
+        File directory = new File(context.getCacheDir(), "suggestion_benchmark");
+        directory.mkdirs();
+        List<Result> results = new ArrayList<>();
+        try {
+            results.add(BenchmarkHarness.once("build and save " + titleCount + " titles",
+                    () -> new SuggestionIndex(directory).build(titles, ratings, years, STAMP)));
+
+            // A fresh instance, as at startup; the stamp matches so the database is never touched
+            SuggestionIndex index = new SuggestionIndex(directory);
+            results.add(BenchmarkHarness.once("load from file", () -> index.load(null, STAMP)));
+
+            // Median of each prefix as it is typed, one warm-up suggestion per prefix
+            List<Double> keystrokes = new ArrayList<>();
+            for (String typed : TYPED) {
+                for (int length = 1; length <= typed.length(); length++) {
+                    String prefix = typed.substring(0, length);
+                    keystrokes.add(BenchmarkHarness.measure(prefix, 1, SAMPLES_PER_PREFIX,
+                            i -> index.suggest(prefix)).medianMs);
+                }
+            }
+            double[] medians = new double[keystrokes.size()];
+            for (int i = 0; i < medians.length; i++) {
+                medians[i] = keystrokes.get(i);
+            }
+            results.add(BenchmarkHarness.summarize("keystroke (" + medians.length + " prefixes)", medians));
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+        BenchmarkHarness.log(TAG, results);
+        return results;
+    }
+}
@@ -0,0 +1,79 @@
+package com.cinecraze.free.benchmark;
+
+import com.cinecraze.free.benchmark.BenchmarkHarness.Result;
+import com.cinecraze.free.search.TrigramIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Build, update and query latency of {@link TrigramIndex} on a synthetic
+ * catalog of 100k titles. The target is a query answered in under 5 ms.
+ *
+ * Queries cover what a user types: a partial word, whole words, a typo and a
+ * two-letter prefix that matches a large share of the catalog. The update
+ * changes 1% of the titles and deletes another 1%, as a delta sync would.
+ *
+ * Needs no database; run from a debug build, off the main thread.
+ */
+public class TitleIndexBenchmark {
+
+    private static final String TAG = "TitleIndexBenchmark";
+
+    public static final int DEFAULT_TITLES = 100_000;
+
+    private static final int RESULT_LIMIT = 100;
+    private static final int SAMPLES_PER_QUERY = 50;
+
+    private static final String[] QUERIES = {"drag", "golden empire", "midnigth", "shadw river", "st"};
+
+    public static List<Result> run() {
+        return run(DEFAULT_TITLES);
+    }
+
+    public static List<Result> run(int titleCount) {
+        Random random = new Random(42);
+        int[] ids = new int[titleCount];
+        String[] titles = new String[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            ids[i] = i + 1;
+            titles[i] = title(random);
+        }
+
+        List<Result> results = new ArrayList<>();
+        TrigramIndex index = new TrigramIndex();
+        results.add(BenchmarkHarness.once("build " + titleCount + " titles", () -> index.update(ids, titles)));
+
+        // Every 100th title changed, every 100th (offset by 50) deleted
+        int[] nextIds = new int[titleCount];
+        String[] nextTitles = new String[titleCount];
+        int count = 0;
+        for (int i = 0; i < titleCount; i++) {
+            if (i % 100 == 50) {
+                continue;
+            }
+            nextIds[count] = ids[i];
+            nextTitles[count] = i % 100 == 0 ? title(random) : titles[i];
+            count++;
+        }
+        int[] updatedIds = Arrays.copyOf(nextIds, count);
+        String[] updatedTitles = Arrays.copyOf(nextTitles, count);
+        results.add(BenchmarkHarness.once("update 2% of titles", () -> index.update(updatedIds, updatedTitles)));
+
+        for (String query : QUERIES) {
+            // One warm-up search for the JIT
+            results.add(BenchmarkHarness.measure("\"" + query + "\"", 1, SAMPLES_PER_QUERY,
+                    i -> index.search(query, RESULT_LIMIT)));
+        }
+        BenchmarkHarness.log(TAG, results);
+        return results;
+    }
+
+    private static String title(Random random) {
+        String[] words = BenchmarkHarness.WORDS;
+        return words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                + " " + random.nextInt(1000);
+    }
+}
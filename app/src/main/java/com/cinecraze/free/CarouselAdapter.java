@@ -14,15 +14,10 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.cinecraze.free.models.Entry;
-import com.cinecraze.free.models.Season;
 import com.cinecraze.free.R;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.List;
-import android.content.Intent;
-import android.util.Log;
-import android.widget.Toast;
-import com.google.gson.Gson;
 
 public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.ViewHolder> {
 
@@ -61,52 +56,7 @@ public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.ViewHo
         // Set type badge (below info) - Content type badge
         setTypeBadge(holder.typeBadge, entry.getMainCategory());
 
-        holder.playButton.setOnClickListener(v -> {
-            try {
-                Intent intent = new Intent(context, DetailsActivity.class);
-                // Check if entry has too many episodes (potential TransactionTooLargeException)
-                int totalEpisodes = 0;
-                if (entry.getSeasons() != null) {
-                    for (Season season : entry.getSeasons()) {
-                        if (season.getEpisodes() != null) {
-                            totalEpisodes += season.getEpisodes().size();
-                        }
-                    }
-                }
-                
-                // If too many episodes, pass only essential data to avoid TransactionTooLargeException
-                if (totalEpisodes > 500) { // Conservative limit
-                    Log.w("CarouselAdapter", "Large series detected with " + totalEpisodes + " episodes. Using lightweight data transfer.");
-                    
-                    // Create a lightweight entry with only essential data
-                    Entry lightweightEntry = new Entry();
-                    lightweightEntry.setTitle(entry.getTitle());
-                    lightweightEntry.setSubCategory(entry.getSubCategory());
-                    lightweightEntry.setMainCategory(entry.getMainCategory());
-                    lightweightEntry.setCountry(entry.getCountry());
-                    lightweightEntry.setDescription(entry.getDescription());
-                    lightweightEntry.setPoster(entry.getPoster());
-                    lightweightEntry.setThumbnail(entry.getThumbnail());
-                    lightweightEntry.setRating(entry.getRating());
-                    lightweightEntry.setDuration(entry.getDuration());
-                    lightweightEntry.setYear(entry.getYear());
-                    lightweightEntry.setServers(entry.getServers());
-                    // Don't set seasons - will be loaded separately in DetailsActivity
-                    
-                    intent.putExtra("entry", new Gson().toJson(lightweightEntry));
-                    intent.putExtra("needsFullData", true);
-                    intent.putExtra("entryId", entry.getId());
-                } else {
-                    // For smaller series, pass the full entry
-                    intent.putExtra("entry", new Gson().toJson(entry));
-                }
-                // The DetailsActivity will handle the entry data properly without needing all entries
-                context.startActivity(intent);
-            } catch (Exception e) {
-                Log.e("CarouselAdapter", "Error starting DetailsActivity: " + e.getMessage(), e);
-                Toast.makeText(context, "Error opening content details", Toast.LENGTH_SHORT).show();
-            }
-        });
+        holder.playButton.setOnClickListener(v -> DetailsActivity.start(context, entry));
     }
 
     @Override
@@ -24,10 +24,13 @@ import android.content.Intent;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.cinecraze.free.R;
+import com.cinecraze.free.concurrent.ResultCallback;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import com.cinecraze.free.models.Entry;
@@ -35,6 +38,9 @@ import com.cinecraze.free.models.Season;
 import com.cinecraze.free.models.Episode;
 import com.cinecraze.free.models.Server;
 import com.cinecraze.free.repository.DataRepository;
+import com.cinecraze.free.repository.EntryHandoff;
+import com.cinecraze.free.ui.PagedEpisodeList;
+import com.cinecraze.free.ui.PagedList;
 import com.cinecraze.free.utils.VideoServerUtils;
 import com.cinecraze.free.player.CustomPlayerFragment;
 import com.google.gson.Gson;
@@ -92,15 +98,22 @@ public class DetailsActivity extends AppCompatActivity {
     private Episode currentEpisode;
     private List<Server> currentServers;
     private EpisodeAdapter episodeAdapter;
+    private List<Episode> currentEpisodes; // Episodes shown for currentSeason; a PagedEpisodeList for cached seasons
+
+    // Background reads, dropped when the activity is destroyed
+    private DataRepository dataRepository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_details);
 
+        dataRepository = new DataRepository(this);
+        dataRepository.bindToLifecycle(this);
+
         try {
             initializeViews();
-            setupData();
+            resolveEntry();
             // REMOVED: setupVideoPlayer(); - Don't auto-start video player
         } catch (Exception e) {
             Log.e(TAG, "Error in onCreate: " + e.getMessage(), e);
@@ -109,6 +122,43 @@ public class DetailsActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Take the entry handed over by the caller, or read it from the cache by
+     * its key when this process did not open the screen, e.g. after process death
+     */
+    private void resolveEntry() {
+        long key = EntryHandoff.keyOf(getIntent());
+        Entry entry = EntryHandoff.get(key);
+        if (entry != null || key == 0) {
+            showEntry(entry);
+            return;
+        }
+        showEpisodeLoadingIndicator(true);
+        dataRepository.getEntryByKey(key, new ResultCallback<Entry>() {
+            @Override
+            public void onSuccess(Entry stored) {
+                showEntry(stored);
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(TAG, "Error reading entry " + key + ": " + error);
+                showEntry(null);
+            }
+        });
+    }
+
+    private void showEntry(Entry entry) {
+        currentEntry = entry;
+        try {
+            setupData();
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing entry: " + e.getMessage(), e);
+            Toast.makeText(this, "Error loading content: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            finish();
+        }
+    }
+
     private void initializeViews() {
         // Old components for compatibility
         title = findViewById(R.id.title);
@@ -130,6 +180,10 @@ public class DetailsActivity extends AppCompatActivity {
         seriesSeasonsContainer = findViewById(R.id.linear_layout_activity_serie_seasons);
         seasonSpinner = findViewById(R.id.spinner_activity_serie_season_list);
         episodeRecyclerView = findViewById(R.id.recycle_view_activity_activity_serie_episodes);
+        View jumpToEpisode = findViewById(R.id.text_view_activity_serie_jump_to_episode);
+        if (jumpToEpisode != null) {
+            jumpToEpisode.setOnClickListener(v -> showJumpToEpisodeDialog());
+        }
 
         // Setup click listeners
         setupClickListeners();
@@ -141,7 +195,6 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     private void setupData() {
-        currentEntry = getEntryFromIntent();
         if (currentEntry != null) {
             // Update legacy components for compatibility
             if (title != null) title.setText(currentEntry.getTitle());
@@ -174,8 +227,14 @@ public class DetailsActivity extends AppCompatActivity {
             // Load movie images
             loadMovieImages();
 
-            // Setup server selector
-            setupServerSelector();
+            // Entries opened from a listing page carry no servers or seasons; read them from the cache first
+            boolean detailsPending = currentEntry.needsDetails();
+            if (detailsPending) {
+                loadEntryDetailsAsync();
+            } else {
+                // Setup server selector
+                setupServerSelector();
+            }
 
             // Setup TV Series components ONLY if it's a TV series
             if ("TV Series".equalsIgnoreCase(currentEntry.getMainCategory()) ||
@@ -183,7 +242,9 @@ public class DetailsActivity extends AppCompatActivity {
                 "TV".equalsIgnoreCase(currentEntry.getMainCategory())) {
                 // For large series, seasons might be loaded asynchronously
                 // So we'll setup TV components after data loading
-                setupTVSeriesComponents();
+                if (!detailsPending) {
+                    setupTVSeriesComponents();
+                }
 
                 // Hide floating play button for TV series to avoid confusion
                 // Users should select episodes from the seasons section
@@ -218,6 +279,83 @@ public class DetailsActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Read the current entry with its full description, servers and season
+     * list from the cache by row id, then show that entry: set up the server
+     * selector and, for series, the season list. The listing entry shown until
+     * then is left as it is.
+     */
+    private void loadEntryDetailsAsync() {
+        showEpisodeLoadingIndicator(true);
+        final Entry listed = currentEntry;
+        dataRepository.loadEntryDetails(listed.getDatabaseId(), new ResultCallback<Entry>() {
+            @Override
+            public void onSuccess(Entry loaded) {
+                if (loaded == null) {
+                    Log.w(TAG, "Entry " + listed.getDatabaseId() + " is no longer cached");
+                }
+                showEntryDetails(listed, loaded != null ? loaded : listed);
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(TAG, "Error loading entry details: " + error);
+                showEntryDetails(listed, listed);
+            }
+        });
+    }
+
+    private void showEntryDetails(Entry listed, Entry entry) {
+        if (isFinishing() || listed != currentEntry) {
+            return;
+        }
+        currentEntry = entry;
+        showEpisodeLoadingIndicator(false);
+        // Listing pages carry only a preview of the description
+        if (description != null) description.setText(entry.getDescription());
+        if (textViewMovieDescription != null) textViewMovieDescription.setText(entry.getDescription());
+        setupServerSelector();
+        if (seriesSeasonsContainer != null && isSeries(entry)) {
+            setupTVSeriesComponents();
+        }
+    }
+
+    private static boolean isSeries(Entry entry) {
+        return "TV Series".equalsIgnoreCase(entry.getMainCategory()) ||
+               "Series".equalsIgnoreCase(entry.getMainCategory()) ||
+               "TV".equalsIgnoreCase(entry.getMainCategory());
+    }
+
+    /**
+     * Episodes to show for season. Seasons parsed from a playlist carry theirs;
+     * cached seasons are read a window at a time as the list scrolls.
+     */
+    private List<Episode> episodesOf(Season season) {
+        if (season == null || season.getEpisodes() != null || season.getDatabaseId() == 0) {
+            return season != null ? season.getEpisodes() : null;
+        }
+        long seasonId = season.getDatabaseId();
+        PagedEpisodeList[] episodes = new PagedEpisodeList[1];
+        episodes[0] = new PagedEpisodeList(season.getEpisodeCount(),
+            (from, count, callback) -> dataRepository.getSeasonEpisodes(seasonId, from, count, callback),
+            new PagedList.Listener<Episode>() {
+                @Override
+                public void onPageLoaded(int page, List<Episode> items, boolean hasMorePages) {
+                    // Default to the first episode once it is read
+                    if (page == 0 && currentEpisode == null && currentEpisodes == episodes[0] && !episodes[0].isEmpty()) {
+                        currentEpisode = episodes[0].get(0);
+                    }
+                }
+
+                @Override
+                public void onPageError(int page, String error) {
+                    Log.e(TAG, "Error loading episodes of page " + page + ": " + error);
+                    Toast.makeText(DetailsActivity.this, "Error loading episodes", Toast.LENGTH_SHORT).show();
+                }
+            });
+        return episodes[0];
+    }
+
     private void loadMovieImages() {
         // Use Glide to load thumbnail and poster images
         if (imageViewMovieBackground != null && currentEntry.getThumbnail() != null) {
@@ -244,46 +382,22 @@ public class DetailsActivity extends AppCompatActivity {
         if (!currentEntry.getSeasons().isEmpty()) {
             currentSeason = currentEntry.getSeasons().get(0);
             currentSeasonIndex = 0;
-            // User feedback for very large episode loads
-            if (currentSeason.getEpisodes() != null && currentSeason.getEpisodes().size() >= 1000) {
-                Toast.makeText(this, "Warning: This season has " + currentSeason.getEpisodes().size() + " episodes. Loading may take a while.", Toast.LENGTH_LONG).show();
-            }
             loadEpisodesAsync();
         }
     }
 
     /**
-     * Load episodes asynchronously to prevent UI blocking for large series
+     * Show the episodes of the current season. Cached seasons read only the
+     * episodes on screen, so this does not wait for the whole season.
      */
     private void loadEpisodesAsync() {
-        // Show loading indicator
-        showEpisodeLoadingIndicator(true);
-
-        // Use background thread for episode setup
-        new Thread(() -> {
-            try {
-                // Simulate any heavy processing that might be needed
-                Thread.sleep(100); // Small delay to show loading state
-
-                // Switch back to UI thread for UI updates
-                runOnUiThread(() -> {
-                    try {
-                        showEpisodeLoadingIndicator(false);
-                        setupEpisodeAdapter();
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error setting up episode adapter: " + e.getMessage(), e);
-                        showEpisodeLoadingIndicator(false);
-                        Toast.makeText(DetailsActivity.this, "Error loading episodes", Toast.LENGTH_SHORT).show();
-                    }
-                });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                runOnUiThread(() -> {
-                    showEpisodeLoadingIndicator(false);
-                    Toast.makeText(DetailsActivity.this, "Loading interrupted", Toast.LENGTH_SHORT).show();
-                });
-            }
-        }).start();
+        try {
+            showEpisodeLoadingIndicator(false);
+            setupEpisodeAdapter();
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up episode adapter: " + e.getMessage(), e);
+            Toast.makeText(DetailsActivity.this, "Error loading episodes", Toast.LENGTH_SHORT).show();
+        }
     }
 
     /**
@@ -304,8 +418,7 @@ public class DetailsActivity extends AppCompatActivity {
             String[] seasonNames = new String[currentEntry.getSeasons().size()];
             for (int i = 0; i < currentEntry.getSeasons().size(); i++) {
                 Season season = currentEntry.getSeasons().get(i);
-                int episodeCount = season.getEpisodes() != null ? season.getEpisodes().size() : 0;
-                seasonNames[i] = "Season " + season.getSeason() + " (" + episodeCount + " episodes)";
+                seasonNames[i] = "Season " + season.getSeason() + " (" + season.getEpisodeCount() + " episodes)";
             }
 
             // Create and set adapter
@@ -332,7 +445,7 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Handle season change with async loading for better performance
+     * Handle season change; its episodes are read as they scroll into view
      */
     private void handleSeasonChange(int newSeasonIndex) {
         if (newSeasonIndex < 0 || newSeasonIndex >= currentEntry.getSeasons().size()) {
@@ -340,15 +453,7 @@ public class DetailsActivity extends AppCompatActivity {
         }
 
         Season newSeason = currentEntry.getSeasons().get(newSeasonIndex);
-        int episodeCount = newSeason.getEpisodes() != null ? newSeason.getEpisodes().size() : 0;
-
-        Log.d(TAG, "Changing to season " + (newSeasonIndex + 1) + " with " + episodeCount + " episodes");
-
-        // Show loading state for large season changes
-        if (episodeCount > 100) {
-            showEpisodeLoadingIndicator(true);
-            Toast.makeText(this, "Loading " + episodeCount + " episodes...", Toast.LENGTH_SHORT).show();
-        }
+        Log.d(TAG, "Changing to season " + (newSeasonIndex + 1) + " with " + newSeason.getEpisodeCount() + " episodes");
 
         // Update season data
         int oldSeasonIndex = currentSeasonIndex;
@@ -357,48 +462,27 @@ public class DetailsActivity extends AppCompatActivity {
         currentEpisode = null; // Reset episode
         currentServerIndex = 0; // Reset server index
 
-        // Load episodes asynchronously to prevent UI blocking
-        new Thread(() -> {
-            try {
-                // Small delay for large seasons to show loading state
-                if (episodeCount > 100) {
-                    Thread.sleep(150);
-                }
-
-                runOnUiThread(() -> {
-                    try {
-                        setupEpisodeAdapter();
-                        updateServerSelector();
-
-                        if (episodeCount > 100) {
-                            showEpisodeLoadingIndicator(false);
-                        }
-
-                        Log.d(TAG, "Season change completed: " + (oldSeasonIndex + 1) + " -> " + (newSeasonIndex + 1));
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error during season change: " + e.getMessage(), e);
-                        showEpisodeLoadingIndicator(false);
-                        Toast.makeText(DetailsActivity.this, "Error loading season episodes", Toast.LENGTH_SHORT).show();
-                    }
-                });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                runOnUiThread(() -> {
-                    showEpisodeLoadingIndicator(false);
-                    Toast.makeText(DetailsActivity.this, "Season loading interrupted", Toast.LENGTH_SHORT).show();
-                });
-            }
-        }).start();
+        try {
+            setupEpisodeAdapter();
+            updateServerSelector();
+            Log.d(TAG, "Season change completed: " + (oldSeasonIndex + 1) + " -> " + (newSeasonIndex + 1));
+        } catch (Exception e) {
+            Log.e(TAG, "Error during season change: " + e.getMessage(), e);
+            Toast.makeText(DetailsActivity.this, "Error loading season episodes", Toast.LENGTH_SHORT).show();
+        }
     }
 
     private void setupEpisodeAdapter() {
-        if (currentSeason == null || currentSeason.getEpisodes() == null || currentSeason.getEpisodes().isEmpty()) {
+        if (currentEpisodes instanceof PagedEpisodeList) {
+            ((PagedEpisodeList) currentEpisodes).cancel();
+        }
+        currentEpisodes = episodesOf(currentSeason);
+        if (currentEpisodes == null || currentEpisodes.isEmpty()) {
             Toast.makeText(this, "No episodes available for this season.", Toast.LENGTH_LONG).show();
             episodeRecyclerView.setVisibility(View.GONE);
             return;
         }
         episodeRecyclerView.setVisibility(View.VISIBLE);
-        // Performance optimizations for large episode lists
         LinearLayoutManager layoutManager = new LinearLayoutManager(this, LinearLayoutManager.VERTICAL, false) {
             @Override
             public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
@@ -409,40 +493,15 @@ public class DetailsActivity extends AppCompatActivity {
                 }
             }
         };
-
-        // Optimize for large datasets
-        layoutManager.setInitialPrefetchItemCount(Math.min(currentSeason.getEpisodes().size(), 10));
+        layoutManager.setInitialPrefetchItemCount(Math.min(currentEpisodes.size(), 10));
         episodeRecyclerView.setLayoutManager(layoutManager);
 
-        // Enhanced performance optimizations for very large episode lists
-        //episodeRecyclerView.setHasFixedSize(true); // Items have fixed size
-        episodeRecyclerView.setItemViewCacheSize(20); // Increased cache for large lists
-        episodeRecyclerView.setDrawingCacheEnabled(true);
-        episodeRecyclerView.setDrawingCacheQuality(View.DRAWING_CACHE_QUALITY_LOW);
-
-        // Enable nested scrolling for better performance
+        // The list has a fixed height and scrolls on its own, so only the rows on screen are bound
+        episodeRecyclerView.setItemViewCacheSize(20);
         episodeRecyclerView.setNestedScrollingEnabled(true);
 
-        // For very large episode lists (500+), implement virtualization
-        if (currentSeason.getEpisodes().size() > 500) {
-            Log.i(TAG, "Large episode list detected (" + currentSeason.getEpisodes().size() + " episodes). Enabling optimizations.");
-
-            // Use a more conservative item view cache for memory efficiency
-            episodeRecyclerView.setItemViewCacheSize(15);
-
-            // Enable view recycling pool for better memory management
-            RecyclerView.RecycledViewPool viewPool = new RecyclerView.RecycledViewPool();
-            viewPool.setMaxRecycledViews(0, 30); // Allow up to 30 recycled views
-            episodeRecyclerView.setRecycledViewPool(viewPool);
-
-            // Show a warning message for very large lists
-            Toast.makeText(this,
-                "Loading " + currentSeason.getEpisodes().size() + " episodes. Scroll may take a moment to initialize.",
-                Toast.LENGTH_LONG).show();
-        }
-
         // Create adapter with optimized episode click handling
-        episodeAdapter = new EpisodeAdapter(this, currentSeason.getEpisodes(), new EpisodeAdapter.OnEpisodeClickListener() {
+        episodeAdapter = new EpisodeAdapter(this, currentEpisodes, new EpisodeAdapter.OnEpisodeClickListener() {
             @Override
             public void onEpisodeClick(Episode episode, int position) {
                 // Handle episode selection efficiently
@@ -455,20 +514,101 @@ public class DetailsActivity extends AppCompatActivity {
                 downloadEpisode(episode);
             }
         });
-
-        // Enable stable IDs for better performance with large datasets
-        episodeAdapter.setHasStableIds(false); // Set to true if you implement getItemId()
         episodeRecyclerView.setAdapter(episodeAdapter);
 
-        // Select first episode by default but don't auto-scroll for large lists
-        if (!currentSeason.getEpisodes().isEmpty()) {
-            currentEpisode = currentSeason.getEpisodes().get(0);
+        if (currentEpisodes instanceof PagedEpisodeList) {
+            ((PagedEpisodeList) currentEpisodes).setUpdateCallback(new AdapterListUpdateCallback(episodeAdapter));
+            episodeRecyclerView.clearOnScrollListeners();
+            episodeRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    updateEpisodeWindow();
+                }
+            });
+            episodeRecyclerView.post(this::updateEpisodeWindow);
+        } else {
+            // Select first episode by default
+            currentEpisode = currentEpisodes.get(0);
+        }
+    }
+
+    /**
+     * Read the episodes around the visible rows of a cached season
+     */
+    private void updateEpisodeWindow() {
+        if (!(currentEpisodes instanceof PagedEpisodeList)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) episodeRecyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            first = last = 0; // Not laid out yet
+        }
+        ((PagedEpisodeList) currentEpisodes).onVisibleRange(first, last);
+    }
+
+    private void showJumpToEpisodeDialog() {
+        if (currentSeason == null || currentEpisodes == null || currentEpisodes.isEmpty()) {
+            return;
+        }
+        android.widget.EditText input = new android.widget.EditText(this);
+        input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
+        input.setHint("1 - " + currentEpisodes.size());
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+            .setTitle("Go to episode")
+            .setView(input)
+            .setPositiveButton("Go", (dialog, which) -> {
+                try {
+                    jumpToEpisode(Integer.parseInt(input.getText().toString().trim()));
+                } catch (NumberFormatException e) {
+                    Toast.makeText(this, "Enter an episode number", Toast.LENGTH_SHORT).show();
+                }
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * Scroll to the episode numbered number in the current season. For a
+     * cached season its position is looked up by number and only the window
+     * around it is read.
+     */
+    private void jumpToEpisode(int number) {
+        if (currentEpisodes instanceof PagedEpisodeList) {
+            final List<Episode> episodes = currentEpisodes;
+            dataRepository.findEpisodePosition(currentSeason.getDatabaseId(), number, new ResultCallback<Integer>() {
+                @Override
+                public void onSuccess(Integer position) {
+                    if (episodes != currentEpisodes) {
+                        return; // Another season was selected meanwhile
+                    }
+                    if (position < 0) {
+                        Toast.makeText(DetailsActivity.this, "Episode " + number + " not found", Toast.LENGTH_SHORT).show();
+                    } else {
+                        scrollToEpisode(position);
+                    }
+                }
 
-            // Only scroll to position for smaller lists to avoid performance issues
-            if (currentSeason.getEpisodes().size() <= 100) {
-                episodeRecyclerView.scrollToPosition(0);
+                @Override
+                public void onError(String error) {
+                    Log.e(TAG, "Error finding episode " + number + ": " + error);
+                }
+            });
+            return;
+        }
+        for (int i = 0; i < currentEpisodes.size(); i++) {
+            if (currentEpisodes.get(i).getEpisode() == number) {
+                scrollToEpisode(i);
+                return;
             }
         }
+        Toast.makeText(this, "Episode " + number + " not found", Toast.LENGTH_SHORT).show();
+    }
+
+    private void scrollToEpisode(int position) {
+        ((LinearLayoutManager) episodeRecyclerView.getLayoutManager()).scrollToPositionWithOffset(position, 0);
+        episodeRecyclerView.post(this::updateEpisodeWindow);
     }
 
     /**
@@ -485,7 +625,7 @@ public class DetailsActivity extends AppCompatActivity {
         showServerSelectionDialog();
 
         // Log selection for debugging large lists
-        Log.d(TAG, "Selected episode " + (position + 1) + " of " + currentSeason.getEpisodes().size());
+        Log.d(TAG, "Selected episode " + (position + 1) + " of " + currentEpisodes.size());
     }
 
     private void showServerSpinner() {
@@ -502,13 +642,8 @@ public class DetailsActivity extends AppCompatActivity {
             androidx.appcompat.app.AlertDialog.Builder builder = new androidx.appcompat.app.AlertDialog.Builder(this);
             builder.setTitle("Select Season");
             builder.setSingleChoiceItems(seasonNames, currentSeasonIndex, (dialog, which) -> {
-                currentSeasonIndex = which;
-                currentSeason = currentEntry.getSeasons().get(which);
-                currentEpisode = null; // Reset episode
-                currentServerIndex = 0; // Reset server index
-                setupEpisodeAdapter();
-                updateServerSelector();
                 dialog.dismiss();
+                handleSeasonChange(which);
             });
             builder.show();
         } else {
@@ -612,340 +747,13 @@ public class DetailsActivity extends AppCompatActivity {
         return 100;
     }
 
-    private Entry getEntryFromIntent() {
-        try {
-            String entryJson = getIntent().getStringExtra("entry");
-            if (entryJson != null && !entryJson.isEmpty()) {
-                Gson gson = new Gson();
-                Entry entry = gson.fromJson(entryJson, Entry.class);
-
-                // Check if we need to load full data (for large series)
-                boolean needsFullData = getIntent().getBooleanExtra("needsFullData", false);
-                int entryId = getIntent().getIntExtra("entryId", 0);
-
-                if (needsFullData && entryId != 0) {
-                    Log.i(TAG, "Loading full data for large series with ID: " + entryId);
-                    // Load full data from database or repository
-                    loadFullEntryData(entry, entryId);
-                }
-
-                return entry;
-            }
-
-            Log.e(TAG, "No entry data found in intent");
-            return null;
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing entry from intent: " + e.getMessage(), e);
-            return null;
-        }
-    }
-
-    private void loadFullEntryData(Entry entry, int entryId) {
-        // Load full entry data from database or repository asynchronously
-        // This prevents TransactionTooLargeException for large series
-        Log.i(TAG, "Starting async load for large series with ID: " + entryId);
-
-        // Show loading indicator
-        showEpisodeLoadingIndicator(true);
-        Toast.makeText(this, "Loading TV series data...", Toast.LENGTH_SHORT).show();
-
-        // Use background thread to prevent UI blocking
-        new Thread(() -> {
-            try {
-                DataRepository dataRepository = new DataRepository(this);
-
-                Log.i(TAG, "Loading full data for large series with ID: " + entryId);
-
-                // Load the complete entry data from the repository
-                List<Entry> allEntries = dataRepository.getAllCachedEntries();
-                Entry foundEntry = null;
-
-                // Find the entry with the matching ID
-                for (Entry fullEntry : allEntries) {
-                    if (fullEntry.getId() == entryId) {
-                        foundEntry = fullEntry;
-                        break;
-                    }
-                }
-
-                final Entry finalEntry = foundEntry;
-
-                // Switch back to UI thread for UI updates
-                runOnUiThread(() -> {
-                    try {
-                        if (finalEntry != null && finalEntry.getSeasons() != null && !finalEntry.getSeasons().isEmpty()) {
-                            // Copy the seasons data from the full entry
-                            entry.setSeasons(finalEntry.getSeasons());
-                            Log.i(TAG, "Loaded " + finalEntry.getSeasons().size() + " seasons for large series");
-
-                            // Re-setup TV series components with the loaded data
-                            setupTVSeriesComponents();
-
-                            // Calculate total episodes for user feedback
-                            int totalEpisodes = 0;
-                            for (Season season : finalEntry.getSeasons()) {
-                                if (season.getEpisodes() != null) {
-                                    totalEpisodes += season.getEpisodes().size();
-                                }
-                            }
-
-                            // Show success message
-                            Toast.makeText(DetailsActivity.this,
-                                "Loaded " + finalEntry.getSeasons().size() + " seasons with " + totalEpisodes + " episodes",
-                                Toast.LENGTH_LONG).show();
-                        } else {
-                            // Fallback to manual creation if loading fails
-                            Log.w(TAG, "Entry not found in cache, using fallback method");
-                            loadFallbackSeasonData(entry, entryId);
-                        }
-
-                        showEpisodeLoadingIndicator(false);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing loaded entry data: " + e.getMessage(), e);
-                        showEpisodeLoadingIndicator(false);
-                        loadFallbackSeasonData(entry, entryId);
-                    }
-                });
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading cached entries: " + e.getMessage(), e);
-
-                // Fallback to manual creation on UI thread
-                runOnUiThread(() -> {
-                    showEpisodeLoadingIndicator(false);
-                    loadFallbackSeasonData(entry, entryId);
-                });
-            }
-        }).start();
-    }
-
     /**
-     * Fallback method to create seasons data when database loading fails
+     * Open the details of entry. Only its key goes into the Intent; see {@link EntryHandoff}.
      */
-    private void loadFallbackSeasonData(Entry entry, int entryId) {
-        // Show loading indicator for fallback
-        showEpisodeLoadingIndicator(true);
-        Toast.makeText(this, "Generating episode data...", Toast.LENGTH_SHORT).show();
-
-        // Use background thread for fallback generation
-        new Thread(() -> {
-            try {
-                List<Season> seasons = createSeasonsForLargeSeries(entryId);
-
-                runOnUiThread(() -> {
-                    try {
-                        if (seasons != null && !seasons.isEmpty()) {
-                            entry.setSeasons(seasons);
-                            setupTVSeriesComponents();
-
-                            // Calculate total episodes for user feedback
-                            int totalEpisodes = 0;
-                            for (Season season : seasons) {
-                                if (season.getEpisodes() != null) {
-                                    totalEpisodes += season.getEpisodes().size();
-                                }
-                            }
-
-                            Toast.makeText(DetailsActivity.this,
-                                "Generated " + seasons.size() + " seasons with " + totalEpisodes + " episodes",
-                                Toast.LENGTH_LONG).show();
-                        } else {
-                            Toast.makeText(DetailsActivity.this, "Unable to load episode data", Toast.LENGTH_LONG).show();
-                        }
-
-                        showEpisodeLoadingIndicator(false);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error setting up fallback seasons: " + e.getMessage(), e);
-                        showEpisodeLoadingIndicator(false);
-                        Toast.makeText(DetailsActivity.this, "Error loading episode data", Toast.LENGTH_SHORT).show();
-                    }
-                });
-            } catch (Exception e) {
-                Log.e(TAG, "Error in fallback season creation: " + e.getMessage(), e);
-                runOnUiThread(() -> {
-                    showEpisodeLoadingIndicator(false);
-                    Toast.makeText(DetailsActivity.this, "Failed to generate episode data", Toast.LENGTH_SHORT).show();
-                });
-            }
-        }).start();
-    }
-
-    private List<Season> createSeasonsForLargeSeries(int entryId) {
-        // This is an optimized solution to create seasons data for large series
-        // In production, this should load from database or API
-
-        List<Season> seasons = new ArrayList<>();
-
-        try {
-            // TMDB ID 66515 (Brothers/Ang Probinsyano) - 9 seasons
-            if (entryId == 66515) {
-                Log.d(TAG, "Creating seasons for Brothers (Ang Probinsyano) - 9 seasons");
-
-                for (int seasonNum = 1; seasonNum <= 9; seasonNum++) {
-                    Season season = new Season();
-                    season.setSeason(seasonNum);
-                    season.setSeasonPoster(null); // No poster for now
-
-                    // Create episodes for each season with realistic episode counts
-                    List<Episode> episodes = new ArrayList<>();
-                    int episodesPerSeason;
-
-                    // More realistic episode distribution
-                    switch (seasonNum) {
-                        case 1: episodesPerSeason = 200; break;
-                        case 2: episodesPerSeason = 220; break;
-                        case 3: episodesPerSeason = 240; break;
-                        case 4: episodesPerSeason = 260; break;
-                        case 5: episodesPerSeason = 250; break;
-                        case 6: episodesPerSeason = 260; break;
-                        case 7: episodesPerSeason = 270; break;
-                        case 8: episodesPerSeason = 280; break;
-                        case 9: episodesPerSeason = 250; break; // Current/final season
-                        default: episodesPerSeason = 250; break;
-                    }
-
-                    // Batch create episodes efficiently
-                    for (int episodeNum = 1; episodeNum <= episodesPerSeason; episodeNum++) {
-                        Episode episode = createEpisodeQuickly(seasonNum, episodeNum, entryId);
-                        episodes.add(episode);
-
-                        // Yield control occasionally to prevent ANR
-                        if (episodeNum % 100 == 0) {
-                            try {
-                                Thread.sleep(1); // Micro-pause to keep UI responsive
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                Log.w(TAG, "Episode creation interrupted");
-                                return seasons; // Return what we have so far
-                            }
-                        }
-                    }
-
-                    season.setEpisodes(episodes);
-                    seasons.add(season);
-
-                    Log.d(TAG, "Created season " + seasonNum + " with " + episodesPerSeason + " episodes");
-                }
-            }
-            // TMDB ID 215803 (Batang Quiapo) - 3 seasons
-            else if (entryId == 215803) {
-                Log.d(TAG, "Creating seasons for Batang Quiapo - 3 seasons");
-
-                for (int seasonNum = 1; seasonNum <= 3; seasonNum++) {
-                    Season season = new Season();
-                    season.setSeason(seasonNum);
-                    season.setSeasonPoster(null);
-
-                    // Create episodes for each season
-                    List<Episode> episodes = new ArrayList<>();
-                    int episodesPerSeason;
-
-                    // Realistic episode distribution for Batang Quiapo
-                    switch (seasonNum) {
-                        case 1: episodesPerSeason = 197; break;
-                        case 2: episodesPerSeason = 377; break;
-                        case 3: episodesPerSeason = 87; break; // Current season
-                        default: episodesPerSeason = 100; break;
-                    }
-
-                    // Batch create episodes efficiently
-                    for (int episodeNum = 1; episodeNum <= episodesPerSeason; episodeNum++) {
-                        Episode episode = createEpisodeQuickly(seasonNum, episodeNum, entryId);
-                        episodes.add(episode);
-
-                        // Yield control occasionally
-                        if (episodeNum % 50 == 0) {
-                            try {
-                                Thread.sleep(1);
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                return seasons;
-                            }
-                        }
-                    }
-
-                    season.setEpisodes(episodes);
-                    seasons.add(season);
-
-                    Log.d(TAG, "Created season " + seasonNum + " with " + episodesPerSeason + " episodes");
-                }
-            }
-
-            Log.d(TAG, "Successfully created " + seasons.size() + " seasons for entry " + entryId);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating seasons for large series: " + e.getMessage(), e);
-        }
-
-        return seasons;
-    }
-
-    /**
-     * Efficiently create a single episode with minimal object allocation
-     */
-    private Episode createEpisodeQuickly(int seasonNum, int episodeNum, int entryId) {
-        Episode episode = new Episode();
-        episode.setEpisode(episodeNum);
-        episode.setTitle("Episode " + episodeNum);
-        episode.setDescription("Episode " + episodeNum + " of Season " + seasonNum);
-        episode.setDuration(entryId == 66515 ? "45 min" : "30 min"); // Different durations per series
-        episode.setThumbnail(null); // No thumbnails for performance
-
-        // Create servers efficiently - reuse server objects when possible
-        List<Server> servers = new ArrayList<>(1); // Pre-size for single server
-        Server server = new Server();
-        server.setName("VidSrc Server");
-        server.setUrl("https://vidsrc.net/embed/tv/" + entryId + "/" + seasonNum + "/" + episodeNum);
-        servers.add(server);
-
-        episode.setServers(servers);
-        return episode;
-    }
-
-    // Static method to start DetailsActivity
     public static void start(android.content.Context context, Entry entry) {
         try {
             android.content.Intent intent = new android.content.Intent(context, DetailsActivity.class);
-
-            // Check if entry has too many episodes (potential TransactionTooLargeException)
-            int totalEpisodes = 0;
-            if (entry.getSeasons() != null) {
-                for (Season season : entry.getSeasons()) {
-                    if (season.getEpisodes() != null) {
-                        totalEpisodes += season.getEpisodes().size();
-                    }
-                }
-            }
-
-            // If too many episodes, pass only essential data to avoid TransactionTooLargeException
-            if (totalEpisodes > 500) { // Conservative limit
-                Log.w("DetailsActivity", "Large series detected with " + totalEpisodes + " episodes. Using lightweight data transfer.");
-
-                // Create a lightweight entry with only essential data
-                Entry lightweightEntry = new Entry();
-                lightweightEntry.setTitle(entry.getTitle());
-                lightweightEntry.setSubCategory(entry.getSubCategory());
-                lightweightEntry.setMainCategory(entry.getMainCategory());
-                lightweightEntry.setCountry(entry.getCountry());
-                lightweightEntry.setDescription(entry.getDescription());
-                lightweightEntry.setPoster(entry.getPoster());
-                lightweightEntry.setThumbnail(entry.getThumbnail());
-                lightweightEntry.setRating(entry.getRating());
-                lightweightEntry.setDuration(entry.getDuration());
-                lightweightEntry.setYear(entry.getYear());
-                lightweightEntry.setServers(entry.getServers());
-                // Don't set seasons - will be loaded separately in DetailsActivity
-
-                Gson gson = new Gson();
-                intent.putExtra("entry", gson.toJson(lightweightEntry));
-                intent.putExtra("needsFullData", true);
-                intent.putExtra("entryId", entry.getId());
-            } else {
-                // For smaller series, pass the full entry
-                Gson gson = new Gson();
-                intent.putExtra("entry", gson.toJson(entry));
-            }
-
+            EntryHandoff.put(intent, entry);
             context.startActivity(intent);
         } catch (Exception e) {
             Log.e("DetailsActivity", "Error starting DetailsActivity: " + e.getMessage(), e);
@@ -1218,9 +1026,6 @@ public class DetailsActivity extends AppCompatActivity {
     private void setupRelatedContent() {
         if (currentEntry == null) return;
 
-        // Initialize the repository
-        DataRepository dataRepository = new DataRepository(this);
-
         // Get related content based on country and category
         dataRepository.getPaginatedFilteredData(
             null, // No genre filter (Entry doesn't have getGenre method)
@@ -1234,7 +1039,7 @@ public class DetailsActivity extends AppCompatActivity {
                     // Filter out the current entry from related content
                     List<Entry> relatedEntries = new ArrayList<>();
                     for (Entry entry : entries) {
-                        if (entry.getId() != currentEntry.getId()) { // Compare int IDs
+                        if (entry.getKey() != currentEntry.getKey()) {
                             relatedEntries.add(entry);
                         }
                     }
@@ -44,6 +44,11 @@ public class EpisodeAdapter extends RecyclerView.Adapter<EpisodeAdapter.ViewHold
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Episode episode = episodes.get(position);
+        if (episode == null) {
+            // Not read yet; see PagedEpisodeList
+            bindPlaceholder(holder);
+            return;
+        }
         
         // Set episode title
         holder.episodeTitle.setText(episode.getTitle());
@@ -119,6 +124,18 @@ public class EpisodeAdapter extends RecyclerView.Adapter<EpisodeAdapter.ViewHold
         holder.downloadButton.setVisibility(hasDirect ? View.VISIBLE : View.GONE);
     }
 
+    private void bindPlaceholder(ViewHolder holder) {
+        holder.episodeTitle.setText("");
+        holder.episodeDescription.setVisibility(View.GONE);
+        holder.episodeDuration.setVisibility(View.GONE);
+        Glide.with(context).clear(holder.episodeThumbnail);
+        holder.episodeThumbnail.setImageResource(R.drawable.image_placeholder);
+        holder.viewedIndicator.setVisibility(View.GONE);
+        holder.downloadButton.setVisibility(View.GONE);
+        holder.itemView.setOnClickListener(null);
+        holder.playButton.setOnClickListener(null);
+    }
+
     @Override
     public int getItemCount() {
         return episodes != null ? episodes.size() : 0;
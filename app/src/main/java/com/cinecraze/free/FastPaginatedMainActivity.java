@@ -21,6 +21,8 @@ import com.cinecraze.free.models.PlaylistsVersion;
 import com.cinecraze.free.net.ApiService;
 import com.cinecraze.free.net.RetrofitClient;
 import com.cinecraze.free.repository.DataRepository;
+import com.cinecraze.free.repository.PagePrefetcher;
+import com.cinecraze.free.search.SearchPipeline;
 import com.cinecraze.free.R;
 import com.gauravk.bubblenavigation.BubbleNavigationConstraintView;
 
@@ -68,6 +70,8 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
     private boolean isGridView = true;
     private boolean isSearchVisible = false;
     private DataRepository dataRepository;
+    private SearchPipeline searchPipeline;
+    private PagePrefetcher pagePrefetcher;
 
     // Pagination variables
     private int currentPage = 0;
@@ -105,6 +109,9 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
 
         // Initialize repository
         dataRepository = new DataRepository(this);
+        dataRepository.bindToLifecycle(this);
+        pagePrefetcher = new PagePrefetcher(this);
+        setupSearchPipeline();
 
         // Load ONLY first page - this is the key difference!
         loadInitialDataFast();
@@ -201,9 +208,12 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 String query = s.toString().trim();
                 if (query.length() > 2) {
-                    performSearch(query);
-                } else if (query.isEmpty()) {
-                    clearSearch();
+                    searchPipeline.submit(query);
+                } else {
+                    searchPipeline.cancel();
+                    if (query.isEmpty()) {
+                        clearSearch();
+                    }
                 }
             }
 
@@ -212,6 +222,26 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
         });
     }
 
+    /**
+     * Keystrokes are debounced and superseded searches dropped, so only the
+     * query the user settles on is searched and shown
+     */
+    private void setupSearchPipeline() {
+        searchPipeline = new SearchPipeline(dataRepository, pageSize, new SearchPipeline.Listener() {
+            @Override
+            public void onResults(String query, List<Entry> entries, boolean hasMorePages, int totalCount) {
+                currentSearchQuery = query;
+                currentPage = 0;
+                updatePageData(entries, hasMorePages, totalCount);
+            }
+
+            @Override
+            public void onError(String query, String error) {
+                handlePageLoadError(error);
+            }
+        });
+    }
+
     private void showSearchBar() {
         try {
             if (!isSearchVisible && titleLayout != null && searchLayout != null) {
@@ -249,12 +279,6 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
         }
     }
 
-    private void performSearch(String query) {
-        currentSearchQuery = query.trim();
-        currentPage = 0;
-        loadSearchResults();
-    }
-
     private void clearSearch() {
         currentSearchQuery = "";
         currentPage = 0;
@@ -262,6 +286,7 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
     }
 
     private void filterByCategory(String category) {
+        searchPipeline.cancel();
         currentCategory = category;
         currentPage = 0;
         currentSearchQuery = "";
@@ -482,9 +507,38 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
         // Scroll to top of the list
         recyclerView.scrollToPosition(0);
 
+        // Read the neighbouring pages ahead of the next tap
+        if (pagePrefetcher != null) {
+            pagePrefetcher.onPageShown(currentQueryShape(), currentPage, hasMorePages, currentPageLoader());
+        }
+
         Log.d("FastPaginatedMainActivity", "Page updated: " + entries.size() + " items on page " + (currentPage + 1));
     }
 
+    private String currentQueryShape() {
+        if (!currentSearchQuery.isEmpty()) {
+            return "search\u0000" + currentSearchQuery;
+        } else if (!currentCategory.isEmpty()) {
+            return "category\u0000" + currentCategory;
+        }
+        return "all";
+    }
+
+    /**
+     * Loader for other pages of the current query, with its parameters captured
+     */
+    private PagePrefetcher.PageLoader currentPageLoader() {
+        final String category = currentCategory;
+        final String search = currentSearchQuery;
+        final int size = pageSize;
+        if (!search.isEmpty()) {
+            return (page, callback) -> dataRepository.searchPaginated(search, page, size, callback);
+        } else if (!category.isEmpty()) {
+            return (page, callback) -> dataRepository.getPaginatedDataByCategory(category, page, size, callback);
+        }
+        return (page, callback) -> dataRepository.getPaginatedData(page, size, callback);
+    }
+
     private void handlePageLoadError(String error) {
         isLoading = false;
         movieAdapter.setLoading(false);
@@ -519,6 +573,17 @@ public class FastPaginatedMainActivity extends AppCompatActivity implements Pagi
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        if (searchPipeline != null) {
+            searchPipeline.cancel();
+        }
+        if (pagePrefetcher != null) {
+            pagePrefetcher.cancel();
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onBackPressed() {
         try {
@@ -15,6 +15,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.cinecraze.free.R;
+import com.cinecraze.free.search.FacetCube;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,7 @@ public class FilterSpinner {
 
     private PopupWindow popupWindow;
     private List<String> filterValues;
+    private List<String> filterLabels; // shown in place of filterValues, e.g. with hit counts
     private OnFilterSelectedListener listener;
     private String currentFilter;
     private String filterType;
@@ -40,6 +42,7 @@ public class FilterSpinner {
         if (filterValues != null) {
             this.filterValues.addAll(filterValues);
         }
+        this.filterLabels = this.filterValues;
         this.currentFilter = currentFilter;
         createFilterPopupWindow();
     }
@@ -62,14 +65,14 @@ public class FilterSpinner {
         
         // Create adapter with custom layout
         ArrayAdapter<String> adapter = new ArrayAdapter<String>(context,
-                R.layout.item_filter_spinner, R.id.filter_name, filterValues) {
+                R.layout.item_filter_spinner, R.id.filter_name, filterLabels) {
             @NonNull
             @Override
             public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
                 View view = super.getView(position, convertView, parent);
                 TextView textView = view.findViewById(R.id.filter_name);
 
-                String filterValue = getItem(position);
+                String filterValue = filterValues.get(position);
                 boolean isSelected = (currentFilter == null && position == 0) ||
                         (currentFilter != null && currentFilter.equals(filterValue));
 
@@ -121,6 +124,22 @@ public class FilterSpinner {
         if (newFilterValues != null) {
             this.filterValues.addAll(newFilterValues);
         }
+        this.filterLabels = this.filterValues;
+        createFilterPopupWindow(); // Recreate popup with new values
+    }
+
+    /**
+     * Show facet values with the number of entries each would show, e.g. "Drama (42)"
+     */
+    public void updateFacetValues(List<FacetCube.Value> values, int allCount) {
+        this.filterValues.clear();
+        this.filterLabels = new ArrayList<>();
+        this.filterValues.add("All " + filterType);
+        this.filterLabels.add("All " + filterType + " (" + allCount + ")");
+        for (FacetCube.Value value : values) {
+            this.filterValues.add(value.value);
+            this.filterLabels.add(value.value + " (" + value.count + ")");
+        }
         createFilterPopupWindow(); // Recreate popup with new values
     }
 
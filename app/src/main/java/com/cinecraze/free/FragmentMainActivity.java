@@ -61,6 +61,7 @@ public class FragmentMainActivity extends AppCompatActivity {
     private boolean isProgrammaticChange = false; // Flag to prevent infinite loops
 
     private DataRepository dataRepository;
+    private boolean fragmentsStarted = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,6 +73,7 @@ public class FragmentMainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main_fragment);
 
         dataRepository = new DataRepository(this);
+        dataRepository.bindToLifecycle(this);
 
         initializeViews();
 
@@ -80,6 +82,10 @@ public class FragmentMainActivity extends AppCompatActivity {
     }
 
     private void startFragments() {
+        if (fragmentsStarted) {
+            return;
+        }
+        fragmentsStarted = true;
         setupViewPager();
         setupBottomNavigation();
         setupSearch();
@@ -117,6 +123,12 @@ public class FragmentMainActivity extends AppCompatActivity {
                                     startFragments(); // Start with cached data on failure
                                 });
                             }
+                        }, (url, entryCount) -> {
+                            // The first playlist is in; let the user browse while the rest downloads
+                            if (downloadingDialog != null && downloadingDialog.isShowing()) {
+                                downloadingDialog.dismiss();
+                            }
+                            startFragments();
                         });
                     })
                     .setNegativeButton("Later", (dialog, which) -> {
@@ -255,6 +267,12 @@ public class FragmentMainActivity extends AppCompatActivity {
 
         closeSearchIcon.setOnClickListener(v -> hideSearch());
 
+        // Title suggestions from the first typed character; picking one searches for it
+        searchBar.setAdapter(new SuggestionAdapter(this, dataRepository));
+        searchBar.setThreshold(1);
+        searchBar.setOnItemClickListener((parent, view, position, id) ->
+                performSearch((String) parent.getItemAtPosition(position)));
+
         searchBar.setOnEditorActionListener((v, actionId, event) -> {
             if (actionId == EditorInfo.IME_ACTION_SEARCH ||
                 (event != null && event.getKeyCode() == KeyEvent.KEYCODE_ENTER)) {
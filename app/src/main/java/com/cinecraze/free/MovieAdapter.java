@@ -13,17 +13,11 @@ import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
-import android.content.Intent;
-
 import com.bumptech.glide.Glide;
 import com.cinecraze.free.models.Entry;
-import com.cinecraze.free.models.Season;
 import com.cinecraze.free.R;
-import com.google.gson.Gson;
 
 import java.util.List;
-import android.util.Log;
-import android.widget.Toast;
 
 public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.ViewHolder> {
 
@@ -61,6 +55,10 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.ViewHolder>
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Entry entry = entryList.get(position);
+        if (entry == null) {
+            bindPlaceholder(holder);
+            return;
+        }
 
         holder.title.setText(entry.getTitle());
         Glide.with(context).load(entry.getPoster()).into(holder.poster);
@@ -89,53 +87,7 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.ViewHolder>
             setTypeBadge(holder.typeBadge, entry.getMainCategory());
         }
 
-        holder.itemView.setOnClickListener(v -> {
-            try {
-                Intent intent = new Intent(context, DetailsActivity.class);
-                
-                // Check if entry has too many episodes (potential TransactionTooLargeException)
-                int totalEpisodes = 0;
-                if (entry.getSeasons() != null) {
-                    for (Season season : entry.getSeasons()) {
-                        if (season.getEpisodes() != null) {
-                            totalEpisodes += season.getEpisodes().size();
-                        }
-                    }
-                }
-                
-                // If too many episodes, pass only essential data to avoid TransactionTooLargeException
-                if (totalEpisodes > 500) { // Conservative limit
-                    Log.w("MovieAdapter", "Large series detected with " + totalEpisodes + " episodes. Using lightweight data transfer.");
-                    
-                    // Create a lightweight entry with only essential data
-                    Entry lightweightEntry = new Entry();
-                    lightweightEntry.setTitle(entry.getTitle());
-                    lightweightEntry.setSubCategory(entry.getSubCategory());
-                    lightweightEntry.setMainCategory(entry.getMainCategory());
-                    lightweightEntry.setCountry(entry.getCountry());
-                    lightweightEntry.setDescription(entry.getDescription());
-                    lightweightEntry.setPoster(entry.getPoster());
-                    lightweightEntry.setThumbnail(entry.getThumbnail());
-                    lightweightEntry.setRating(entry.getRating());
-                    lightweightEntry.setDuration(entry.getDuration());
-                    lightweightEntry.setYear(entry.getYear());
-                    lightweightEntry.setServers(entry.getServers());
-                    // Don't set seasons - will be loaded separately in DetailsActivity
-                    
-                    intent.putExtra("entry", new Gson().toJson(lightweightEntry));
-                    intent.putExtra("needsFullData", true);
-                    intent.putExtra("entryId", entry.getId());
-                } else {
-                    // For smaller series, pass the full entry
-                    intent.putExtra("entry", new Gson().toJson(entry));
-                }
-                
-                context.startActivity(intent);
-            } catch (Exception e) {
-                Log.e("MovieAdapter", "Error starting DetailsActivity: " + e.getMessage(), e);
-                Toast.makeText(context, "Error opening content details", Toast.LENGTH_SHORT).show();
-            }
-        });
+        holder.itemView.setOnClickListener(v -> DetailsActivity.start(context, entry));
     }
 
     @Override
@@ -143,6 +95,37 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.ViewHolder>
         return entryList.size();
     }
 
+    /**
+     * Blank tile for a position whose page is not loaded (see PagedEntryList)
+     */
+    private void bindPlaceholder(ViewHolder holder) {
+        holder.title.setText("");
+        Glide.with(context).clear(holder.poster);
+        holder.poster.setImageResource(R.drawable.image_placeholder);
+        holder.rating.setRating(0);
+        if (holder.description != null) {
+            holder.description.setText("");
+        }
+        if (holder.year != null) {
+            holder.year.setText("");
+        }
+        if (holder.country != null) {
+            holder.country.setText("");
+        }
+        if (holder.duration != null) {
+            holder.duration.setText("");
+        }
+        if (holder.categoryBadge != null) {
+            holder.categoryBadge.setText("");
+            holder.categoryBadge.setBackground(null);
+        }
+        if (holder.typeBadge != null) {
+            holder.typeBadge.setText("");
+            holder.typeBadge.setBackground(null);
+        }
+        holder.itemView.setOnClickListener(null);
+    }
+
     private void setCategoryBadge(TextView badge, String category) {
         String badgeText;
         int badgeColor;
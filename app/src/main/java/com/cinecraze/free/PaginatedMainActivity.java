@@ -16,11 +16,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 import androidx.appcompat.app.AlertDialog;
 
+import com.cinecraze.free.concurrent.ResultCallback;
 import com.cinecraze.free.models.Entry;
 import com.cinecraze.free.models.PlaylistsVersion;
 import com.cinecraze.free.net.ApiService;
 import com.cinecraze.free.net.RetrofitClient;
 import com.cinecraze.free.repository.DataRepository;
+import com.cinecraze.free.search.SearchPipeline;
 import com.cinecraze.free.R;
 import com.gauravk.bubblenavigation.BubbleNavigationConstraintView;
 
@@ -53,6 +55,7 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
     private int retryCount = 0;
     private static final int MAX_RETRY_COUNT = 3;
     private DataRepository dataRepository;
+    private SearchPipeline searchPipeline;
 
     // Pagination variables
     private int currentPage = 0;
@@ -99,6 +102,8 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
 
         // Initialize repository
         dataRepository = new DataRepository(this);
+        dataRepository.bindToLifecycle(this);
+        setupSearchPipeline();
 
         // Load initial data and first page
         loadInitialData();
@@ -182,9 +187,12 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 String query = s.toString().trim();
                 if (query.length() > 2) {
-                    performSearch(query);
-                } else if (query.isEmpty()) {
-                    clearSearch();
+                    searchPipeline.submit(query);
+                } else {
+                    searchPipeline.cancel();
+                    if (query.isEmpty()) {
+                        clearSearch();
+                    }
                 }
             }
 
@@ -193,6 +201,26 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
         });
     }
 
+    /**
+     * Keystrokes are debounced and superseded searches dropped, so only the
+     * query the user settles on is searched and shown
+     */
+    private void setupSearchPipeline() {
+        searchPipeline = new SearchPipeline(dataRepository, pageSize, new SearchPipeline.Listener() {
+            @Override
+            public void onResults(String query, List<Entry> entries, boolean hasMorePages, int totalCount) {
+                currentSearchQuery = query;
+                currentPage = 0;
+                updatePageData(entries, hasMorePages, totalCount);
+            }
+
+            @Override
+            public void onError(String query, String error) {
+                handlePageLoadError(error);
+            }
+        });
+    }
+
     private void showSearchBar() {
         try {
             if (!isSearchVisible && titleLayout != null && searchLayout != null) {
@@ -230,12 +258,6 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
         }
     }
 
-    private void performSearch(String query) {
-        currentSearchQuery = query.trim();
-        currentPage = 0;
-        loadSearchResults();
-    }
-
     private void clearSearch() {
         currentSearchQuery = "";
         currentPage = 0;
@@ -243,6 +265,7 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
     }
 
     private void filterByCategory(String category) {
+        searchPipeline.cancel();
         currentCategory = category;
         currentPage = 0;
         currentSearchQuery = "";
@@ -545,7 +568,17 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
                     // After refresh, load only first page - don't return all data
                     loadFirstPage();
                     setupCarouselFromCache();
-                    Toast.makeText(PaginatedMainActivity.this, "Data refreshed (" + dataRepository.getTotalEntriesCount() + " items)", Toast.LENGTH_SHORT).show();
+                    dataRepository.getTotalEntriesCount(new ResultCallback<Integer>() {
+                        @Override
+                        public void onSuccess(Integer count) {
+                            Toast.makeText(PaginatedMainActivity.this, "Data refreshed (" + count + " items)", Toast.LENGTH_SHORT).show();
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            Toast.makeText(PaginatedMainActivity.this, "Data refreshed", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 }
 
                 @Override
@@ -557,6 +590,14 @@ public class PaginatedMainActivity extends AppCompatActivity implements Paginate
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        if (searchPipeline != null) {
+            searchPipeline.cancel();
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onBackPressed() {
         try {
@@ -1,7 +1,6 @@
 package com.cinecraze.free;
 
 import android.content.Context;
-import android.content.Intent;
 import android.graphics.drawable.GradientDrawable;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -16,10 +15,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.cinecraze.free.models.Entry;
-import com.cinecraze.free.models.Season;
 import com.cinecraze.free.R;
-import com.google.gson.Gson;
-import android.util.Log;
 
 import java.util.List;
 
@@ -135,46 +131,7 @@ public class PaginatedMovieAdapter extends RecyclerView.Adapter<RecyclerView.Vie
                 setTypeBadge(movieHolder.typeBadge, entry.getMainCategory());
             }
 
-            movieHolder.itemView.setOnClickListener(v -> {
-                Intent intent = new Intent(context, DetailsActivity.class);
-                // Check if entry has too many episodes (potential TransactionTooLargeException)
-                int totalEpisodes = 0;
-                if (entry.getSeasons() != null) {
-                    for (Season season : entry.getSeasons()) {
-                        if (season.getEpisodes() != null) {
-                            totalEpisodes += season.getEpisodes().size();
-                        }
-                    }
-                }
-                
-                // If too many episodes, pass only essential data to avoid TransactionTooLargeException
-                if (totalEpisodes > 500) { // Conservative limit
-                    Log.w("PaginatedMovieAdapter", "Large series detected with " + totalEpisodes + " episodes. Using lightweight data transfer.");
-                    
-                    // Create a lightweight entry with only essential data
-                    Entry lightweightEntry = new Entry();
-                    lightweightEntry.setTitle(entry.getTitle());
-                    lightweightEntry.setSubCategory(entry.getSubCategory());
-                    lightweightEntry.setMainCategory(entry.getMainCategory());
-                    lightweightEntry.setCountry(entry.getCountry());
-                    lightweightEntry.setDescription(entry.getDescription());
-                    lightweightEntry.setPoster(entry.getPoster());
-                    lightweightEntry.setThumbnail(entry.getThumbnail());
-                    lightweightEntry.setRating(entry.getRating());
-                    lightweightEntry.setDuration(entry.getDuration());
-                    lightweightEntry.setYear(entry.getYear());
-                    lightweightEntry.setServers(entry.getServers());
-                    // Don't set seasons - will be loaded separately in DetailsActivity
-                    
-                    intent.putExtra("entry", new Gson().toJson(lightweightEntry));
-                    intent.putExtra("needsFullData", true);
-                    intent.putExtra("entryId", entry.getId());
-                } else {
-                    // For smaller series, pass the full entry
-                    intent.putExtra("entry", new Gson().toJson(entry));
-                }
-                context.startActivity(intent);
-            });
+            movieHolder.itemView.setOnClickListener(v -> DetailsActivity.start(context, entry));
         } else if (holder instanceof PaginationViewHolder) {
             PaginationViewHolder paginationHolder = (PaginationViewHolder) holder;
             
@@ -187,10 +144,10 @@ public class PaginatedMovieAdapter extends RecyclerView.Adapter<RecyclerView.Vie
             });
             
             // Handle Next button with additional validation
-            boolean canGoNext = hasMorePages && !isLoading && ((currentPage + 1) * 20 < totalCount);
+            boolean canGoNext = hasMorePages && !isLoading;
             paginationHolder.nextButton.setEnabled(canGoNext);
             paginationHolder.nextButton.setOnClickListener(v -> {
-                boolean canClickNext = hasMorePages && !isLoading && ((currentPage + 1) * 20 < totalCount);
+                boolean canClickNext = hasMorePages && !isLoading;
                 if (paginationListener != null && canClickNext) {
                     paginationListener.onNextPage();
                 }
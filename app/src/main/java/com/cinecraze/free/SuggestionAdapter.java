@@ -0,0 +1,57 @@
+package com.cinecraze.free;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import com.cinecraze.free.repository.DataRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drop-down of title suggestions for the search box's AutoCompleteTextView.
+ * Suggestions come from the in-memory suggestion index, already matched and
+ * ranked, so the filter does no matching of its own.
+ */
+public class SuggestionAdapter extends ArrayAdapter<String> {
+
+    private final DataRepository dataRepository;
+
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            // Runs on the filter's worker thread
+            List<String> suggestions = constraint == null
+                    ? new ArrayList<>() : dataRepository.getSearchSuggestions(constraint.toString());
+            FilterResults results = new FilterResults();
+            results.values = suggestions;
+            results.count = suggestions.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            setNotifyOnChange(false);
+            clear();
+            if (results.values != null) {
+                addAll((List<String>) results.values);
+            }
+            notifyDataSetChanged();
+        }
+    };
+
+    public SuggestionAdapter(Context context, DataRepository dataRepository) {
+        super(context, android.R.layout.simple_dropdown_item_1line, new ArrayList<>());
+        this.dataRepository = dataRepository;
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cinecraze.free.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The app's background threads, one pool per kind of work so a slow kind
+ * never starves another: database reads (several, as SQLite in WAL mode
+ * reads concurrently), database writes (one, in submission order), network
+ * transfers and CPU-bound work.
+ *
+ * Every pool has a bounded queue and rejects work beyond it with a
+ * RejectedExecutionException instead of queueing without limit; submit
+ * through a {@link TaskScope} to turn that into an error callback. Threads
+ * are named after their pool and run at background priority, and idle
+ * threads time out, so an idle app holds none of them.
+ */
+public final class AppExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ExecutorService dbRead = pool("db-read", 3, 128);
+    private static final ExecutorService dbWrite = pool("db-write", 1, 256);
+    private static final ExecutorService network = pool("network", 4, 64);
+    private static final ExecutorService cpu =
+            pool("cpu", Math.max(2, Runtime.getRuntime().availableProcessors() - 1), 128);
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Executor mainThread = mainHandler::post;
+
+    private AppExecutors() {
+    }
+
+    /**
+     * Queries, page loads and index builds that only read
+     */
+    public static ExecutorService dbRead() {
+        return dbRead;
+    }
+
+    /**
+     * Inserts, updates and anything else that writes, one at a time in submission order
+     */
+    public static ExecutorService dbWrite() {
+        return dbWrite;
+    }
+
+    /**
+     * Downloads and other blocking network calls
+     */
+    public static ExecutorService network() {
+        return network;
+    }
+
+    /**
+     * Parsing, sorting and other work that needs no I/O
+     */
+    public static ExecutorService cpu() {
+        return cpu;
+    }
+
+    public static Executor mainThread() {
+        return mainThread;
+    }
+
+    private static ExecutorService pool(String name, int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, name + "-" + count.incrementAndGet());
+        }
+    }
+}
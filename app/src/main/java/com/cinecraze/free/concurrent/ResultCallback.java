@@ -0,0 +1,9 @@
+package com.cinecraze.free.concurrent;
+
+/**
+ * Outcome of background work, delivered on the main thread
+ */
+public interface ResultCallback<T> {
+    void onSuccess(T result);
+    void onError(String error);
+}
@@ -0,0 +1,126 @@
+package com.cinecraze.free.concurrent;
+
+import android.util.Log;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background work owned by one screen or component.
+ *
+ * Work is submitted to one of the {@link AppExecutors} pools and its outcome
+ * posted to the main thread. Once the scope is cancelled, e.g. because the
+ * lifecycle it is bound to was destroyed, queued work never starts, and the
+ * outcome of work already running is dropped instead of delivered, so no
+ * callback reaches a screen that is gone. Running work is not interrupted.
+ */
+public class TaskScope {
+
+    private static final String TAG = "TaskScope";
+
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    private final Set<FutureTask<?>> tasks = Collections.synchronizedSet(new HashSet<>());
+    private volatile boolean cancelled;
+
+    /**
+     * Cancel this scope when owner is destroyed
+     */
+    public TaskScope bindTo(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                cancel();
+            }
+        });
+        return this;
+    }
+
+    public boolean isActive() {
+        return !cancelled;
+    }
+
+    /**
+     * Drop queued work and the outcome of running work. Later submissions are ignored.
+     */
+    public void cancel() {
+        cancelled = true;
+        List<FutureTask<?>> pending;
+        synchronized (tasks) {
+            pending = new ArrayList<>(tasks);
+            tasks.clear();
+        }
+        for (FutureTask<?> task : pending) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Run task on executor while this scope is active.
+     *
+     * @return false when the scope is cancelled or the pool's queue is full
+     */
+    public boolean execute(Executor executor, Runnable task) {
+        if (cancelled) {
+            return false;
+        }
+        FutureTask<Void> future = new FutureTask<Void>(task, null) {
+            @Override
+            protected void done() {
+                tasks.remove(this);
+            }
+        };
+        tasks.add(future);
+        try {
+            executor.execute(future);
+            return true;
+        } catch (RejectedExecutionException e) {
+            tasks.remove(future);
+            Log.w(TAG, "Background queue full, dropping task", e);
+            return false;
+        }
+    }
+
+    /**
+     * Run work on executor and deliver its result or error to callback on the main thread
+     */
+    public <T> void submit(Executor executor, Work<T> work, ResultCallback<T> callback) {
+        boolean queued = execute(executor, () -> {
+            T result;
+            try {
+                result = work.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Background work failed: " + e.getMessage(), e);
+                post(() -> callback.onError(e.getMessage() != null ? e.getMessage() : e.toString()));
+                return;
+            }
+            post(() -> callback.onSuccess(result));
+        });
+        if (!queued) {
+            post(() -> callback.onError("Too much work queued"));
+        }
+    }
+
+    /**
+     * Run action on the main thread, unless this scope is cancelled by then
+     */
+    public void post(Runnable action) {
+        AppExecutors.mainThread().execute(() -> {
+            if (!cancelled) {
+                action.run();
+            }
+        });
+    }
+}
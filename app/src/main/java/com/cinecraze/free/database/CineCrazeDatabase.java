@@ -1,19 +1,36 @@
 package com.cinecraze.free.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import com.cinecraze.free.database.dao.EntryDao;
 import com.cinecraze.free.database.dao.CacheMetadataDao;
+import com.cinecraze.free.database.dao.PlaylistSourceDao;
+import com.cinecraze.free.database.dao.RankingDao;
+import com.cinecraze.free.database.dao.SeasonDao;
+import com.cinecraze.free.database.dao.ServerDao;
 import com.cinecraze.free.database.entities.EntryEntity;
+import com.cinecraze.free.database.entities.EntryFtsEntity;
 import com.cinecraze.free.database.entities.CacheMetadataEntity;
+import com.cinecraze.free.database.entities.PlaylistSourceEntity;
+import com.cinecraze.free.database.entities.RankingEntity;
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+import com.cinecraze.free.database.entities.ServerEntity;
 
 @Database(
-    entities = {EntryEntity.class, CacheMetadataEntity.class, com.cinecraze.free.database.entities.DownloadItemEntity.class},
-    version = 2,
+    entities = {EntryEntity.class, CacheMetadataEntity.class, com.cinecraze.free.database.entities.DownloadItemEntity.class, PlaylistSourceEntity.class,
+            ServerEntity.class, SeasonEntity.class, EpisodeEntity.class, EpisodeServerEntity.class, EntryFtsEntity.class,
+            RankingEntity.class},
+    version = 12,
     exportSchema = false
 )
 public abstract class CineCrazeDatabase extends RoomDatabase {
@@ -21,9 +38,145 @@ public abstract class CineCrazeDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "cinecraze_database";
     private static CineCrazeDatabase instance;
     
+    // Content hash for delta sync and per-sync statistics
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE entries ADD COLUMN content_hash INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE cache_metadata ADD COLUMN sync_inserted INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE cache_metadata ADD COLUMN sync_updated INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE cache_metadata ADD COLUMN sync_deleted INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE cache_metadata ADD COLUMN sync_duration_ms INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+    
+    // Per-file HTTP validators and the source file of each entry
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `playlist_sources` (`url` TEXT NOT NULL, `etag` TEXT, `last_modified` TEXT, "
+                    + "`entry_count` INTEGER NOT NULL, `last_fetched` INTEGER NOT NULL, PRIMARY KEY(`url`))");
+            db.execSQL("ALTER TABLE entries ADD COLUMN playlist_url TEXT");
+        }
+    };
+    
+    // Servers, seasons and episodes move from JSON columns into their own tables
+    static final Migration MIGRATION_4_5 = new NormalizedSchemaMigration();
+    
+    // Composite indexes for keyset pagination; NULL titles would fall outside every seek
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE entries SET title = '' WHERE title IS NULL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_title_id` ON `entries` (`title`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_main_category_title_id` ON `entries` (`main_category`, `title`, `id`)");
+        }
+    };
+    
+    // Indexes for the filter, distinct-value and top rated queries; rating gets a numeric copy that can be indexed
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE entries ADD COLUMN rating_value REAL NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE entries SET rating_value = CAST(rating AS REAL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_sub_category_title_id` ON `entries` (`sub_category`, `title`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_country_title_id` ON `entries` (`country`, `title`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_year_title_id` ON `entries` (`year`, `title`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_rating_value` ON `entries` (`rating_value`)");
+        }
+    };
+    
+    // Full-text index for search, kept in sync with entries by the same triggers Room creates for new installs
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `entries_fts` USING FTS4(`title` TEXT, `description` TEXT, "
+                    + "`country` TEXT, `sub_category` TEXT, tokenize=unicode61 `remove_diacritics=1`, "
+                    + "content=`entries`, prefix=`2,3`)");
+            for (String operation : new String[]{"UPDATE", "DELETE"}) {
+                db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_entries_fts_BEFORE_" + operation
+                        + " BEFORE " + operation + " ON `entries` BEGIN DELETE FROM `entries_fts` "
+                        + "WHERE `docid`=OLD.`rowid`; END");
+            }
+            for (String operation : new String[]{"UPDATE", "INSERT"}) {
+                db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_entries_fts_AFTER_" + operation
+                        + " AFTER " + operation + " ON `entries` BEGIN INSERT INTO `entries_fts`"
+                        + "(`docid`, `title`, `description`, `country`, `sub_category`) VALUES (NEW.`rowid`, "
+                        + "NEW.`title`, NEW.`description`, NEW.`country`, NEW.`sub_category`); END");
+            }
+            db.execSQL("INSERT INTO entries_fts(entries_fts) VALUES('rebuild')");
+        }
+    };
+    
+    // Materialized rankings; filled by the repository on first start and after every sync
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `rankings` (`ranking` TEXT NOT NULL, `position` INTEGER NOT NULL, "
+                    + "`entry_id` INTEGER NOT NULL, PRIMARY KEY(`ranking`, `position`))");
+        }
+    };
+    
+    // Indexed entry key so the details screen reads one row instead of scanning the catalog.
+    // The key is a Java string hash, so existing rows are filled in here rather than in SQL.
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE entries ADD COLUMN entry_key INTEGER NOT NULL DEFAULT 0");
+            SupportSQLiteStatement update = db.compileStatement("UPDATE entries SET entry_key = ? WHERE id = ?");
+            try (Cursor cursor = db.query("SELECT id, title, year FROM entries")) {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, (cursor.getString(1) + cursor.getString(2)).hashCode());
+                    update.bindLong(2, cursor.getInt(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entries_entry_key` ON `entries` (`entry_key`)");
+        }
+    };
+    
+    // entry_key becomes the 64-bit Entry.getKey() and unique. Rows that share a key are the
+    // same title and year stored twice; only the oldest is kept.
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            SupportSQLiteStatement update = db.compileStatement("UPDATE entries SET entry_key = ? WHERE id = ?");
+            try (Cursor cursor = db.query("SELECT id, title, year FROM entries")) {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, DatabaseUtils.entryKey(cursor.getString(1), cursor.getString(2)));
+                    update.bindLong(2, cursor.getInt(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            String duplicates = "SELECT id FROM entries WHERE id NOT IN (SELECT MIN(id) FROM entries GROUP BY entry_key)";
+            db.execSQL("DELETE FROM episode_servers WHERE episode_id IN "
+                    + "(SELECT id FROM episodes WHERE entry_id IN (" + duplicates + "))");
+            db.execSQL("DELETE FROM episodes WHERE entry_id IN (" + duplicates + ")");
+            db.execSQL("DELETE FROM seasons WHERE entry_id IN (" + duplicates + ")");
+            db.execSQL("DELETE FROM servers WHERE entry_id IN (" + duplicates + ")");
+            db.execSQL("DELETE FROM rankings WHERE entry_id IN (" + duplicates + ")");
+            db.execSQL("DELETE FROM entries WHERE id IN (" + duplicates + ")");
+            db.execSQL("DROP INDEX IF EXISTS `index_entries_entry_key`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_entries_entry_key` ON `entries` (`entry_key`)");
+        }
+    };
+    
+    // Episodes are read a window of positions at a time, so their season index gains the position
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_episodes_season_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_episodes_season_id_position` ON `episodes` (`season_id`, `position`)");
+        }
+    };
+    
     public abstract EntryDao entryDao();
     public abstract CacheMetadataDao cacheMetadataDao();
     public abstract com.cinecraze.free.database.dao.DownloadItemDao downloadItemDao();
+    public abstract PlaylistSourceDao playlistSourceDao();
+    public abstract ServerDao serverDao();
+    public abstract SeasonDao seasonDao();
+    public abstract RankingDao rankingDao();
     
     public static synchronized CineCrazeDatabase getInstance(Context context) {
         if (instance == null) {
@@ -32,8 +185,11 @@ public abstract class CineCrazeDatabase extends RoomDatabase {
                 CineCrazeDatabase.class,
                 DATABASE_NAME
             )
-            .fallbackToDestructiveMigration()
-            .allowMainThreadQueries() // For simplicity, but ideally use background threads
+            .addMigrations(MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8,
+                    MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12)
+            // Only databases older than the first shipped schema (version 2) are rebuilt from scratch
+            .fallbackToDestructiveMigrationFrom(1)
+            // No main thread queries: reads and writes go through AppExecutors
             .build();
         }
         return instance;
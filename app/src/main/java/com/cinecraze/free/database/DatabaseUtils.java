@@ -1,7 +1,13 @@
 package com.cinecraze.free.database;
 
 import com.cinecraze.free.database.entities.EntryEntity;
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+import com.cinecraze.free.database.entities.ServerEntity;
 import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.models.Episode;
 import com.cinecraze.free.models.Server;
 import com.cinecraze.free.models.Season;
 import com.google.gson.Gson;
@@ -9,39 +15,191 @@ import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DatabaseUtils {
     
     private static final Gson gson = new Gson();
     
+    // 64-bit FNV-1a parameters for content hashing
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    /**
+     * Convert Entry API model to an entries row plus its server, season and episode rows
+     */
+    public static EntryRows entryToRows(Entry entry, String mainCategory) {
+        EntryRows rows = new EntryRows(entryToEntity(entry, mainCategory));
+        
+        if (entry.getServers() != null) {
+            int position = 0;
+            for (Server server : entry.getServers()) {
+                if (server == null) continue;
+                ServerEntity row = new ServerEntity();
+                row.setPosition(position++);
+                row.setName(server.getName());
+                row.setUrl(server.getUrl());
+                row.setLicense(server.getLicense());
+                row.setDrm(server.getDrm());
+                rows.servers.add(row);
+            }
+        }
+        
+        if (entry.getSeasons() != null) {
+            for (Season season : entry.getSeasons()) {
+                if (season == null) continue;
+                int seasonIndex = rows.seasons.size();
+                SeasonEntity seasonRow = new SeasonEntity();
+                seasonRow.setPosition(seasonIndex);
+                seasonRow.setSeasonNumber(season.getSeason());
+                seasonRow.setPoster(season.getSeasonPoster());
+                rows.seasons.add(seasonRow);
+                
+                int episodeCount = 0;
+                if (season.getEpisodes() != null) {
+                    for (Episode episode : season.getEpisodes()) {
+                        if (episode == null) continue;
+                        int episodeIndex = rows.episodes.size();
+                        EpisodeEntity episodeRow = new EpisodeEntity();
+                        episodeRow.setSeasonIndex(seasonIndex);
+                        episodeRow.setPosition(episodeCount++);
+                        episodeRow.setEpisodeNumber(episode.getEpisode());
+                        episodeRow.setEpisodeLabel(episode.getEpisodeString());
+                        episodeRow.setTitle(episode.getTitle());
+                        episodeRow.setDuration(episode.getDuration());
+                        episodeRow.setDescription(episode.getDescription());
+                        episodeRow.setThumbnail(episode.getThumbnail());
+                        rows.episodes.add(episodeRow);
+                        
+                        if (episode.getServers() != null) {
+                            int position = 0;
+                            for (Server server : episode.getServers()) {
+                                if (server == null) continue;
+                                EpisodeServerEntity serverRow = new EpisodeServerEntity();
+                                serverRow.setEpisodeIndex(episodeIndex);
+                                serverRow.setPosition(position++);
+                                serverRow.setName(server.getName());
+                                serverRow.setUrl(server.getUrl());
+                                serverRow.setLicense(server.getLicense());
+                                serverRow.setDrm(server.getDrm());
+                                rows.episodeServers.add(serverRow);
+                            }
+                        }
+                    }
+                }
+                seasonRow.setEpisodeCount(episodeCount);
+            }
+        }
+        
+        rows.entry.setContentHash(computeContentHash(rows));
+        return rows;
+    }
+    
     /**
-     * Convert Entry API model to EntryEntity database entity
+     * Convert Entry API model to an entries row, without servers and seasons
      */
     public static EntryEntity entryToEntity(Entry entry, String mainCategory) {
         EntryEntity entity = new EntryEntity();
         
-        entity.setTitle(entry.getTitle());
+        // Keyset pages order by (title, id), so titles are never stored as NULL
+        entity.setTitle(entry.getTitle() != null ? entry.getTitle() : "");
         entity.setSubCategory(entry.getSubCategory());
         entity.setCountry(entry.getCountry());
         entity.setDescription(entry.getDescription());
         entity.setPoster(entry.getPoster());
         entity.setThumbnail(entry.getThumbnail());
         entity.setRating(entry.getRatingString());
+        entity.setRatingValue(entry.getRating());
         entity.setDuration(entry.getDuration());
         entity.setYear(entry.getYearString());
         entity.setMainCategory(mainCategory);
+        entity.setEntryKey(entry.getKey());
         
-        // Convert complex objects to JSON strings
-        entity.setServersJson(gson.toJson(entry.getServers()));
-        entity.setSeasonsJson(gson.toJson(entry.getSeasons()));
+        // Related entries are only needed on the details screen and stay a JSON column
         entity.setRelatedJson(gson.toJson(entry.getRelated()));
         
         return entity;
     }
     
     /**
-     * Convert EntryEntity database entity to Entry API model
+     * Entry.getKey() of a stored entry, from its title and year columns
+     */
+    public static long entryKey(String title, String year) {
+        return Entry.stableKey(title, year);
+    }
+    
+    /**
+     * Stable 64-bit FNV-1a hash over every stored column of an entry and its
+     * child rows, so an unchanged entry always hashes to the same value across
+     * syncs and app restarts.
+     */
+    public static long computeContentHash(EntryRows rows) {
+        EntryEntity entity = rows.entry;
+        long hash = FNV_OFFSET_BASIS;
+        hash = hashField(hash, entity.getTitle());
+        hash = hashField(hash, entity.getSubCategory());
+        hash = hashField(hash, entity.getCountry());
+        hash = hashField(hash, entity.getDescription());
+        hash = hashField(hash, entity.getPoster());
+        hash = hashField(hash, entity.getThumbnail());
+        hash = hashField(hash, entity.getRating());
+        hash = hashField(hash, entity.getDuration());
+        hash = hashField(hash, entity.getYear());
+        hash = hashField(hash, entity.getMainCategory());
+        hash = hashField(hash, entity.getRelatedJson());
+        for (ServerEntity server : rows.servers) {
+            hash = hashServer(hash, server.getName(), server.getUrl(), server.getLicense(), server.getDrm());
+        }
+        hash = hashField(hash, "seasons"); // Keeps servers and seasons apart
+        for (SeasonEntity season : rows.seasons) {
+            hash = hashField(hash, String.valueOf(season.getSeasonNumber()));
+            hash = hashField(hash, season.getPoster());
+        }
+        for (EpisodeEntity episode : rows.episodes) {
+            hash = hashField(hash, String.valueOf(episode.getSeasonIndex()));
+            hash = hashField(hash, episode.getEpisodeLabel());
+            hash = hashField(hash, episode.getTitle());
+            hash = hashField(hash, episode.getDuration());
+            hash = hashField(hash, episode.getDescription());
+            hash = hashField(hash, episode.getThumbnail());
+        }
+        for (EpisodeServerEntity server : rows.episodeServers) {
+            hash = hashField(hash, String.valueOf(server.getEpisodeIndex()));
+            hash = hashServer(hash, server.getName(), server.getUrl(), server.getLicense(), server.getDrm());
+        }
+        return hash;
+    }
+    
+    private static long hashServer(long hash, String name, String url, String license, Boolean drm) {
+        hash = hashField(hash, name);
+        hash = hashField(hash, url);
+        hash = hashField(hash, license);
+        return hashField(hash, drm == null ? null : drm.toString());
+    }
+    
+    private static long hashField(long hash, String value) {
+        if (value == null) {
+            // Distinguish null from the empty string
+            hash ^= 0xff;
+            return hash * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= (c & 0xff);
+            hash *= FNV_PRIME;
+            hash ^= (c >>> 8);
+            hash *= FNV_PRIME;
+        }
+        // Field separator so ("ab", "c") and ("a", "bc") differ
+        hash ^= 0x1f;
+        return hash * FNV_PRIME;
+    }
+    
+    /**
+     * Convert EntryEntity database entity to Entry API model. Servers, seasons
+     * and related entries are not loaded; see DataRepository.loadEntryDetails.
      */
     public static Entry entityToEntry(EntryEntity entity) {
         Entry entry = new Entry();
@@ -57,28 +215,108 @@ public class DatabaseUtils {
         entry.setRating(entity.getRating());
         entry.setDuration(entity.getDuration());
         entry.setYear(entity.getYear());
+        entry.setDatabaseId(entity.getId());
+        entry.setKey(entity.getEntryKey());
         
-        // Convert JSON strings back to objects
+        return entry;
+    }
+    
+    /**
+     * Convert a listing tile to an Entry for the adapters. Plain field copies,
+     * no JSON; the description is the tile's preview.
+     */
+    public static Entry tileToEntry(EntryTile tile) {
+        Entry entry = new Entry();
+        entry.setTitle(tile.title);
+        entry.setSubCategory(tile.subCategory);
+        entry.setMainCategory(tile.mainCategory);
+        entry.setCountry(tile.country);
+        entry.setDescription(tile.description);
+        entry.setPoster(tile.poster);
+        entry.setThumbnail(tile.thumbnail);
+        entry.setRating(tile.rating);
+        entry.setDuration(tile.duration);
+        entry.setYear(tile.year);
+        entry.setDatabaseId(tile.id);
+        entry.setKey(tile.entryKey);
+        return entry;
+    }
+    
+    /**
+     * Parse the related entries column of a full entries row
+     */
+    public static List<Entry> parseRelated(String relatedJson) {
         try {
-            Type serverListType = new TypeToken<List<Server>>(){}.getType();
-            List<Server> servers = gson.fromJson(entity.getServersJson(), serverListType);
-            entry.setServers(servers);
-            
-            Type seasonListType = new TypeToken<List<Season>>(){}.getType();
-            List<Season> seasons = gson.fromJson(entity.getSeasonsJson(), seasonListType);
-            entry.setSeasons(seasons);
-            
             Type entryListType = new TypeToken<List<Entry>>(){}.getType();
-            List<Entry> related = gson.fromJson(entity.getRelatedJson(), entryListType);
-            entry.setRelated(related);
+            List<Entry> related = gson.fromJson(relatedJson, entryListType);
+            return related != null ? related : new ArrayList<>();
         } catch (Exception e) {
             // Handle JSON parsing errors gracefully
-            entry.setServers(new ArrayList<>());
-            entry.setSeasons(new ArrayList<>());
-            entry.setRelated(new ArrayList<>());
+            return new ArrayList<>();
+        }
+    }
+    
+    public static List<Server> toServers(List<ServerEntity> rows) {
+        List<Server> servers = new ArrayList<>(rows.size());
+        for (ServerEntity row : rows) {
+            servers.add(toServer(row.getName(), row.getUrl(), row.getLicense(), row.getDrm()));
+        }
+        return servers;
+    }
+    
+    /**
+     * Seasons without episodes; Season.getDatabaseId() identifies them for
+     * loading episodes later
+     */
+    public static List<Season> toSeasons(List<SeasonEntity> rows) {
+        List<Season> seasons = new ArrayList<>(rows.size());
+        for (SeasonEntity row : rows) {
+            Season season = new Season();
+            season.setSeason(row.getSeasonNumber());
+            season.setSeasonPoster(row.getPoster());
+            season.setDatabaseId(row.getId());
+            season.setEpisodeCount(row.getEpisodeCount());
+            seasons.add(season);
+        }
+        return seasons;
+    }
+    
+    /**
+     * Episodes of one season with their servers, both in playlist order
+     */
+    public static List<Episode> toEpisodes(List<EpisodeEntity> rows, List<EpisodeServerEntity> serverRows) {
+        Map<Long, List<Server>> serversByEpisode = new HashMap<>();
+        for (EpisodeServerEntity row : serverRows) {
+            List<Server> servers = serversByEpisode.get(row.getEpisodeId());
+            if (servers == null) {
+                servers = new ArrayList<>();
+                serversByEpisode.put(row.getEpisodeId(), servers);
+            }
+            servers.add(toServer(row.getName(), row.getUrl(), row.getLicense(), row.getDrm()));
         }
         
-        return entry;
+        List<Episode> episodes = new ArrayList<>(rows.size());
+        for (EpisodeEntity row : rows) {
+            Episode episode = new Episode();
+            episode.setEpisode(row.getEpisodeLabel() != null ? row.getEpisodeLabel() : String.valueOf(row.getEpisodeNumber()));
+            episode.setTitle(row.getTitle());
+            episode.setDuration(row.getDuration());
+            episode.setDescription(row.getDescription());
+            episode.setThumbnail(row.getThumbnail());
+            List<Server> servers = serversByEpisode.get(row.getId());
+            episode.setServers(servers != null ? servers : new ArrayList<>());
+            episodes.add(episode);
+        }
+        return episodes;
+    }
+    
+    private static Server toServer(String name, String url, String license, Boolean drm) {
+        Server server = new Server();
+        server.setName(name);
+        server.setUrl(url);
+        server.setLicense(license);
+        server.setDrm(drm);
+        return server;
     }
     
     /**
@@ -91,4 +329,15 @@ public class DatabaseUtils {
         }
         return entries;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Convert list of EntryTile to list of Entry
+     */
+    public static List<Entry> tilesToEntries(List<EntryTile> tiles) {
+        List<Entry> entries = new ArrayList<>(tiles.size());
+        for (EntryTile tile : tiles) {
+            entries.add(tileToEntry(tile));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,371 @@
+package com.cinecraze.free.database;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import com.cinecraze.free.database.entities.EntryEntity;
+import com.cinecraze.free.database.entities.EntryHashRow;
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+import com.cinecraze.free.database.entities.ServerEntity;
+import com.cinecraze.free.models.Entry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects entries from the streaming parser and writes them to Room.
+ *
+ * Parsing threads convert and classify entries in {@link #add}, then hand them
+ * to a single writer on the db-write pool through a bounded queue ({@link EntryWriteQueue}),
+ * which writes them in fixed-size batches. Parsing and SQLite writes overlap,
+ * and at most one queue of entities is held in memory.
+ *
+ * On an empty table (first sync) every entry is inserted, and each batch is
+ * committed on its own so the first screens fill while later files are still
+ * downloading; {@link #flushPending()} makes one finished playlist file
+ * visible. A cancelled first sync keeps the files written so far.
+ *
+ * When a catalog is already cached the writer runs in delta mode: each
+ * incoming entry is compared against the stored content hash and only new or
+ * changed rows are queued, so write cost scales with the size of the change.
+ * The upserts and the deletes applied by {@link #commit(Set, Set, boolean)},
+ * once it is known which files were seen, all go into one transaction: the
+ * batches only bound memory, so a delta that changes every row holds no more
+ * than a full write. Until the commit, readers keep seeing the previous
+ * catalog, and a cancel, failure or crash leaves it untouched. Only the stored
+ * ids and hashes are kept for the whole sync.
+ *
+ * Safe to share between the threads that ingest different playlist files.
+ */
+public class EntryBatchWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    // Entities buffered between the parsers and the writer thread
+    private static final int QUEUE_BATCHES = 4;
+
+    // Stay below SQLite's default bound-parameter limit (999)
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private static class StoredEntry {
+        final int id;
+        final long contentHash;
+        final String playlistUrl;
+        boolean seen;
+
+        StoredEntry(int id, long contentHash, String playlistUrl) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.playlistUrl = playlistUrl;
+        }
+    }
+
+    private final CineCrazeDatabase database;
+    private final EntryWriteQueue writeQueue;
+    private final long startTime = SystemClock.elapsedRealtime();
+    private final Set<Long> entryKeys = new HashSet<>(); // guarded by this; keys not in stored
+
+    // Delta mode state; null when the table was empty at start
+    private final Map<Long, StoredEntry> stored; // guarded by this, by entry key
+
+    private int pendingDeletes = 0; // handed to the writer, counted once committed
+    private int deletedCount = 0;
+    private boolean committed = false;
+
+    public EntryBatchWriter(CineCrazeDatabase database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    public EntryBatchWriter(CineCrazeDatabase database, int batchSize) {
+        this.database = database;
+
+        List<EntryHashRow> rows = database.entryDao().getEntryHashes();
+        if (rows.isEmpty()) {
+            stored = null;
+        } else {
+            stored = new HashMap<>(rows.size() * 2);
+            for (EntryHashRow row : rows) {
+                stored.put(row.entryKey, new StoredEntry(row.id, row.contentHash, row.playlistUrl));
+            }
+        }
+        this.writeQueue = new EntryWriteQueue(database, batchSize, batchSize * QUEUE_BATCHES, stored != null);
+    }
+
+    public boolean isDeltaMode() {
+        return stored != null;
+    }
+
+    public void add(Entry entry, String mainCategory) {
+        add(entry, mainCategory, null);
+    }
+
+    /**
+     * Queue an entry from the given playlist file. Duplicate entries (same key)
+     * are dropped, and in delta mode entries whose content hash and source file
+     * are unchanged are skipped. Blocks while the writer thread is a full queue
+     * behind.
+     */
+    public void add(Entry entry, String mainCategory, String playlistUrl) {
+        if (entry == null) {
+            return;
+        }
+        // Conversion and hashing run on the calling thread, outside the lock
+        EntryRows rows = DatabaseUtils.entryToRows(entry, mainCategory);
+        EntryEntity entity = rows.entry;
+        entity.setPlaylistUrl(playlistUrl);
+
+        boolean update;
+        synchronized (this) {
+            // Stored entries are deduplicated by their seen flag, so delta mode keeps no second set of their keys
+            StoredEntry existing = stored != null ? stored.get(entity.getEntryKey()) : null;
+            if (existing == null) {
+                if (!entryKeys.add(entity.getEntryKey())) {
+                    return;
+                }
+                update = false;
+            } else if (existing.seen) {
+                return;
+            } else {
+                existing.seen = true;
+                if (existing.contentHash == entity.getContentHash()
+                        && TextUtils.equals(existing.playlistUrl, playlistUrl)) {
+                    return;
+                }
+                entity.setId(existing.id);
+                update = true;
+            }
+        }
+
+        if (update) {
+            writeQueue.update(rows);
+        } else {
+            writeQueue.insert(rows);
+        }
+    }
+
+    /**
+     * Write entries with their servers, seasons and episodes. Updated entries
+     * get their child rows replaced. An insert whose entry_key is already
+     * stored, e.g. one a crashed sync wrote, becomes an update of that row,
+     * so it keeps its id and the full-text index sees an update rather than
+     * a delete and insert. Must run inside a transaction.
+     */
+    public static void writeRows(CineCrazeDatabase database, List<EntryRows> inserts, List<EntryRows> updates) {
+        List<EntryRows> written = new ArrayList<>(inserts.size() + updates.size());
+        if (!inserts.isEmpty()) {
+            List<EntryEntity> entities = new ArrayList<>(inserts.size());
+            for (EntryRows rows : inserts) {
+                entities.add(rows.entry);
+            }
+            List<Long> ids = database.entryDao().insertAll(entities);
+            List<EntryRows> stored = new ArrayList<>();
+            for (int i = 0; i < inserts.size(); i++) {
+                EntryRows rows = inserts.get(i);
+                long id = ids.get(i);
+                if (id != -1) {
+                    rows.entry.setId((int) id);
+                    written.add(rows);
+                    continue;
+                }
+                Integer storedId = database.entryDao().getIdByKey(rows.entry.getEntryKey());
+                if (storedId != null) {
+                    rows.entry.setId(storedId);
+                    stored.add(rows);
+                }
+            }
+            if (!stored.isEmpty()) {
+                stored.addAll(updates);
+                updates = stored;
+            }
+        }
+        if (!updates.isEmpty()) {
+            List<EntryEntity> entities = new ArrayList<>(updates.size());
+            List<Integer> ids = new ArrayList<>(updates.size());
+            for (EntryRows rows : updates) {
+                entities.add(rows.entry);
+                ids.add(rows.entry.getId());
+            }
+            database.entryDao().updateAll(entities);
+            for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size()));
+                database.serverDao().deleteForEntries(chunk);
+                database.seasonDao().deleteForEntries(chunk); // Cascades to episodes and episode servers
+            }
+            written.addAll(updates);
+        }
+
+        List<ServerEntity> servers = new ArrayList<>();
+        List<SeasonEntity> seasons = new ArrayList<>();
+        for (EntryRows rows : written) {
+            int entryId = rows.entry.getId();
+            for (ServerEntity server : rows.servers) {
+                server.setEntryId(entryId);
+                servers.add(server);
+            }
+            for (SeasonEntity season : rows.seasons) {
+                season.setEntryId(entryId);
+                seasons.add(season);
+            }
+        }
+        if (!servers.isEmpty()) {
+            database.serverDao().insertAll(servers);
+        }
+        if (seasons.isEmpty()) {
+            return;
+        }
+
+        // Resolve list indices to row ids level by level
+        List<Long> seasonIds = database.seasonDao().insertSeasons(seasons);
+        List<EpisodeEntity> episodes = new ArrayList<>();
+        int seasonOffset = 0;
+        for (EntryRows rows : written) {
+            for (EpisodeEntity episode : rows.episodes) {
+                episode.setEntryId(rows.entry.getId());
+                episode.setSeasonId(seasonIds.get(seasonOffset + episode.getSeasonIndex()));
+                episodes.add(episode);
+            }
+            seasonOffset += rows.seasons.size();
+        }
+        if (episodes.isEmpty()) {
+            return;
+        }
+
+        List<Long> episodeIds = database.seasonDao().insertEpisodes(episodes);
+        List<EpisodeServerEntity> episodeServers = new ArrayList<>();
+        int episodeOffset = 0;
+        for (EntryRows rows : written) {
+            for (EpisodeServerEntity server : rows.episodeServers) {
+                server.setEpisodeId(episodeIds.get(episodeOffset + server.getEpisodeIndex()));
+                episodeServers.add(server);
+            }
+            episodeOffset += rows.episodes.size();
+        }
+        if (!episodeServers.isEmpty()) {
+            database.seasonDao().insertEpisodeServers(episodeServers);
+        }
+    }
+
+    /**
+     * Wait until everything queued so far is written. Call once a playlist
+     * file was ingested; on a first sync its entries then show up
+     * immediately, in delta mode only once the sync commits.
+     */
+    public void flushPending() {
+        writeQueue.awaitWritten();
+    }
+
+    /**
+     * Finish a sync in which every playlist file was ingested
+     */
+    public void commit() {
+        commit(null, null, true);
+    }
+
+    /**
+     * {@link #finish} and wait for the commit. Must not run on the db-write pool.
+     */
+    public void commit(Set<String> ingestedUrls, Set<String> currentUrls, boolean complete) {
+        finish(ingestedUrls, currentUrls, complete);
+        awaitCommitted();
+    }
+
+    /**
+     * Finish the sync: hand the deletes to the writer, which applies them
+     * after the queued writes, commits and stops. In delta mode this is the
+     * one commit of the whole sync. Does not wait; a task submitted to the
+     * db-write pool afterwards runs once the commit is done, and
+     * {@link #awaitCommitted()} reports its outcome.
+     *
+     * A stored entry that was not seen is deleted only when its playlist file
+     * was re-ingested completely or is no longer listed; entries of files that
+     * failed or answered 304 Not Modified are left alone.
+     *
+     * @param ingestedUrls playlist files that were parsed to the end in this sync
+     * @param currentUrls  every playlist file listed by the current version
+     * @param complete     no file failed; also allows deleting rows without a source file
+     */
+    public void finish(Set<String> ingestedUrls, Set<String> currentUrls, boolean complete) {
+        List<Integer> deletions = new ArrayList<>();
+        synchronized (this) {
+            if (committed) {
+                return;
+            }
+            committed = true;
+            if (stored != null) {
+                for (StoredEntry entry : stored.values()) {
+                    if (!entry.seen && isDeletable(entry.playlistUrl, ingestedUrls, currentUrls, complete)) {
+                        deletions.add(entry.id);
+                    }
+                }
+            }
+        }
+        writeQueue.finish(deletions);
+        synchronized (this) {
+            pendingDeletes = deletions.size();
+        }
+    }
+
+    /**
+     * Block until the writer committed after {@link #finish}; throws when it
+     * failed or the sync was abandoned first
+     */
+    public void awaitCommitted() {
+        writeQueue.awaitFinished();
+        synchronized (this) {
+            deletedCount = pendingDeletes;
+        }
+    }
+
+    /**
+     * Stop the writer without committing, e.g. when a sync is
+     * cancelled. In delta mode nothing of this sync is kept; on a first sync
+     * the batches already written stay in the database.
+     */
+    public void abandon() {
+        writeQueue.abort();
+    }
+
+    private static boolean isDeletable(String playlistUrl, Set<String> ingestedUrls, Set<String> currentUrls, boolean complete) {
+        if (playlistUrl == null || ingestedUrls == null || currentUrls == null) {
+            return complete;
+        }
+        return ingestedUrls.contains(playlistUrl) || !currentUrls.contains(playlistUrl);
+    }
+
+    public int getInsertedCount() {
+        return writeQueue.getInsertedCount();
+    }
+
+    public int getUpdatedCount() {
+        return writeQueue.getUpdatedCount();
+    }
+
+    public synchronized int getDeletedCount() {
+        return deletedCount;
+    }
+
+    public int getWrittenCount() {
+        return getInsertedCount() + getUpdatedCount();
+    }
+
+    /**
+     * Time the writer spent writing batches and deletes
+     */
+    public long getWriteTimeMs() {
+        return writeQueue.getWriteTimeMs();
+    }
+
+    /**
+     * Written rows per second since this writer was created
+     */
+    public double getRowsPerSecond() {
+        long elapsedMs = Math.max(1, SystemClock.elapsedRealtime() - startTime);
+        return getWrittenCount() * 1000.0 / elapsedMs;
+    }
+}
@@ -0,0 +1,73 @@
+package com.cinecraze.free.database;
+
+import android.text.TextUtils;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.cinecraze.free.database.dao.EntryDao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL for the filter pages: genre, country and year, optionally within a category.
+ *
+ * "(:genre IS NULL OR sub_category = :genre)" keeps SQLite from using any
+ * index on the filter columns, so only the filters that are set are written
+ * into the WHERE clause. With a (column, title, id) index per filter column,
+ * every combination seeks on one of them and reads rows in title order.
+ */
+public class EntryFilterQuery {
+
+    private static final String AFTER_KEY = "title >= ? AND (title > ? OR id > ?)";
+
+    private final String where;
+    private final List<Object> args = new ArrayList<>();
+
+    /**
+     * Null or empty filters match everything
+     */
+    public EntryFilterQuery(String genre, String country, String year) {
+        this(null, genre, country, year);
+    }
+
+    public EntryFilterQuery(String category, String genre, String country, String year) {
+        List<String> predicates = new ArrayList<>();
+        addPredicate(predicates, "main_category", category);
+        addPredicate(predicates, "sub_category", genre);
+        addPredicate(predicates, "country", country);
+        addPredicate(predicates, "year", year);
+        this.where = predicates.isEmpty() ? "" : " WHERE " + TextUtils.join(" AND ", predicates);
+    }
+
+    public SupportSQLiteQuery tilesAfter(String lastTitle, int lastId, int limit) {
+        String sql = "SELECT " + EntryDao.TILE_COLUMNS + " FROM entries"
+                + (where.isEmpty() ? " WHERE " : where + " AND ") + AFTER_KEY
+                + EntryDao.KEY_ORDER + " LIMIT ?";
+        List<Object> queryArgs = new ArrayList<>(args);
+        queryArgs.add(lastTitle);
+        queryArgs.add(lastTitle);
+        queryArgs.add(lastId);
+        queryArgs.add(limit);
+        return new SimpleSQLiteQuery(sql, queryArgs.toArray());
+    }
+
+    public SupportSQLiteQuery keyAt(int offset) {
+        String sql = "SELECT title, id FROM entries" + where + EntryDao.KEY_ORDER + " LIMIT 1 OFFSET ?";
+        List<Object> queryArgs = new ArrayList<>(args);
+        queryArgs.add(offset);
+        return new SimpleSQLiteQuery(sql, queryArgs.toArray());
+    }
+
+    public SupportSQLiteQuery count() {
+        return new SimpleSQLiteQuery("SELECT COUNT(*) FROM entries" + where, args.toArray());
+    }
+
+    private void addPredicate(List<String> predicates, String column, String value) {
+        if (value != null && !value.isEmpty()) {
+            predicates.add(column + " = ?");
+            args.add(value);
+        }
+    }
+}
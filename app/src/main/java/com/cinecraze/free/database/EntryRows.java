@@ -0,0 +1,29 @@
+package com.cinecraze.free.database;
+
+import com.cinecraze.free.database.entities.EntryEntity;
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+import com.cinecraze.free.database.entities.ServerEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry with all of its child rows, ready to be written.
+ *
+ * Child rows are linked by list index until their parents have ids:
+ * EpisodeEntity.seasonIndex points into seasons and
+ * EpisodeServerEntity.episodeIndex points into episodes.
+ */
+public class EntryRows {
+    public final EntryEntity entry;
+    public final List<ServerEntity> servers = new ArrayList<>();
+    public final List<SeasonEntity> seasons = new ArrayList<>();
+    public final List<EpisodeEntity> episodes = new ArrayList<>();
+    public final List<EpisodeServerEntity> episodeServers = new ArrayList<>();
+
+    public EntryRows(EntryEntity entry) {
+        this.entry = entry;
+    }
+}
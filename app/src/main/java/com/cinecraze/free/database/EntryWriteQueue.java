@@ -0,0 +1,297 @@
+package com.cinecraze.free.database;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.cinecraze.free.concurrent.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer behind a bounded queue.
+ *
+ * Parsing threads hand over converted entries with {@link #insert} and
+ * {@link #update} and go back to parsing, while the writer drains the queue
+ * into batches of up to batchSize rows. The writer is one task on
+ * {@link AppExecutors#dbWrite()} that runs until {@link #finish} or
+ * {@link #abort()}, so other writes queued there wait for the sync. When the
+ * writer falls behind the queue fills up and producers block, so at most
+ * queueCapacity entries are held in memory.
+ *
+ * A streaming queue commits each batch in a Room transaction of its own, so
+ * rows show up as they are written. An atomic queue writes every batch and the
+ * deletes handed to {@link #finish} inside one transaction that commits only
+ * when finish() is reached; after a failure, {@link #abort()} or a crash
+ * nothing it wrote is kept.
+ */
+class EntryWriteQueue {
+
+    private static final String TAG = "EntryWriteQueue";
+
+    private static final long IDLE_POLL_MS = 500;
+
+    // Stay below SQLite's default bound-parameter limit (999)
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private static class Op {
+        final EntryRows rows; // null for a barrier or the deletes
+        final boolean update;
+        final CountDownLatch barrier;
+        final List<Integer> deletions; // non-null only for the last op, see finish()
+
+        Op(EntryRows rows, boolean update, CountDownLatch barrier, List<Integer> deletions) {
+            this.rows = rows;
+            this.update = update;
+            this.barrier = barrier;
+            this.deletions = deletions;
+        }
+    }
+
+    // Thrown out of the atomic transaction to roll it back
+    private static class RolledBack extends RuntimeException {
+    }
+
+    private final CineCrazeDatabase database;
+    private final int batchSize;
+    private final boolean atomic;
+    private final BlockingQueue<Op> queue;
+    private final CountDownLatch done = new CountDownLatch(1); // the writer task ended
+    private volatile boolean closed = false;
+    private volatile boolean aborted = false;
+    private volatile boolean finished = false; // the deletes were applied
+    private volatile RuntimeException failure;
+
+    // Written by the writer thread only, read by anyone
+    private volatile int insertedCount = 0;
+    private volatile int updatedCount = 0;
+    private volatile long writeTimeMs = 0;
+
+    EntryWriteQueue(CineCrazeDatabase database, int batchSize, int queueCapacity, boolean atomic) {
+        this.database = database;
+        this.batchSize = batchSize;
+        this.atomic = atomic;
+        this.queue = new ArrayBlockingQueue<>(Math.max(batchSize, queueCapacity));
+        AppExecutors.dbWrite().execute(this::run);
+    }
+
+    void insert(EntryRows rows) {
+        put(new Op(rows, false, null, null));
+    }
+
+    void update(EntryRows rows) {
+        put(new Op(rows, true, null, null));
+    }
+
+    /**
+     * Block until everything queued before this call is written; on an atomic
+     * queue the rows are only visible to other connections after finish()
+     */
+    void awaitWritten() {
+        CountDownLatch barrier = new CountDownLatch(1);
+        put(new Op(null, false, barrier, null));
+        await(barrier);
+        throwIfFailed();
+    }
+
+    /**
+     * Delete the given entry ids after everything queued so far, then commit
+     * and end the writer task. Does not wait; a task submitted to
+     * {@link AppExecutors#dbWrite()} after this runs once the writer is done.
+     */
+    void finish(List<Integer> deletions) {
+        put(new Op(null, false, null, deletions));
+        closed = true;
+    }
+
+    /**
+     * Block until the writer task ended after {@link #finish}. Throws when the
+     * writes failed or were aborted, in which case an atomic queue kept nothing.
+     */
+    void awaitFinished() {
+        await(done);
+        throwIfFailed();
+        if (!finished) {
+            throw new IllegalStateException("Entry writes were abandoned before they were committed");
+        }
+    }
+
+    /**
+     * End the writer task without finishing. Entities queued after this are
+     * dropped, and an atomic queue rolls back what it wrote.
+     */
+    void abort() {
+        aborted = true;
+        closed = true;
+    }
+
+    int getInsertedCount() {
+        return insertedCount;
+    }
+
+    int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * Time the writer spent writing batches and deletes
+     */
+    long getWriteTimeMs() {
+        return writeTimeMs;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            while (!latch.await(IDLE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (done.getCount() == 0) {
+                    break; // stopped while waiting; nothing more will be written
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for entry writes", e);
+        }
+    }
+
+    private void put(Op op) {
+        throwIfFailed();
+        try {
+            // Never block for good: once closed, the writer stops taking entities
+            while (!queue.offer(op, IDLE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    if (op.barrier != null) {
+                        op.barrier.countDown();
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing entry writes", e);
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void run() {
+        try {
+            if (atomic) {
+                database.runInTransaction(() -> {
+                    drain();
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    if (!finished) {
+                        throw new RolledBack();
+                    }
+                });
+            } else {
+                drain();
+            }
+        } catch (RolledBack e) {
+            Log.d(TAG, "Entry writes rolled back");
+        } catch (RuntimeException e) {
+            if (e != failure) {
+                Log.e(TAG, "Error committing entry writes: " + e.getMessage(), e);
+                failure = e;
+            }
+        } finally {
+            // Release anyone still waiting
+            Op op;
+            while ((op = queue.poll()) != null) {
+                if (op.barrier != null) {
+                    op.barrier.countDown();
+                }
+            }
+            done.countDown();
+        }
+    }
+
+    private void drain() {
+        List<Op> ops = new ArrayList<>(batchSize);
+        List<EntryRows> inserts = new ArrayList<>(batchSize);
+        List<EntryRows> updates = new ArrayList<>();
+        List<CountDownLatch> barriers = new ArrayList<>();
+        List<Integer> deletions = null;
+        while (deletions == null && !aborted) {
+            Op first;
+            try {
+                first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            ops.add(first);
+            queue.drainTo(ops, batchSize - 1);
+
+            for (Op op : ops) {
+                if (op.deletions != null) {
+                    deletions = op.deletions; // always the last op
+                } else if (op.barrier != null) {
+                    barriers.add(op.barrier);
+                } else if (op.update) {
+                    updates.add(op.rows);
+                } else {
+                    inserts.add(op.rows);
+                }
+            }
+            // After a failure keep draining so producers never block, but stop writing
+            if (failure == null && (!inserts.isEmpty() || !updates.isEmpty())) {
+                writeBatch(inserts, updates);
+            }
+            if (failure == null && deletions != null) {
+                delete(deletions);
+            }
+            // Barriers are released only after the rows queued before them are written
+            for (CountDownLatch barrier : barriers) {
+                barrier.countDown();
+            }
+            ops.clear();
+            inserts.clear();
+            updates.clear();
+            barriers.clear();
+        }
+    }
+
+    private void writeBatch(List<EntryRows> inserts, List<EntryRows> updates) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            database.runInTransaction(() -> EntryBatchWriter.writeRows(database, inserts, updates));
+            insertedCount += inserts.size();
+            updatedCount += updates.size();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error writing entry batch: " + e.getMessage(), e);
+            failure = e;
+        }
+        writeTimeMs += SystemClock.elapsedRealtime() - start;
+    }
+
+    private void delete(List<Integer> ids) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            database.runInTransaction(() -> {
+                for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+                    database.entryDao().deleteByIds(ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
+                }
+            });
+            finished = true;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error deleting entries: " + e.getMessage(), e);
+            failure = e;
+        }
+        writeTimeMs += SystemClock.elapsedRealtime() - start;
+    }
+}
@@ -0,0 +1,162 @@
+package com.cinecraze.free.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+import com.cinecraze.free.database.entities.ServerEntity;
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.models.Season;
+import com.cinecraze.free.models.Server;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Version 4 to 5: moves servers_json and seasons_json out of the entries table
+ * into servers, seasons, episodes and episode_servers.
+ *
+ * The cached catalog is carried over, so no re-download is needed. SQLite
+ * cannot drop columns on older devices, so entries is rebuilt without the two
+ * JSON columns. Stored content hashes are reset because the hash now covers the
+ * normalized rows; the next sync that sees an entry rewrites it once.
+ */
+class NormalizedSchemaMigration extends Migration {
+
+    private static final String TAG = "NormalizedSchemaMigration";
+
+    private final Gson gson = new Gson();
+
+    NormalizedSchemaMigration() {
+        super(4, 5);
+    }
+
+    @Override
+    public void migrate(SupportSQLiteDatabase db) {
+        db.execSQL("ALTER TABLE entries RENAME TO entries_legacy");
+        db.execSQL("CREATE TABLE IF NOT EXISTS `entries` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`title` TEXT, `sub_category` TEXT, `country` TEXT, `description` TEXT, `poster` TEXT, "
+                + "`thumbnail` TEXT, `rating` TEXT, `duration` TEXT, `year` TEXT, `main_category` TEXT, "
+                + "`related_json` TEXT, `content_hash` INTEGER NOT NULL DEFAULT 0, `playlist_url` TEXT)");
+        db.execSQL("INSERT INTO entries (id, title, sub_category, country, description, poster, thumbnail, rating, "
+                + "duration, year, main_category, related_json, content_hash, playlist_url) "
+                + "SELECT id, title, sub_category, country, description, poster, thumbnail, rating, "
+                + "duration, year, main_category, related_json, 0, playlist_url FROM entries_legacy");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `servers` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`entry_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, `name` TEXT, `url` TEXT, "
+                + "`license` TEXT, `drm` INTEGER, "
+                + "FOREIGN KEY(`entry_id`) REFERENCES `entries`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_servers_entry_id` ON `servers` (`entry_id`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `seasons` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`entry_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, `season_number` INTEGER NOT NULL, "
+                + "`poster` TEXT, `episode_count` INTEGER NOT NULL, "
+                + "FOREIGN KEY(`entry_id`) REFERENCES `entries`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_seasons_entry_id` ON `seasons` (`entry_id`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `episodes` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`season_id` INTEGER NOT NULL, `entry_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, "
+                + "`episode_number` INTEGER NOT NULL, `episode_label` TEXT, `title` TEXT, `duration` TEXT, "
+                + "`description` TEXT, `thumbnail` TEXT, "
+                + "FOREIGN KEY(`season_id`) REFERENCES `seasons`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                + "FOREIGN KEY(`entry_id`) REFERENCES `entries`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_episodes_season_id` ON `episodes` (`season_id`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_episodes_entry_id` ON `episodes` (`entry_id`)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS `episode_servers` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`episode_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, `name` TEXT, `url` TEXT, "
+                + "`license` TEXT, `drm` INTEGER, "
+                + "FOREIGN KEY(`episode_id`) REFERENCES `episodes`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_episode_servers_episode_id` ON `episode_servers` (`episode_id`)");
+
+        int migrated = 0;
+        try (Cursor cursor = db.query("SELECT id, servers_json, seasons_json FROM entries_legacy")) {
+            while (cursor.moveToNext()) {
+                copyChildren(db, cursor.getInt(0), cursor.getString(1), cursor.getString(2));
+                migrated++;
+            }
+        }
+        db.execSQL("DROP TABLE entries_legacy");
+        Log.d(TAG, "Normalized servers and seasons of " + migrated + " entries");
+    }
+
+    private void copyChildren(SupportSQLiteDatabase db, int entryId, String serversJson, String seasonsJson) {
+        Entry entry = new Entry();
+        try {
+            Type serverListType = new TypeToken<List<Server>>(){}.getType();
+            entry.setServers(gson.fromJson(serversJson, serverListType));
+            Type seasonListType = new TypeToken<List<Season>>(){}.getType();
+            entry.setSeasons(gson.fromJson(seasonsJson, seasonListType));
+        } catch (Exception e) {
+            // Unreadable blobs leave the entry without servers until the next sync rewrites it
+            Log.w(TAG, "Skipping unreadable servers/seasons of entry " + entryId, e);
+            return;
+        }
+        EntryRows rows = DatabaseUtils.entryToRows(entry, null);
+
+        for (ServerEntity server : rows.servers) {
+            ContentValues values = serverValues(server.getPosition(), server.getName(), server.getUrl(),
+                    server.getLicense(), server.getDrm());
+            values.put("entry_id", entryId);
+            db.insert("servers", SQLiteDatabase.CONFLICT_NONE, values);
+        }
+
+        List<Long> seasonIds = new ArrayList<>(rows.seasons.size());
+        for (SeasonEntity season : rows.seasons) {
+            ContentValues values = new ContentValues();
+            values.put("entry_id", entryId);
+            values.put("position", season.getPosition());
+            values.put("season_number", season.getSeasonNumber());
+            values.put("poster", season.getPoster());
+            values.put("episode_count", season.getEpisodeCount());
+            seasonIds.add(db.insert("seasons", SQLiteDatabase.CONFLICT_NONE, values));
+        }
+
+        List<Long> episodeIds = new ArrayList<>(rows.episodes.size());
+        for (EpisodeEntity episode : rows.episodes) {
+            ContentValues values = new ContentValues();
+            values.put("season_id", seasonIds.get(episode.getSeasonIndex()));
+            values.put("entry_id", entryId);
+            values.put("position", episode.getPosition());
+            values.put("episode_number", episode.getEpisodeNumber());
+            values.put("episode_label", episode.getEpisodeLabel());
+            values.put("title", episode.getTitle());
+            values.put("duration", episode.getDuration());
+            values.put("description", episode.getDescription());
+            values.put("thumbnail", episode.getThumbnail());
+            episodeIds.add(db.insert("episodes", SQLiteDatabase.CONFLICT_NONE, values));
+        }
+
+        for (EpisodeServerEntity server : rows.episodeServers) {
+            ContentValues values = serverValues(server.getPosition(), server.getName(), server.getUrl(),
+                    server.getLicense(), server.getDrm());
+            values.put("episode_id", episodeIds.get(server.getEpisodeIndex()));
+            db.insert("episode_servers", SQLiteDatabase.CONFLICT_NONE, values);
+        }
+    }
+
+    private static ContentValues serverValues(int position, String name, String url, String license, Boolean drm) {
+        ContentValues values = new ContentValues();
+        values.put("position", position);
+        values.put("name", name);
+        values.put("url", url);
+        values.put("license", license);
+        if (drm != null) {
+            values.put("drm", drm ? 1 : 0);
+        } else {
+            values.putNull("drm");
+        }
+        return values;
+    }
+}
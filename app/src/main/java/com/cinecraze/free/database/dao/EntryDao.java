@@ -1,81 +1,196 @@
 package com.cinecraze.free.database.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.cinecraze.free.database.EntryFilterQuery;
 import com.cinecraze.free.database.entities.EntryEntity;
+import com.cinecraze.free.database.entities.EntryHashRow;
+import com.cinecraze.free.database.entities.EntryKey;
+import com.cinecraze.free.database.entities.EntryMatch;
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.database.entities.FacetCell;
 
 import java.util.List;
 
+/**
+ * Queries on the entries table. The SQL of every read is a constant so
+ * the EntryQueryPlanCheck instrumentation test can check its query
+ * plan against the indexes declared on {@link EntryEntity}.
+ */
 @Dao
 public interface EntryDao {
     
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<EntryEntity> entries);
-    
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(EntryEntity entry);
-    
-    @Query("SELECT * FROM entries")
-    List<EntryEntity> getAllEntries();
-    
-    @Query("SELECT * FROM entries WHERE main_category = :category")
-    List<EntryEntity> getEntriesByCategory(String category);
-    
-    @Query("SELECT * FROM entries WHERE title LIKE '%' || :title || '%'")
-    List<EntryEntity> searchByTitle(String title);
-    
-    @Query("SELECT COUNT(*) FROM entries")
+    /**
+     * Length of the description preview carried by a tile
+     */
+    int TILE_DESCRIPTION_CHARS = 200;
+    
+    /**
+     * Columns of an {@link EntryTile}. Listing pages never read related_json,
+     * content_hash, playlist_url or the full description.
+     */
+    String TILE_COLUMNS = "id, title, sub_category, main_category, country, "
+            + "substr(description, 1, " + TILE_DESCRIPTION_CHARS + ") AS description, "
+            + "poster, thumbnail, rating, duration, year, entry_key";
+    
+    // Keyset pagination: each page seeks past the (title, id) of the previous
+    // page's last row instead of skipping OFFSET rows. Pass EntryKey.FIRST for
+    // the first page. SQLite before 3.15 has no row values, so the comparison
+    // is spelled out with a range on title that the index can seek to.
+    String AFTER_KEY = "title >= :lastTitle AND (title > :lastTitle OR id > :lastId)";
+    String KEY_ORDER = " ORDER BY title ASC, id ASC";
+    
+    String SQL_ALL_TILES = "SELECT " + TILE_COLUMNS + " FROM entries";
+    String SQL_ENTRY_BY_ID = "SELECT * FROM entries WHERE id = :id";
+    String SQL_ENTRY_BY_KEY = "SELECT * FROM entries WHERE entry_key = :key LIMIT 1";
+    String SQL_ID_BY_KEY = "SELECT id FROM entries WHERE entry_key = :key";
+    String SQL_ENTRY_HASHES = "SELECT id, entry_key, content_hash, playlist_url FROM entries";
+    String SQL_DELETE_BY_IDS = "DELETE FROM entries WHERE id IN (:ids)";
+    String SQL_TILES_BY_CATEGORY = "SELECT " + TILE_COLUMNS + " FROM entries WHERE main_category = :category";
+    String SQL_COUNT = "SELECT COUNT(*) FROM entries";
+    String SQL_DELETE_BY_CATEGORY = "DELETE FROM entries WHERE main_category = :category";
+    
+    String SQL_TILES_AFTER = "SELECT " + TILE_COLUMNS + " FROM entries WHERE " + AFTER_KEY + KEY_ORDER + " LIMIT :limit";
+    String SQL_TILES_BY_CATEGORY_AFTER = "SELECT " + TILE_COLUMNS + " FROM entries WHERE main_category = :category AND "
+            + AFTER_KEY + KEY_ORDER + " LIMIT :limit";
+    String SQL_KEY_AT = "SELECT title, id FROM entries" + KEY_ORDER + " LIMIT 1 OFFSET :offset";
+    String SQL_KEY_BY_CATEGORY_AT = "SELECT title, id FROM entries WHERE main_category = :category"
+            + KEY_ORDER + " LIMIT 1 OFFSET :offset";
+    
+    String SQL_COUNT_BY_CATEGORY = "SELECT COUNT(*) FROM entries WHERE main_category = :category";
+    
+    // Full-text search over entries_fts; see FullTextSearch for the query syntax and ranking
+    String SQL_MATCH = "SELECT docid AS id, matchinfo(entries_fts, 'pcnalx') AS info FROM entries_fts "
+            + "WHERE entries_fts MATCH :query";
+    String SQL_TILES_BY_IDS = "SELECT " + TILE_COLUMNS + " FROM entries WHERE id IN (:ids)";
+    String SQL_TITLES = "SELECT id, title FROM entries ORDER BY id ASC";
+    String SQL_SUGGESTION_SOURCES = "SELECT title, rating_value, year FROM entries";
+    String SQL_FILTER_SOURCES = "SELECT id, main_category, sub_category, country, year FROM entries" + KEY_ORDER;
+    
+    // One row per distinct (category, genre, country, year); FacetCube counts every facet from these
+    String SQL_FACET_CELLS = "SELECT main_category, sub_category, country, year, COUNT(*) AS hits FROM entries "
+            + "GROUP BY main_category, sub_category, country, year";
+    
+    String SQL_TOP_RATED_TILES = "SELECT " + TILE_COLUMNS + " FROM entries ORDER BY rating_value DESC LIMIT :count";
+    
+    /**
+     * Insert entries, skipping any whose entry_key is already stored; the id
+     * of a skipped entry is -1. REPLACE would delete the stored row instead,
+     * giving the entry a new id and cascading away its child rows.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertAll(List<EntryEntity> entries);
+    
+    @Update
+    void updateAll(List<EntryEntity> entries);
+    
+    @Query(SQL_ALL_TILES)
+    List<EntryTile> getAllTiles();
+    
+    @Query(SQL_ENTRY_BY_ID)
+    EntryEntity getEntryById(int id);
+    
+    /**
+     * The entry whose Entry.getKey() is key, or null
+     */
+    @Query(SQL_ENTRY_BY_KEY)
+    EntryEntity getEntryByKey(long key);
+    
+    @Query(SQL_ID_BY_KEY)
+    Integer getIdByKey(long key);
+    
+    // Delta sync queries
+    @Query(SQL_ENTRY_HASHES)
+    List<EntryHashRow> getEntryHashes();
+    
+    @Query(SQL_DELETE_BY_IDS)
+    void deleteByIds(List<Integer> ids);
+    
+    @Query(SQL_TILES_BY_CATEGORY)
+    List<EntryTile> getTilesByCategory(String category);
+    
+    @Query(SQL_COUNT)
     int getEntriesCount();
     
     @Query("DELETE FROM entries")
     void deleteAll();
     
-    @Query("DELETE FROM entries WHERE main_category = :category")
+    @Query(SQL_DELETE_BY_CATEGORY)
     void deleteByCategory(String category);
     
-    // Pagination queries
-    @Query("SELECT * FROM entries ORDER BY title ASC LIMIT :limit OFFSET :offset")
-    List<EntryEntity> getEntriesPaged(int limit, int offset);
+    // Keyset pages
+    @Query(SQL_TILES_AFTER)
+    List<EntryTile> getTilesAfter(String lastTitle, int lastId, int limit);
     
-    @Query("SELECT * FROM entries WHERE main_category = :category ORDER BY title ASC LIMIT :limit OFFSET :offset")
-    List<EntryEntity> getEntriesByCategoryPaged(String category, int limit, int offset);
+    @Query(SQL_TILES_BY_CATEGORY_AFTER)
+    List<EntryTile> getTilesByCategoryAfter(String category, String lastTitle, int lastId, int limit);
     
-    @Query("SELECT * FROM entries WHERE title LIKE '%' || :title || '%' ORDER BY title ASC LIMIT :limit OFFSET :offset")
-    List<EntryEntity> searchByTitlePaged(String title, int limit, int offset);
+    // Key of the row at an offset; only title and id are read. Used when a
+    // page is requested without the key of the page before it
+    @Query(SQL_KEY_AT)
+    EntryKey getKeyAt(int offset);
     
-    @Query("SELECT COUNT(*) FROM entries WHERE main_category = :category")
+    @Query(SQL_KEY_BY_CATEGORY_AT)
+    EntryKey getKeyByCategoryAt(String category, int offset);
+    
+    @Query(SQL_COUNT_BY_CATEGORY)
     int getEntriesCountByCategory(String category);
     
-    @Query("SELECT COUNT(*) FROM entries WHERE title LIKE '%' || :title || '%'")
-    int getSearchResultsCount(String title);
+    @Query(SQL_MATCH)
+    List<EntryMatch> match(String query);
     
-    // Filter queries for unique values
-    @Query("SELECT DISTINCT sub_category FROM entries WHERE sub_category IS NOT NULL AND sub_category != '' ORDER BY sub_category ASC")
-    List<String> getUniqueGenres();
+    @Query(SQL_TILES_BY_IDS)
+    List<EntryTile> getTilesByIds(List<Integer> ids);
     
-    @Query("SELECT DISTINCT country FROM entries WHERE country IS NOT NULL AND country != '' ORDER BY country ASC")
-    List<String> getUniqueCountries();
+    // Every (id, title) in id order, read straight from the cursor to build
+    // the in-memory title index without an object per row
+    @Query(SQL_TITLES)
+    Cursor queryTitles();
     
-    @Query("SELECT DISTINCT year FROM entries WHERE year IS NOT NULL AND year != '' AND year != '0' ORDER BY year DESC")
-    List<String> getUniqueYears();
+    // Title, rating and year of every entry for the suggestion index
+    @Query(SQL_SUGGESTION_SOURCES)
+    Cursor querySuggestionSources();
     
-    // Filtered pagination queries
-    @Query("SELECT * FROM entries WHERE " +
-           "(:genre IS NULL OR sub_category = :genre) AND " +
-           "(:country IS NULL OR country = :country) AND " +
-           "(:year IS NULL OR year = :year) " +
-           "ORDER BY title ASC LIMIT :limit OFFSET :offset")
-    List<EntryEntity> getEntriesFilteredPaged(String genre, String country, String year, int limit, int offset);
+    // Filter columns of every entry in page order, for the filter index
+    @Query(SQL_FILTER_SOURCES)
+    Cursor queryFilterSources();
     
-    @Query("SELECT COUNT(*) FROM entries WHERE " +
-           "(:genre IS NULL OR sub_category = :genre) AND " +
-           "(:country IS NULL OR country = :country) AND " +
-           "(:year IS NULL OR year = :year)")
-    int getEntriesFilteredCount(String genre, String country, String year);
-
-    @Query("SELECT * FROM entries ORDER BY CAST(rating AS REAL) DESC LIMIT :count")
-    List<EntryEntity> getTopRatedEntries(int count);
-}
\ No newline at end of file
+    @Query(SQL_FACET_CELLS)
+    List<FacetCell> getFacetCells();
+    
+    // Filtered pagination queries by category, genre, country and year. Only
+    // the filters that are set become predicates (see EntryFilterQuery), so
+    // each one can seek on its index; null or empty means "any".
+    @RawQuery(observedEntities = EntryEntity.class)
+    List<EntryTile> getTilesRaw(SupportSQLiteQuery query);
+    
+    @RawQuery(observedEntities = EntryEntity.class)
+    EntryKey getKeyRaw(SupportSQLiteQuery query);
+    
+    @RawQuery(observedEntities = EntryEntity.class)
+    int countRaw(SupportSQLiteQuery query);
+    
+    default List<EntryTile> getTilesFilteredAfter(String category, String genre, String country, String year,
+                                                  String lastTitle, int lastId, int limit) {
+        return getTilesRaw(new EntryFilterQuery(category, genre, country, year).tilesAfter(lastTitle, lastId, limit));
+    }
+    
+    default EntryKey getFilteredKeyAt(String category, String genre, String country, String year, int offset) {
+        return getKeyRaw(new EntryFilterQuery(category, genre, country, year).keyAt(offset));
+    }
+    
+    default int getEntriesFilteredCount(String category, String genre, String country, String year) {
+        return countRaw(new EntryFilterQuery(category, genre, country, year).count());
+    }
+    
+    @Query(SQL_TOP_RATED_TILES)
+    List<EntryTile> getTopRatedTiles(int count);
+}
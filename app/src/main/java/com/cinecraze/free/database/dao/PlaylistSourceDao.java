@@ -0,0 +1,23 @@
+package com.cinecraze.free.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.cinecraze.free.database.entities.PlaylistSourceEntity;
+
+import java.util.List;
+
+@Dao
+public interface PlaylistSourceDao {
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<PlaylistSourceEntity> sources);
+    
+    @Query("SELECT * FROM playlist_sources WHERE url = :url")
+    PlaylistSourceEntity getSource(String url);
+    
+    @Query("DELETE FROM playlist_sources")
+    void deleteAll();
+}
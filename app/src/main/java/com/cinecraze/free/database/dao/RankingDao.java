@@ -0,0 +1,54 @@
+package com.cinecraze.free.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.database.entities.RankingEntity;
+
+import java.util.List;
+
+/**
+ * Materialized rankings and the entries queries they are built from. The
+ * source queries sort the table and run once per sync; reading a ranking is
+ * a primary key range of a few rows.
+ */
+@Dao
+public interface RankingDao {
+    
+    String SQL_TOP_RATED_IDS = "SELECT id FROM entries ORDER BY rating_value DESC LIMIT :count";
+    // year is text; only four-digit years sort correctly as strings
+    String SQL_NEWEST_IDS = "SELECT id FROM entries WHERE year GLOB '[0-9][0-9][0-9][0-9]' "
+            + "ORDER BY year DESC, rating_value DESC LIMIT :count";
+    String SQL_TOP_RATED_IDS_IN_CATEGORY = "SELECT id FROM entries WHERE main_category = :category "
+            + "ORDER BY rating_value DESC LIMIT :count";
+    String SQL_CATEGORIES = "SELECT DISTINCT main_category FROM entries "
+            + "WHERE main_category IS NOT NULL AND main_category != ''";
+    String SQL_RANKED_TILES = "SELECT " + EntryDao.TILE_COLUMNS + " FROM rankings "
+            + "JOIN entries ON entries.id = rankings.entry_id WHERE ranking = :ranking ORDER BY position LIMIT :count";
+    
+    @Query(SQL_TOP_RATED_IDS)
+    List<Integer> getTopRatedIds(int count);
+    
+    @Query(SQL_NEWEST_IDS)
+    List<Integer> getNewestIds(int count);
+    
+    @Query(SQL_TOP_RATED_IDS_IN_CATEGORY)
+    List<Integer> getTopRatedIdsInCategory(String category, int count);
+    
+    @Query(SQL_CATEGORIES)
+    List<String> getCategories();
+    
+    @Query(SQL_RANKED_TILES)
+    List<EntryTile> getRankedTiles(String ranking, int count);
+    
+    @Query("SELECT COUNT(*) FROM rankings")
+    int getRankingRowCount();
+    
+    @Insert
+    void insertAll(List<RankingEntity> rows);
+    
+    @Query("DELETE FROM rankings")
+    void deleteAll();
+}
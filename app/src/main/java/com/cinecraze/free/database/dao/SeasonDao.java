@@ -0,0 +1,52 @@
+package com.cinecraze.free.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.cinecraze.free.database.entities.EpisodeEntity;
+import com.cinecraze.free.database.entities.EpisodeServerEntity;
+import com.cinecraze.free.database.entities.SeasonEntity;
+
+import java.util.List;
+
+/**
+ * Seasons, episodes and episode servers. Deleting a season cascades to its
+ * episodes and their servers.
+ */
+@Dao
+public interface SeasonDao {
+    
+    @Insert
+    List<Long> insertSeasons(List<SeasonEntity> seasons);
+    
+    @Insert
+    List<Long> insertEpisodes(List<EpisodeEntity> episodes);
+    
+    @Insert
+    void insertEpisodeServers(List<EpisodeServerEntity> servers);
+    
+    @Query("SELECT * FROM seasons WHERE entry_id = :entryId ORDER BY position ASC")
+    List<SeasonEntity> getSeasonsForEntry(int entryId);
+    
+    // Windows of a long season: positions from (inclusive) to (exclusive)
+    @Query("SELECT * FROM episodes WHERE season_id = :seasonId AND position >= :from AND position < :to " +
+           "ORDER BY position ASC")
+    List<EpisodeEntity> getEpisodeWindow(long seasonId, int from, int to);
+    
+    @Query("SELECT episode_servers.* FROM episode_servers " +
+           "INNER JOIN episodes ON episodes.id = episode_servers.episode_id " +
+           "WHERE episodes.season_id = :seasonId AND episodes.position >= :from AND episodes.position < :to " +
+           "ORDER BY episode_servers.episode_id, episode_servers.position")
+    List<EpisodeServerEntity> getEpisodeServerWindow(long seasonId, int from, int to);
+    
+    /**
+     * Position of the first episode of a season with the given number, or null
+     */
+    @Query("SELECT position FROM episodes WHERE season_id = :seasonId AND episode_number = :number " +
+           "ORDER BY position ASC LIMIT 1")
+    Integer getEpisodePosition(long seasonId, int number);
+    
+    @Query("DELETE FROM seasons WHERE entry_id IN (:entryIds)")
+    void deleteForEntries(List<Integer> entryIds);
+}
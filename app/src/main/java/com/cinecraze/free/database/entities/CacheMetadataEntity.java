@@ -19,6 +19,19 @@ public class CacheMetadataEntity {
     @ColumnInfo(name = "data_version")
     private String dataVersion;
     
+    // Statistics of the last sync that wrote this record
+    @ColumnInfo(name = "sync_inserted", defaultValue = "0")
+    private int syncInserted;
+    
+    @ColumnInfo(name = "sync_updated", defaultValue = "0")
+    private int syncUpdated;
+    
+    @ColumnInfo(name = "sync_deleted", defaultValue = "0")
+    private int syncDeleted;
+    
+    @ColumnInfo(name = "sync_duration_ms", defaultValue = "0")
+    private long syncDurationMs;
+    
     // Constructor
     public CacheMetadataEntity() {}
     
@@ -38,4 +51,16 @@ public class CacheMetadataEntity {
     
     public String getDataVersion() { return dataVersion; }
     public void setDataVersion(String dataVersion) { this.dataVersion = dataVersion; }
+    
+    public int getSyncInserted() { return syncInserted; }
+    public void setSyncInserted(int syncInserted) { this.syncInserted = syncInserted; }
+    
+    public int getSyncUpdated() { return syncUpdated; }
+    public void setSyncUpdated(int syncUpdated) { this.syncUpdated = syncUpdated; }
+    
+    public int getSyncDeleted() { return syncDeleted; }
+    public void setSyncDeleted(int syncDeleted) { this.syncDeleted = syncDeleted; }
+    
+    public long getSyncDurationMs() { return syncDurationMs; }
+    public void setSyncDurationMs(long syncDurationMs) { this.syncDurationMs = syncDurationMs; }
 }
\ No newline at end of file
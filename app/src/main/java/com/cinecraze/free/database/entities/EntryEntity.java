@@ -1,10 +1,24 @@
 package com.cinecraze.free.database.entities;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 
-@Entity(tableName = "entries")
+@Entity(tableName = "entries",
+        indices = {
+            // Keyset pagination in title order, overall and per category
+            @Index(value = {"title", "id"}),
+            @Index(value = {"main_category", "title", "id"}),
+            // Filter pages seek on whichever filter is set; also serve the distinct-value lists
+            @Index(value = {"sub_category", "title", "id"}),
+            @Index(value = {"country", "title", "id"}),
+            @Index(value = {"year", "title", "id"}),
+            // Top rated
+            @Index(value = {"rating_value"}),
+            // Identity for sync dedup and details screen lookups
+            @Index(value = {"entry_key"}, unique = true)
+        })
 public class EntryEntity {
     
     @PrimaryKey(autoGenerate = true)
@@ -31,6 +45,9 @@ public class EntryEntity {
     @ColumnInfo(name = "rating")
     private String rating; // Store as string to handle mixed types
     
+    @ColumnInfo(name = "rating_value", defaultValue = "0")
+    private double ratingValue; // Numeric rating for ordering; 0 when rating is not a number
+    
     @ColumnInfo(name = "duration")
     private String duration;
     
@@ -40,14 +57,17 @@ public class EntryEntity {
     @ColumnInfo(name = "main_category")
     private String mainCategory; // To associate with category
     
-    @ColumnInfo(name = "servers_json")
-    private String serversJson; // Store servers as JSON string
+    @ColumnInfo(name = "related_json")
+    private String relatedJson; // Store related entries as JSON string; servers and seasons have their own tables
     
-    @ColumnInfo(name = "seasons_json")
-    private String seasonsJson; // Store seasons as JSON string
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    private long contentHash; // Hash of all stored fields, used by delta sync
     
-    @ColumnInfo(name = "related_json")
-    private String relatedJson; // Store related entries as JSON string
+    @ColumnInfo(name = "playlist_url")
+    private String playlistUrl; // Playlist file this entry was ingested from
+    
+    @ColumnInfo(name = "entry_key", defaultValue = "0")
+    private long entryKey; // Entry.getKey() of this entry, computed at ingest
     
     // Constructor
     public EntryEntity() {}
@@ -77,6 +97,9 @@ public class EntryEntity {
     public String getRating() { return rating; }
     public void setRating(String rating) { this.rating = rating; }
     
+    public double getRatingValue() { return ratingValue; }
+    public void setRatingValue(double ratingValue) { this.ratingValue = ratingValue; }
+    
     public String getDuration() { return duration; }
     public void setDuration(String duration) { this.duration = duration; }
     
@@ -86,12 +109,15 @@ public class EntryEntity {
     public String getMainCategory() { return mainCategory; }
     public void setMainCategory(String mainCategory) { this.mainCategory = mainCategory; }
     
-    public String getServersJson() { return serversJson; }
-    public void setServersJson(String serversJson) { this.serversJson = serversJson; }
-    
-    public String getSeasonsJson() { return seasonsJson; }
-    public void setSeasonsJson(String seasonsJson) { this.seasonsJson = seasonsJson; }
-    
     public String getRelatedJson() { return relatedJson; }
     public void setRelatedJson(String relatedJson) { this.relatedJson = relatedJson; }
+    
+    public long getContentHash() { return contentHash; }
+    public void setContentHash(long contentHash) { this.contentHash = contentHash; }
+    
+    public String getPlaylistUrl() { return playlistUrl; }
+    public void setPlaylistUrl(String playlistUrl) { this.playlistUrl = playlistUrl; }
+    
+    public long getEntryKey() { return entryKey; }
+    public void setEntryKey(long entryKey) { this.entryKey = entryKey; }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index over the searchable columns of entries.
+ *
+ * External content table: the text lives only in entries, and Room keeps the
+ * index in sync with triggers. unicode61 with remove_diacritics folds case and
+ * accents, so "cafe" also finds the accented spelling, and the 2/3-character
+ * prefix indexes keep short prefix queries cheap.
+ */
+@Fts4(contentEntity = EntryEntity.class,
+        tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        tokenizerArgs = {"remove_diacritics=1"},
+        prefix = {2, 3})
+@Entity(tableName = "entries_fts")
+public class EntryFtsEntity {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowId;
+
+    @ColumnInfo(name = "title")
+    private String title;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    @ColumnInfo(name = "country")
+    private String country;
+
+    @ColumnInfo(name = "sub_category")
+    private String subCategory;
+
+    public int getRowId() { return rowId; }
+    public void setRowId(int rowId) { this.rowId = rowId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getCountry() { return country; }
+    public void setCountry(String country) { this.country = country; }
+
+    public String getSubCategory() { return subCategory; }
+    public void setSubCategory(String subCategory) { this.subCategory = subCategory; }
+}
@@ -0,0 +1,21 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Identity and content hash of a stored entry, loaded to diff an incoming sync
+ */
+public class EntryHashRow {
+
+    @ColumnInfo(name = "id")
+    public int id;
+
+    @ColumnInfo(name = "entry_key")
+    public long entryKey;
+
+    @ColumnInfo(name = "content_hash")
+    public long contentHash;
+
+    @ColumnInfo(name = "playlist_url")
+    public String playlistUrl;
+}
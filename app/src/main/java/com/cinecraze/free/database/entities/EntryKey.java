@@ -0,0 +1,30 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Position of an entry in title order, used as the seek key of keyset pages.
+ * Titles are stored non-null, so (title, id) is a total order.
+ */
+public class EntryKey {
+
+    /**
+     * Sorts before every stored entry; seeking after it reads the first page
+     */
+    public static final EntryKey FIRST = new EntryKey("", 0);
+
+    @ColumnInfo(name = "title")
+    public final String title;
+
+    @ColumnInfo(name = "id")
+    public final int id;
+
+    public EntryKey(String title, int id) {
+        this.title = title;
+        this.id = id;
+    }
+
+    public static EntryKey of(EntryTile tile) {
+        return new EntryKey(tile.title, tile.id);
+    }
+}
@@ -0,0 +1,15 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * One full-text hit: the entry id and its FTS4 matchinfo('pcnalx') blob
+ */
+public class EntryMatch {
+
+    @ColumnInfo(name = "id")
+    public int id;
+
+    @ColumnInfo(name = "info")
+    public byte[] info;
+}
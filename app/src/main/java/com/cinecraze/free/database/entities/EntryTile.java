@@ -0,0 +1,48 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Columns a grid or list tile binds, read by listing pages instead of full
+ * entries rows. description holds only the first
+ * {@link com.cinecraze.free.database.dao.EntryDao#TILE_DESCRIPTION_CHARS}
+ * characters; the full text is read with the entry's details.
+ */
+public class EntryTile {
+
+    @ColumnInfo(name = "id")
+    public int id;
+
+    @ColumnInfo(name = "title")
+    public String title;
+
+    @ColumnInfo(name = "sub_category")
+    public String subCategory;
+
+    @ColumnInfo(name = "main_category")
+    public String mainCategory;
+
+    @ColumnInfo(name = "country")
+    public String country;
+
+    @ColumnInfo(name = "description")
+    public String description;
+
+    @ColumnInfo(name = "poster")
+    public String poster;
+
+    @ColumnInfo(name = "thumbnail")
+    public String thumbnail;
+
+    @ColumnInfo(name = "rating")
+    public String rating;
+
+    @ColumnInfo(name = "duration")
+    public String duration;
+
+    @ColumnInfo(name = "year")
+    public String year;
+
+    @ColumnInfo(name = "entry_key")
+    public long entryKey;
+}
@@ -0,0 +1,90 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "episodes",
+        foreignKeys = {
+                @ForeignKey(entity = SeasonEntity.class, parentColumns = "id", childColumns = "season_id",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = EntryEntity.class, parentColumns = "id", childColumns = "entry_id",
+                        onDelete = ForeignKey.CASCADE)
+        },
+        // Episode windows seek on (season_id, position)
+        indices = {@Index({"season_id", "position"}), @Index("entry_id")})
+public class EpisodeEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    @ColumnInfo(name = "season_id")
+    private long seasonId;
+    
+    @ColumnInfo(name = "entry_id")
+    private int entryId;
+    
+    @ColumnInfo(name = "position")
+    private int position;
+    
+    @ColumnInfo(name = "episode_number")
+    private int episodeNumber;
+    
+    @ColumnInfo(name = "episode_label")
+    private String episodeLabel; // Episode value as published, which is not always numeric
+    
+    @ColumnInfo(name = "title")
+    private String title;
+    
+    @ColumnInfo(name = "duration")
+    private String duration;
+    
+    @ColumnInfo(name = "description")
+    private String description;
+    
+    @ColumnInfo(name = "thumbnail")
+    private String thumbnail;
+    
+    @Ignore
+    private int seasonIndex; // Index into EntryRows.seasons until the season row has an id
+    
+    // Constructor
+    public EpisodeEntity() {}
+    
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public long getSeasonId() { return seasonId; }
+    public void setSeasonId(long seasonId) { this.seasonId = seasonId; }
+    
+    public int getEntryId() { return entryId; }
+    public void setEntryId(int entryId) { this.entryId = entryId; }
+    
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    
+    public int getEpisodeNumber() { return episodeNumber; }
+    public void setEpisodeNumber(int episodeNumber) { this.episodeNumber = episodeNumber; }
+    
+    public String getEpisodeLabel() { return episodeLabel; }
+    public void setEpisodeLabel(String episodeLabel) { this.episodeLabel = episodeLabel; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getDuration() { return duration; }
+    public void setDuration(String duration) { this.duration = duration; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+    
+    public int getSeasonIndex() { return seasonIndex; }
+    public void setSeasonIndex(int seasonIndex) { this.seasonIndex = seasonIndex; }
+}
@@ -0,0 +1,67 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "episode_servers",
+        foreignKeys = @ForeignKey(entity = EpisodeEntity.class, parentColumns = "id", childColumns = "episode_id",
+                onDelete = ForeignKey.CASCADE),
+        indices = @Index("episode_id"))
+public class EpisodeServerEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    @ColumnInfo(name = "episode_id")
+    private long episodeId;
+    
+    @ColumnInfo(name = "position")
+    private int position;
+    
+    @ColumnInfo(name = "name")
+    private String name;
+    
+    @ColumnInfo(name = "url")
+    private String url;
+    
+    @ColumnInfo(name = "license")
+    private String license;
+    
+    @ColumnInfo(name = "drm")
+    private Boolean drm;
+    
+    @Ignore
+    private int episodeIndex; // Index into EntryRows.episodes until the episode row has an id
+    
+    // Constructor
+    public EpisodeServerEntity() {}
+    
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public long getEpisodeId() { return episodeId; }
+    public void setEpisodeId(long episodeId) { this.episodeId = episodeId; }
+    
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    
+    public String getLicense() { return license; }
+    public void setLicense(String license) { this.license = license; }
+    
+    public Boolean getDrm() { return drm; }
+    public void setDrm(Boolean drm) { this.drm = drm; }
+    
+    public int getEpisodeIndex() { return episodeIndex; }
+    public void setEpisodeIndex(int episodeIndex) { this.episodeIndex = episodeIndex; }
+}
@@ -0,0 +1,24 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Number of entries sharing one combination of category, genre, country and year
+ */
+public class FacetCell {
+
+    @ColumnInfo(name = "main_category")
+    public String mainCategory;
+
+    @ColumnInfo(name = "sub_category")
+    public String subCategory;
+
+    @ColumnInfo(name = "country")
+    public String country;
+
+    @ColumnInfo(name = "year")
+    public String year;
+
+    @ColumnInfo(name = "hits")
+    public int hits;
+}
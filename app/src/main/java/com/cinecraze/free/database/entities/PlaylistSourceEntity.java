@@ -0,0 +1,59 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+import androidx.annotation.NonNull;
+
+/**
+ * HTTP validators of a playlist file, used to send conditional requests so an
+ * unchanged file costs a 304 instead of a full download and re-ingest.
+ */
+@Entity(tableName = "playlist_sources")
+public class PlaylistSourceEntity {
+    
+    @PrimaryKey
+    @NonNull
+    private String url;
+    
+    @ColumnInfo(name = "etag")
+    private String etag;
+    
+    @ColumnInfo(name = "last_modified")
+    private String lastModified;
+    
+    @ColumnInfo(name = "entry_count")
+    private int entryCount;
+    
+    @ColumnInfo(name = "last_fetched")
+    private long lastFetched;
+    
+    // Constructor
+    public PlaylistSourceEntity() {}
+    
+    @Ignore
+    public PlaylistSourceEntity(@NonNull String url, String etag, String lastModified, int entryCount, long lastFetched) {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.entryCount = entryCount;
+        this.lastFetched = lastFetched;
+    }
+    
+    // Getters and setters
+    public String getUrl() { return url; }
+    public void setUrl(@NonNull String url) { this.url = url; }
+    
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+    
+    public String getLastModified() { return lastModified; }
+    public void setLastModified(String lastModified) { this.lastModified = lastModified; }
+    
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+    
+    public long getLastFetched() { return lastFetched; }
+    public void setLastFetched(long lastFetched) { this.lastFetched = lastFetched; }
+}
@@ -0,0 +1,55 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * One row of a materialized ranking: the entry at a position of a ranked
+ * list such as the top rated titles. Rankings are rebuilt once per sync, so
+ * a home row reads its few rows by primary key instead of sorting entries.
+ */
+@Entity(tableName = "rankings", primaryKeys = {"ranking", "position"})
+public class RankingEntity {
+    
+    public static final String TOP_RATED = "top_rated";
+    public static final String NEWEST = "newest";
+    
+    @ColumnInfo(name = "ranking")
+    @NonNull
+    private String ranking = "";
+    
+    @ColumnInfo(name = "position")
+    private int position;
+    
+    @ColumnInfo(name = "entry_id")
+    private int entryId;
+    
+    // Constructor
+    public RankingEntity() {}
+    
+    @Ignore
+    public RankingEntity(@NonNull String ranking, int position, int entryId) {
+        this.ranking = ranking;
+        this.position = position;
+        this.entryId = entryId;
+    }
+    
+    /**
+     * Name of the top rated ranking within one main category
+     */
+    public static String topRatedIn(String category) {
+        return TOP_RATED + ":" + category;
+    }
+    
+    // Getters and setters
+    public String getRanking() { return ranking; }
+    public void setRanking(@NonNull String ranking) { this.ranking = ranking; }
+    
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    
+    public int getEntryId() { return entryId; }
+    public void setEntryId(int entryId) { this.entryId = entryId; }
+}
@@ -0,0 +1,57 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Season of a series. Episodes live in their own table and are loaded per season.
+ */
+@Entity(tableName = "seasons",
+        foreignKeys = @ForeignKey(entity = EntryEntity.class, parentColumns = "id", childColumns = "entry_id",
+                onDelete = ForeignKey.CASCADE),
+        indices = @Index("entry_id"))
+public class SeasonEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    @ColumnInfo(name = "entry_id")
+    private int entryId;
+    
+    @ColumnInfo(name = "position")
+    private int position;
+    
+    @ColumnInfo(name = "season_number")
+    private int seasonNumber;
+    
+    @ColumnInfo(name = "poster")
+    private String poster;
+    
+    @ColumnInfo(name = "episode_count")
+    private int episodeCount; // Lets the season list render without reading episodes
+    
+    // Constructor
+    public SeasonEntity() {}
+    
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public int getEntryId() { return entryId; }
+    public void setEntryId(int entryId) { this.entryId = entryId; }
+    
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    
+    public int getSeasonNumber() { return seasonNumber; }
+    public void setSeasonNumber(int seasonNumber) { this.seasonNumber = seasonNumber; }
+    
+    public String getPoster() { return poster; }
+    public void setPoster(String poster) { this.poster = poster; }
+    
+    public int getEpisodeCount() { return episodeCount; }
+    public void setEpisodeCount(int episodeCount) { this.episodeCount = episodeCount; }
+}
@@ -0,0 +1,63 @@
+package com.cinecraze.free.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Playback server of a movie or live channel, in playlist order
+ */
+@Entity(tableName = "servers",
+        foreignKeys = @ForeignKey(entity = EntryEntity.class, parentColumns = "id", childColumns = "entry_id",
+                onDelete = ForeignKey.CASCADE),
+        indices = @Index("entry_id"))
+public class ServerEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    @ColumnInfo(name = "entry_id")
+    private int entryId;
+    
+    @ColumnInfo(name = "position")
+    private int position;
+    
+    @ColumnInfo(name = "name")
+    private String name;
+    
+    @ColumnInfo(name = "url")
+    private String url;
+    
+    @ColumnInfo(name = "license")
+    private String license;
+    
+    @ColumnInfo(name = "drm")
+    private Boolean drm;
+    
+    // Constructor
+    public ServerEntity() {}
+    
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public int getEntryId() { return entryId; }
+    public void setEntryId(int entryId) { this.entryId = entryId; }
+    
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    
+    public String getLicense() { return license; }
+    public void setLicense(String license) { this.license = license; }
+    
+    public Boolean getDrm() { return drm; }
+    public void setDrm(Boolean drm) { this.drm = drm; }
+}
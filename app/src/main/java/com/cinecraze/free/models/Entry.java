@@ -53,12 +53,17 @@ public class Entry {
     @SerializedName("Related")
     private List<Entry> related;
 
+    // Local cache state, never read from or written to JSON
+    private transient int databaseId; // Row id in the cache; 0 when the entry did not come from the database
+    private transient long key; // See getKey(); 0 until computed or read from the cache
+
     public String getTitle() {
         return title;
     }
 
     public void setTitle(String title) {
         this.title = title;
+        this.key = 0;
     }
 
     public String getSubCategory() {
@@ -167,6 +172,7 @@ public class Entry {
 
     public void setYear(Object year) {
         this.year = year;
+        this.key = 0;
     }
 
     public List<Server> getServers() {
@@ -193,12 +199,87 @@ public class Entry {
         this.related = related;
     }
 
+    public int getDatabaseId() {
+        return databaseId;
+    }
+
+    public void setDatabaseId(int databaseId) {
+        this.databaseId = databaseId;
+    }
+
+    /**
+     * Copy of this entry. The server, season and related lists are shared,
+     * so replace them on the copy instead of modifying them.
+     */
+    public Entry copy() {
+        Entry copy = new Entry();
+        copy.title = title;
+        copy.subCategory = subCategory;
+        copy.mainCategory = mainCategory;
+        copy.country = country;
+        copy.description = description;
+        copy.poster = poster;
+        copy.thumbnail = thumbnail;
+        copy.rating = rating;
+        copy.duration = duration;
+        copy.year = year;
+        copy.servers = servers;
+        copy.seasons = seasons;
+        copy.related = related;
+        copy.databaseId = databaseId;
+        copy.key = key;
+        return copy;
+    }
+
+    /**
+     * True for an entry read from a listing page, whose servers and seasons
+     * have not been loaded yet
+     */
+    public boolean needsDetails() {
+        return databaseId != 0 && servers == null && seasons == null;
+    }
+
     public String getImageUrl() {
         return poster != null ? poster : thumbnail;
     }
 
+    /**
+     * 32-bit hash of title and year. Different entries can share it; identify
+     * entries by {@link #getKey()}.
+     */
     public int getId() {
         // Generate a simple hash-based ID from title and year
         return (title + getYearString()).hashCode();
     }
+
+    /**
+     * Stable identity of this entry, the same across syncs and restarts.
+     * Computed once from title and year and stored as the cache's entry_key.
+     */
+    public long getKey() {
+        if (key == 0) {
+            key = stableKey(title, getYearString());
+        }
+        return key;
+    }
+
+    public void setKey(long key) {
+        this.key = key;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a title and year; a null title hashes like an empty one
+     */
+    public static long stableKey(String title, String year) {
+        long hash = 0xcbf29ce484222325L;
+        String natural = (title != null ? title : "") + '\u0000' + year;
+        for (int i = 0; i < natural.length(); i++) {
+            char c = natural.charAt(i);
+            hash ^= (c & 0xff);
+            hash *= 0x100000001b3L;
+            hash ^= (c >>> 8);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 }
@@ -15,6 +15,10 @@ public class Season {
     @SerializedName("Episodes")
     private List<Episode> episodes;
 
+    // Set when read from the cache, where episodes are loaded per season on demand
+    private transient long databaseId;
+    private transient int episodeCount;
+
     public int getSeason() {
         return season;
     }
@@ -38,4 +42,23 @@ public class Season {
     public void setEpisodes(List<Episode> episodes) {
         this.episodes = episodes;
     }
+
+    public long getDatabaseId() {
+        return databaseId;
+    }
+
+    public void setDatabaseId(long databaseId) {
+        this.databaseId = databaseId;
+    }
+
+    /**
+     * Number of episodes, also known before the episodes themselves are loaded
+     */
+    public int getEpisodeCount() {
+        return episodes != null ? episodes.size() : episodeCount;
+    }
+
+    public void setEpisodeCount(int episodeCount) {
+        this.episodeCount = episodeCount;
+    }
 }
@@ -3,9 +3,12 @@ package com.cinecraze.free.net;
 import com.cinecraze.free.models.Playlist;
 import com.cinecraze.free.models.PlaylistsVersion;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Headers;
+import retrofit2.http.Streaming;
 import retrofit2.http.Url;
 
 public interface ApiService {
@@ -22,4 +25,18 @@ public interface ApiService {
     })
     @GET
     Call<Playlist> getPlaylist(@Url String url);
-}
\ No newline at end of file
+
+    /**
+     * Raw playlist body, left unbuffered so it can be parsed with PlaylistStreamParser.
+     * Pass the stored validators (or null) to get a 304 for an unchanged file.
+     */
+    @Headers({
+        "User-Agent: Mozilla/5.0 (Android) CineCraze/1.0",
+        "Accept: application/json"
+    })
+    @Streaming
+    @GET
+    Call<ResponseBody> getPlaylistStream(@Url String url,
+                                         @Header("If-None-Match") String etag,
+                                         @Header("If-Modified-Since") String lastModified);
+}
@@ -0,0 +1,52 @@
+package com.cinecraze.free.net;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Logs request/response lines and at most maxBodyBytes of each response body.
+ *
+ * Unlike HttpLoggingInterceptor at Level.BODY it only peeks the first bytes, so
+ * streaming playlist bodies are never read into memory just to be logged.
+ */
+public class CappedLoggingInterceptor implements Interceptor {
+
+    private static final String TAG = "OkHttp";
+
+    private final long maxBodyBytes;
+
+    public CappedLoggingInterceptor(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Log.d(TAG, "--> " + request.method() + " " + request.url());
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            Log.d(TAG, "<-- HTTP FAILED: " + e);
+            throw e;
+        }
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Log.d(TAG, "<-- " + response.code() + " " + request.url() + " (" + tookMs + "ms)");
+
+        if (maxBodyBytes > 0 && response.body() != null) {
+            ResponseBody preview = response.peekBody(maxBodyBytes);
+            Log.d(TAG, preview.string());
+        }
+        return response;
+    }
+}
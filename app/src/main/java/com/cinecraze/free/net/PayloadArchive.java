@@ -0,0 +1,200 @@
+package com.cinecraze.free.net;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed on-disk copy of raw playlist payloads.
+ *
+ * A body is copied to disk while the parser reads it. Only a file that was
+ * ingested to the end is kept, named by playlist version and URL. If the app
+ * dies before the sync commits, the next sync of the same version re-parses the
+ * archived copy instead of fetching the file again. Once a sync commits the
+ * archive has served its purpose and is deleted, so it takes disk space only
+ * while a sync is running or was interrupted.
+ */
+public class PayloadArchive {
+
+    private static final String TAG = "PayloadArchive";
+    private static final String ARCHIVE_DIR = "playlist_archive";
+    private static final String PAYLOAD_SUFFIX = ".json.gz";
+    private static final String META_SUFFIX = ".meta";
+    private static final String PART_SUFFIX = ".part";
+
+    private final File directory;
+
+    public PayloadArchive(File cacheDir) {
+        this.directory = new File(cacheDir, ARCHIVE_DIR);
+    }
+
+    /**
+     * Archived payload of a playlist file for one version
+     */
+    public static class Archived {
+        private final File payload;
+        public final String etag;
+        public final String lastModified;
+
+        Archived(File payload, String etag, String lastModified) {
+            this.payload = payload;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public InputStream open() throws IOException {
+            return new GZIPInputStream(new BufferedInputStream(new FileInputStream(payload)));
+        }
+    }
+
+    /**
+     * Copies a body to a temporary archive file while it is read. Closing the
+     * stream only closes the body; call {@link #commit(String, String)} once the
+     * body was ingested completely, or {@link #abort()} when ingest failed.
+     */
+    public class Recording extends FilterInputStream {
+        private final File part;
+        private final File payload;
+        private final File meta;
+        private final OutputStream out;
+        private boolean finished = false;
+
+        Recording(InputStream in, File part, File payload, File meta) throws IOException {
+            super(in);
+            this.part = part;
+            this.payload = payload;
+            this.meta = meta;
+            this.out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(part)));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                out.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                out.write(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Route skipped bytes through read() so the archive stays complete
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        public synchronized void commit(String etag, String lastModified) throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            // The parser stops at the document's closing brace, so what was read is a complete payload
+            out.close();
+
+            Properties properties = new Properties();
+            if (etag != null) properties.setProperty("etag", etag);
+            if (lastModified != null) properties.setProperty("lastModified", lastModified);
+            try (OutputStream metaOut = new FileOutputStream(meta)) {
+                properties.store(metaOut, null);
+            }
+            if (!part.renameTo(payload)) {
+                throw new IOException("Could not finish archive " + payload);
+            }
+        }
+
+        public synchronized void abort() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            part.delete();
+        }
+    }
+
+    /**
+     * Start archiving a playlist body as it is read
+     */
+    public Recording record(String url, int version, InputStream body) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        String name = fileName(url, version);
+        return new Recording(body,
+                new File(directory, name + PART_SUFFIX),
+                new File(directory, name + PAYLOAD_SUFFIX),
+                new File(directory, name + META_SUFFIX));
+    }
+
+    /**
+     * Complete archive of a playlist file for this version, or null
+     */
+    public Archived find(String url, int version) {
+        String name = fileName(url, version);
+        File payload = new File(directory, name + PAYLOAD_SUFFIX);
+        File meta = new File(directory, name + META_SUFFIX);
+        if (!payload.isFile() || !meta.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream metaIn = new FileInputStream(meta)) {
+            properties.load(metaIn);
+        } catch (IOException e) {
+            Log.w(TAG, "Unreadable archive metadata: " + meta, e);
+            return null;
+        }
+        return new Archived(payload, properties.getProperty("etag"), properties.getProperty("lastModified"));
+    }
+
+    /**
+     * Delete every archive. Call once a sync committed the entries archived for it.
+     */
+    public void clear() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.delete()) {
+                Log.w(TAG, "Could not delete archive " + file);
+            }
+        }
+    }
+
+    private static String fileName(String url, int version) {
+        return version + "_" + UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8));
+    }
+}
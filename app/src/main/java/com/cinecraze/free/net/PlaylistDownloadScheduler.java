@@ -0,0 +1,230 @@
+package com.cinecraze.free.net;
+
+import android.util.Log;
+
+import com.cinecraze.free.concurrent.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import retrofit2.Call;
+
+/**
+ * Runs the per-file work of a playlist refresh with a cap on parallel fetches.
+ *
+ * - Files start in priority order, so small Home/Movies playlists are ingested
+ *   before large series files
+ * - Each file reports completion as soon as it is done, so it can become
+ *   visible before the rest of the refresh finishes
+ * - {@link #cancel()} drops queued files and cancels in-flight calls that were
+ *   registered with {@link #track(Call)} and not yet released with
+ *   {@link #untrack(Call)}
+ * - A file the network pool rejects is reported as failed, like a file whose
+ *   download failed
+ */
+public class PlaylistDownloadScheduler {
+
+    private static final String TAG = "PlaylistDownloadScheduler";
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 3;
+
+    /**
+     * Lower values start first
+     */
+    public interface Prioritizer {
+        int priorityOf(String url);
+    }
+
+    /**
+     * Orders playlist files by what the first screens show: home and movies,
+     * then live TV, then everything else, with series last.
+     */
+    public static final Prioritizer DEFAULT_PRIORITIZER = url -> {
+        String name = url.toLowerCase(Locale.US);
+        if (name.contains("home") || name.contains("movie")) return 0;
+        if (name.contains("live")) return 1;
+        if (name.contains("series") || name.contains("tv") || name.contains("show")) return 3;
+        return 2;
+    };
+
+    public interface FileTask {
+        /**
+         * Fetch and ingest one file. Runs on a worker thread.
+         *
+         * @return true when the file was ingested or was unchanged
+         */
+        boolean run(String url) throws Exception;
+    }
+
+    public interface Listener {
+        /** Called on the worker thread as soon as one file finished */
+        void onFileFinished(String url, boolean success);
+
+        /** Called on the worker thread once every file finished; not called after cancel() */
+        void onAllFinished();
+    }
+
+    private static class PendingFile implements Comparable<PendingFile> {
+        final String url;
+        final int priority;
+        final int order;
+
+        PendingFile(String url, int priority, int order) {
+            this.url = url;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(PendingFile other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Integer.compare(order, other.order);
+        }
+    }
+
+    private final int maxInFlight;
+    private final Prioritizer prioritizer;
+    private final PriorityQueue<PendingFile> queue = new PriorityQueue<>();
+    private final List<Call<?>> activeCalls = new ArrayList<>();
+    private FileTask task;
+    private Listener listener;
+    private int inFlight = 0;
+    private int remaining = 0;
+    private volatile boolean cancelled = false;
+
+    public PlaylistDownloadScheduler() {
+        this(DEFAULT_MAX_IN_FLIGHT, DEFAULT_PRIORITIZER);
+    }
+
+    public PlaylistDownloadScheduler(int maxInFlight, Prioritizer prioritizer) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.prioritizer = prioritizer;
+    }
+
+    public void start(List<String> urls, FileTask task, Listener listener) {
+        boolean empty;
+        synchronized (this) {
+            this.task = task;
+            this.listener = listener;
+            int order = 0;
+            for (String url : urls) {
+                queue.add(new PendingFile(url, prioritizer.priorityOf(url), order++));
+            }
+            remaining = queue.size();
+            empty = remaining == 0;
+        }
+        if (empty) {
+            if (!cancelled) {
+                listener.onAllFinished();
+            }
+            return;
+        }
+        dispatch();
+    }
+
+    /**
+     * Register a call so cancel() can abort it; cancels it immediately when
+     * the scheduler was already cancelled
+     */
+    public <T> Call<T> track(Call<T> call) {
+        synchronized (this) {
+            if (!cancelled) {
+                activeCalls.add(call);
+                return call;
+            }
+        }
+        call.cancel();
+        return call;
+    }
+
+    /**
+     * Release a call registered with track() once its response was consumed or failed
+     */
+    public void untrack(Call<?> call) {
+        synchronized (this) {
+            activeCalls.remove(call);
+        }
+    }
+
+    public void cancel() {
+        List<Call<?>> calls;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            queue.clear();
+            calls = new ArrayList<>(activeCalls);
+            activeCalls.clear();
+        }
+        for (Call<?> call : calls) {
+            call.cancel();
+        }
+        Log.d(TAG, "Playlist download cancelled");
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Start queued files up to the in-flight cap; files the network pool
+     * rejects, e.g. while other refreshes fill its queue, finish as failed
+     */
+    private void dispatch() {
+        List<String> rejected = new ArrayList<>();
+        synchronized (this) {
+            while (!cancelled && inFlight < maxInFlight && !queue.isEmpty()) {
+                PendingFile file = queue.poll();
+                inFlight++;
+                try {
+                    AppExecutors.network().execute(() -> runFile(file.url));
+                } catch (RejectedExecutionException e) {
+                    Log.e(TAG, "Network pool rejected playlist: " + file.url, e);
+                    rejected.add(file.url);
+                }
+            }
+        }
+        // Reported outside the lock, as the listener may take its own
+        for (String url : rejected) {
+            finishFile(url, false);
+        }
+    }
+
+    private void runFile(String url) {
+        boolean success = false;
+        if (!cancelled) {
+            try {
+                success = task.run(url);
+            } catch (Exception e) {
+                if (!cancelled) {
+                    Log.e(TAG, "Failed to process playlist: " + url, e);
+                }
+            }
+        }
+        finishFile(url, success);
+    }
+
+    private void finishFile(String url, boolean success) {
+        if (!cancelled) {
+            listener.onFileFinished(url, success);
+        }
+
+        boolean allFinished;
+        synchronized (this) {
+            inFlight--;
+            remaining--;
+            allFinished = remaining == 0 && !cancelled;
+        }
+        if (allFinished) {
+            listener.onAllFinished();
+        } else {
+            dispatch();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.cinecraze.free.net;
+
+import com.cinecraze.free.models.Entry;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the Playlist -> Category -> Entry schema.
+ *
+ * Only one Entry is materialized at a time, so memory use depends on the largest
+ * single entry rather than on the size of the whole playlist file.
+ */
+public class PlaylistStreamParser {
+
+    public interface EntryHandler {
+        void onEntry(Entry entry, String mainCategory) throws IOException;
+    }
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * Parse a playlist document and hand every entry to the handler.
+     * The reader is closed when parsing finishes.
+     *
+     * @return number of entries handed to the handler
+     */
+    public static int parse(Reader in, EntryHandler handler) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        int count = 0;
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("Categories".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        count += parseCategory(reader, handler);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    private static int parseCategory(JsonReader reader, EntryHandler handler) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return 0;
+        }
+
+        String mainCategory = null;
+        List<Entry> pending = null; // Entries seen before MainCategory (unusual key order)
+        int count = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("MainCategory".equals(name) && reader.peek() == JsonToken.STRING) {
+                mainCategory = reader.nextString();
+            } else if ("Entries".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Entry entry = gson.fromJson(reader, Entry.class);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (mainCategory != null) {
+                        handler.onEntry(entry, mainCategory);
+                        count++;
+                    } else {
+                        if (pending == null) {
+                            pending = new ArrayList<>();
+                        }
+                        pending.add(entry);
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (pending != null) {
+            for (Entry entry : pending) {
+                handler.onEntry(entry, mainCategory);
+                count++;
+            }
+        }
+        return count;
+    }
+}
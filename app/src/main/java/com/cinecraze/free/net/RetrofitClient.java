@@ -1,13 +1,17 @@
 package com.cinecraze.free.net;
 
+import android.content.Context;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.brotli.BrotliInterceptor;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
@@ -15,13 +19,34 @@ public class RetrofitClient {
 
     private static Retrofit retrofit = null;
     private static final String BASE_URL = "https://raw.githubusercontent.com/MovieAddict88/Movie-Source/main/";
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 50L * 1024 * 1024; // 50 MB
+    private static Cache cache = null;
+    private static TransportProfile transportProfile = TransportProfile.DEFAULT;
 
-    public static Retrofit getClient() {
-        if (retrofit == null) {
-            // Create logging interceptor
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    /**
+     * Replace the transport profile; only takes effect before the client is first built
+     */
+    public static synchronized void setTransportProfile(TransportProfile profile) {
+        transportProfile = profile;
+    }
+
+    public static synchronized TransportProfile getTransportProfile() {
+        return transportProfile;
+    }
 
+    /**
+     * Get the client with an on-disk HTTP cache in the app cache directory
+     */
+    public static synchronized Retrofit getClient(Context context) {
+        if (cache == null && retrofit == null) {
+            cache = new Cache(new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE);
+        }
+        return getClient();
+    }
+
+    public static synchronized Retrofit getClient() {
+        if (retrofit == null) {
             // Create custom interceptor to handle redirects and add headers
             Interceptor customInterceptor = new Interceptor() {
                 @Override
@@ -39,10 +64,22 @@ public class RetrofitClient {
                 }
             };
 
-            // Create OkHttpClient with timeouts, logging, and custom interceptor
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(customInterceptor)
-                    .addInterceptor(loggingInterceptor)
+            // Create OkHttpClient with timeouts, compression, logging, and custom interceptor
+            OkHttpClient.Builder builder = new OkHttpClient.Builder();
+            if (cache != null) {
+                builder.cache(cache);
+            }
+            builder.addInterceptor(customInterceptor);
+            if (transportProfile.isBodyLogging()) {
+                // Outside the brotli interceptor so it previews decoded text
+                builder.addInterceptor(new CappedLoggingInterceptor(transportProfile.getMaxLoggedBodyBytes()));
+            }
+            if (transportProfile.isBrotli()) {
+                // Sends "Accept-Encoding: br,gzip" and decodes either; without it OkHttp negotiates gzip only
+                builder.addInterceptor(BrotliInterceptor.INSTANCE);
+            }
+            OkHttpClient client = builder
+                    .eventListener(TransferStats.INSTANCE)
                     .connectTimeout(60, TimeUnit.SECONDS)
                     .readTimeout(60, TimeUnit.SECONDS)
                     .writeTimeout(60, TimeUnit.SECONDS)
@@ -0,0 +1,119 @@
+package com.cinecraze.free.net;
+
+import android.os.Build;
+import android.os.Debug;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Measurement harness for playlist refreshes.
+ *
+ * The EventListener counts bytes as they come off the socket (before gzip or
+ * brotli decoding), and CountingInputStream counts the decoded bytes handed to
+ * the parser. Take a {@link #snapshot()} before and after a refresh and diff
+ * them with {@link Snapshot#since(Snapshot)}.
+ *
+ * The counters are process-wide, so other requests running at the same time
+ * are included in a refresh's numbers.
+ */
+public class TransferStats extends EventListener {
+
+    private static final AtomicLong wireBytes = new AtomicLong();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    public static final TransferStats INSTANCE = new TransferStats();
+
+    private TransferStats() {}
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        wireBytes.addAndGet(request.headers().byteCount());
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        wireBytes.addAndGet(response.headers().byteCount());
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        wireBytes.addAndGet(byteCount);
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(wireBytes.get(), decodedBytes.get(), allocatedBytes());
+    }
+
+    /**
+     * Bytes allocated by the runtime so far, or -1 where ART does not expose it
+     */
+    private static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    public static class Snapshot {
+        public final long wireBytes;
+        public final long decodedBytes;
+        public final long allocatedBytes;
+
+        Snapshot(long wireBytes, long decodedBytes, long allocatedBytes) {
+            this.wireBytes = wireBytes;
+            this.decodedBytes = decodedBytes;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public Snapshot since(Snapshot start) {
+            long allocated = allocatedBytes >= 0 && start.allocatedBytes >= 0 ? allocatedBytes - start.allocatedBytes : -1;
+            return new Snapshot(wireBytes - start.wireBytes, decodedBytes - start.decodedBytes, allocated);
+        }
+
+        @Override
+        public String toString() {
+            return wireBytes + " bytes on the wire, " + decodedBytes + " bytes decoded, "
+                    + (allocatedBytes >= 0 ? allocatedBytes + " bytes allocated" : "allocation unavailable");
+        }
+    }
+
+    /**
+     * Counts the decoded bytes read by the playlist parser
+     */
+    public static class CountingInputStream extends FilterInputStream {
+
+        public CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                decodedBytes.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                decodedBytes.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
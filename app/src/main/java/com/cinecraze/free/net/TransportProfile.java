@@ -0,0 +1,42 @@
+package com.cinecraze.free.net;
+
+import com.cinecraze.free.BuildConfig;
+
+/**
+ * Transport settings for playlist traffic.
+ *
+ * - Brotli is negotiated in addition to OkHttp's transparent gzip
+ * - Body logging only happens in debug builds and never logs more than
+ *   maxLoggedBodyBytes of a body, so multi-megabyte playlists are not buffered
+ * - When archivePayloads is set, raw playlist bodies are kept gzip-compressed on
+ *   disk while they are ingested, so an interrupted sync can be re-parsed
+ *   without downloading the files again. Off by default; the archive costs
+ *   disk space on every sync for a benefit only after a crash mid-sync
+ */
+public class TransportProfile {
+
+    public static final long DEFAULT_MAX_LOGGED_BODY_BYTES = 4 * 1024;
+
+    public static final TransportProfile DEFAULT =
+            new TransportProfile(true, BuildConfig.DEBUG, DEFAULT_MAX_LOGGED_BODY_BYTES, false);
+
+    private final boolean brotli;
+    private final boolean bodyLogging;
+    private final long maxLoggedBodyBytes;
+    private final boolean archivePayloads;
+
+    public TransportProfile(boolean brotli, boolean bodyLogging, long maxLoggedBodyBytes, boolean archivePayloads) {
+        this.brotli = brotli;
+        this.bodyLogging = bodyLogging;
+        this.maxLoggedBodyBytes = maxLoggedBodyBytes;
+        this.archivePayloads = archivePayloads;
+    }
+
+    public boolean isBrotli() { return brotli; }
+
+    public boolean isBodyLogging() { return bodyLogging; }
+
+    public long getMaxLoggedBodyBytes() { return maxLoggedBodyBytes; }
+
+    public boolean isArchivePayloads() { return archivePayloads; }
+}
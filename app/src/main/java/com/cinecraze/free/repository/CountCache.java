@@ -0,0 +1,67 @@
+package com.cinecraze.free.repository;
+
+import androidx.room.InvalidationTracker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Row counts of listings (a query shape plus its arguments, as used by
+ * {@link KeysetPager}), so a listing is counted at most once between writes.
+ *
+ * Any write to the entries table invalidates every count: the cache observes
+ * the table through Room's invalidation tracker, which covers the ingest
+ * writer and anything else that changes entries. A count started before an
+ * invalidation is not stored when it completes, so it cannot outlive the
+ * data it was computed from.
+ */
+class CountCache {
+
+    interface Counter {
+        int count();
+    }
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private int generation;
+
+    /**
+     * Invalidation tracker observer that clears this cache whenever entries change
+     */
+    InvalidationTracker.Observer observer() {
+        return new InvalidationTracker.Observer("entries") {
+            @Override
+            public void onInvalidated(Set<String> tables) {
+                invalidate();
+            }
+        };
+    }
+
+    /**
+     * Stamp to pass to {@link #put}; take it before reading what the count is derived from
+     */
+    synchronized int generation() {
+        return generation;
+    }
+
+    /**
+     * The cached count, or null
+     */
+    synchronized Integer get(String listing) {
+        return counts.get(listing);
+    }
+
+    /**
+     * Store a count, unless the table changed since generation was taken
+     */
+    synchronized void put(String listing, int count, int generation) {
+        if (generation == this.generation) {
+            counts.put(listing, count);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        counts.clear();
+    }
+}
@@ -3,28 +3,60 @@ package com.cinecraze.free.repository;
 import android.content.Context;
 import android.util.Log;
 
+import com.cinecraze.free.concurrent.AppExecutors;
+import com.cinecraze.free.concurrent.ResultCallback;
+import com.cinecraze.free.concurrent.TaskScope;
 import com.cinecraze.free.database.CineCrazeDatabase;
 import com.cinecraze.free.database.DatabaseUtils;
+import com.cinecraze.free.database.EntryBatchWriter;
 import com.cinecraze.free.database.entities.CacheMetadataEntity;
 import com.cinecraze.free.database.entities.EntryEntity;
-import com.cinecraze.free.models.Category;
+import com.cinecraze.free.database.entities.EntryKey;
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.database.entities.PlaylistSourceEntity;
+import com.cinecraze.free.database.entities.RankingEntity;
 import com.cinecraze.free.models.Entry;
-import com.cinecraze.free.models.Playlist;
+import com.cinecraze.free.models.Episode;
 import com.cinecraze.free.models.PlaylistsVersion;
 import com.cinecraze.free.net.ApiService;
+import com.cinecraze.free.net.PayloadArchive;
+import com.cinecraze.free.net.PlaylistDownloadScheduler;
+import com.cinecraze.free.net.PlaylistStreamParser;
 import com.cinecraze.free.net.RetrofitClient;
+import com.cinecraze.free.net.TransferStats;
+import com.cinecraze.free.search.FacetCube;
+import com.cinecraze.free.search.FilterIndex;
+import com.cinecraze.free.search.FullTextSearch;
+import com.cinecraze.free.search.SuggestionIndex;
+import com.cinecraze.free.search.TrigramIndex;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.ResponseBody;
+
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -36,10 +68,41 @@ public class DataRepository {
     private static final String CACHE_KEY_PLAYLIST_VERSION = "playlist_version";
     private static final long CACHE_EXPIRY_HOURS = 24; // Cache expires after 24 hours
     public static final int DEFAULT_PAGE_SIZE = 20; // Default items per page
+    public static final int TOTAL_UNKNOWN = -1; // totalCount of a page when totals are not counted
+    private static final int MAX_CONCURRENT_PLAYLIST_DOWNLOADS = 3;
+
+    // SQLite's default limit on bound variables is 999
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    // The refresh currently running, shared by every repository instance so screens never run two at once
+    private static final Object syncLock = new Object();
+    private static PlaylistSync activeSync;
+
+    // Page start keys of listing queries, shared so a screen recreated mid-scroll keeps seeking
+    private static final KeysetPager pager = new KeysetPager();
+
+    // Listing totals and converted pages, cleared by any write to entries
+    private static final CountCache counts = new CountCache();
+    private static final ResultCache resultCache = new ResultCache(4 * 1024 * 1024);
+    private static boolean entriesObserved;
+
+    // Materialized home rows, shared so every screen reuses the loaded tiles
+    private static final Rankings rankings = new Rankings();
 
     private CineCrazeDatabase database;
     private ApiService apiService;
     private Handler mainHandler;
+    private PayloadArchive payloadArchive;
+    private boolean archivePayloads;
+    private FullTextSearch fullTextSearch;
+    private TrigramIndex titleIndex;
+    private SuggestionIndex suggestions;
+    private FacetCube facetCube;
+    private FilterIndex filterIndex;
+    private boolean countTotals = true;
+
+    // Reads started by this repository; cancelled with the lifecycle it is bound to
+    private final TaskScope scope = new TaskScope();
 
 
     public interface DataCallback {
@@ -53,6 +116,15 @@ public class DataRepository {
         void onError(String error);
     }
 
+    public interface PlaylistProgressListener {
+        /** A playlist file's entries are in the database and can be shown */
+        void onPlaylistReady(String url, int entryCount);
+    }
+
+    /**
+     * hasMorePages is always exact. totalCount is {@link #TOTAL_UNKNOWN} when
+     * totals are not counted (see {@link #setCountTotals}) and not known anyway.
+     */
     public interface PaginatedDataCallback {
         void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount);
         void onError(String error);
@@ -60,31 +132,67 @@ public class DataRepository {
 
     public DataRepository(Context context) {
         database = CineCrazeDatabase.getInstance(context);
-        apiService = RetrofitClient.getClient().create(ApiService.class);
+        observeEntryWrites(database);
+        fullTextSearch = FullTextSearch.getInstance(database);
+        titleIndex = TrigramIndex.getInstance();
+        if (!titleIndex.isBuilt()) {
+            AppExecutors.dbRead().execute(this::buildTitleIndex);
+        }
+        facetCube = FacetCube.getInstance(database);
+        filterIndex = FilterIndex.getInstance();
+        if (!filterIndex.isBuilt()) {
+            AppExecutors.dbRead().execute(this::buildFilterIndex);
+        }
+        if (!rankings.isChecked()) {
+            AppExecutors.dbRead().execute(this::buildRankings);
+        }
+        suggestions = SuggestionIndex.getInstance(context);
+        if (!suggestions.isLoaded()) {
+            AppExecutors.dbRead().execute(this::loadSuggestions);
+        }
+        apiService = RetrofitClient.getClient(context).create(ApiService.class);
         mainHandler = new Handler(Looper.getMainLooper());
+        payloadArchive = new PayloadArchive(context.getCacheDir());
+        archivePayloads = RetrofitClient.getTransportProfile().isArchivePayloads();
+    }
+
+    private static synchronized void observeEntryWrites(CineCrazeDatabase database) {
+        if (!entriesObserved) {
+            database.getInvalidationTracker().addObserver(counts.observer());
+            entriesObserved = true;
+        }
     }
 
     /**
      * Expose cache validity so UI can decide whether to prompt before downloading
      */
-    public boolean hasValidCache() {
-        try {
-            CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST);
-            return metadata != null && isCacheValid(metadata.getLastUpdated());
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking cache validity: " + e.getMessage(), e);
-            return false;
-        }
+    public void hasValidCache(ResultCallback<Boolean> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            try {
+                CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST);
+                return metadata != null && isCacheValid(metadata.getLastUpdated());
+            } catch (Exception e) {
+                Log.e(TAG, "Error checking cache validity: " + e.getMessage(), e);
+                return false;
+            }
+        }, callback);
     }
 
     /**
      * Get playlist data - checks cache first, then fetches from API if needed
      */
     public void getPlaylistData(DataCallback callback) {
+        getPlaylistData(callback, null);
+    }
+
+    /**
+     * Same as {@link #getPlaylistData(DataCallback)}, also reporting each playlist file as it lands
+     */
+    public void getPlaylistData(DataCallback callback, PlaylistProgressListener progressListener) {
         checkForUpdates(new UpdateCheckCallback() {
             @Override
             public void onUpdateAvailable(PlaylistsVersion newVersion) {
-                downloadPlaylists(newVersion, callback);
+                downloadPlaylists(newVersion, callback, progressListener);
             }
 
             @Override
@@ -113,31 +221,72 @@ public class DataRepository {
      * This method only loads data if cache is empty, otherwise just confirms cache exists
      */
     public void ensureDataAvailable(DataCallback callback) {
-        CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST_VERSION);
+        ensureDataAvailable(callback, null);
+    }
 
-        if (metadata != null && isCacheValid(metadata.getLastUpdated())) {
-            // Cache exists and is valid - just return success without loading all data
-            Log.d(TAG, "Cache is available and valid - ready for pagination");
-            callback.onSuccess(new ArrayList<>()); // Empty list, pagination will load actual data
-        } else {
-            // No valid cache - need to fetch all data once to populate cache
-            Log.d(TAG, "No valid cache - fetching data to populate cache");
-            getPlaylistData(callback);
-        }
+    /**
+     * Same as {@link #ensureDataAvailable(DataCallback)}; while the cache is being
+     * populated, progressListener hears about each playlist file as it lands
+     */
+    public void ensureDataAvailable(DataCallback callback, PlaylistProgressListener progressListener) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST_VERSION);
+            return metadata != null && isCacheValid(metadata.getLastUpdated());
+        }, new ResultCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean cacheValid) {
+                if (cacheValid) {
+                    // Cache exists and is valid - just return success without loading all data
+                    Log.d(TAG, "Cache is available and valid - ready for pagination");
+                    callback.onSuccess(new ArrayList<>()); // Empty list, pagination will load actual data
+                } else {
+                    // No valid cache - need to fetch all data once to populate cache
+                    Log.d(TAG, "No valid cache - fetching data to populate cache");
+                    getPlaylistData(callback, progressListener);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
     }
 
     /**
-     * Get paginated data from cache
+     * Get paginated data from cache. Page numbers are served by keyset seeks
+     * (see {@link KeysetPager}), so deep pages cost about as much as the first.
      */
     public void getPaginatedData(int page, int pageSize, PaginatedDataCallback callback) {
+        readPage(callback, onMain -> readGetPaginatedData(page, pageSize, onMain));
+    }
+
+    private void readGetPaginatedData(int page, int pageSize, PaginatedDataCallback callback) {
+        String key = resultKey("all", page, pageSize);
+        if (deliverCached(key, callback)) {
+            return;
+        }
         try {
             int offset = page * pageSize;
-            List<EntryEntity> entities = database.entryDao().getEntriesPaged(pageSize, offset);
-            List<Entry> entries = DatabaseUtils.entitiesToEntries(entities);
-            int totalCount = database.entryDao().getEntriesCount();
-            boolean hasMorePages = (offset + pageSize) < totalCount;
+            int resultGeneration = resultCache.generation();
+            int generation = counts.generation();
+            KeysetPager.Page result = pager.page("all", page, pageSize, new KeysetPager.Query() {
+                @Override
+                public List<EntryTile> after(EntryKey key, int limit) {
+                    return database.entryDao().getTilesAfter(key.title, key.id, limit);
+                }
+
+                @Override
+                public EntryKey keyAt(int keyOffset) {
+                    return database.entryDao().getKeyAt(keyOffset);
+                }
+            });
+            List<Entry> entries = DatabaseUtils.tilesToEntries(result.tiles);
+            int totalCount = totalOf("all", generation, offset, result, () -> database.entryDao().getEntriesCount());
+            boolean hasMorePages = result.hasMore;
 
             Log.d(TAG, "Loaded page " + page + " with " + entries.size() + " items. Total: " + totalCount + ", HasMore: " + hasMorePages);
+            resultCache.put(key, entries, hasMorePages, totalCount, resultGeneration);
             callback.onSuccess(entries, hasMorePages, totalCount);
         } catch (Exception e) {
             Log.e(TAG, "Error loading paginated data: " + e.getMessage(), e);
@@ -149,14 +298,37 @@ public class DataRepository {
      * Get paginated data by category
      */
     public void getPaginatedDataByCategory(String category, int page, int pageSize, PaginatedDataCallback callback) {
+        readPage(callback, onMain -> readGetPaginatedDataByCategory(category, page, pageSize, onMain));
+    }
+
+    private void readGetPaginatedDataByCategory(String category, int page, int pageSize, PaginatedDataCallback callback) {
+        String listing = "category\u0000" + category;
+        String key = resultKey(listing, page, pageSize);
+        if (deliverCached(key, callback)) {
+            return;
+        }
         try {
             int offset = page * pageSize;
-            List<EntryEntity> entities = database.entryDao().getEntriesByCategoryPaged(category, pageSize, offset);
-            List<Entry> entries = DatabaseUtils.entitiesToEntries(entities);
-            int totalCount = database.entryDao().getEntriesCountByCategory(category);
-            boolean hasMorePages = (offset + pageSize) < totalCount;
+            int resultGeneration = resultCache.generation();
+            int generation = counts.generation();
+            KeysetPager.Page result = pager.page(listing, page, pageSize, new KeysetPager.Query() {
+                @Override
+                public List<EntryTile> after(EntryKey key, int limit) {
+                    return database.entryDao().getTilesByCategoryAfter(category, key.title, key.id, limit);
+                }
+
+                @Override
+                public EntryKey keyAt(int keyOffset) {
+                    return database.entryDao().getKeyByCategoryAt(category, keyOffset);
+                }
+            });
+            List<Entry> entries = DatabaseUtils.tilesToEntries(result.tiles);
+            int totalCount = totalOf(listing, generation, offset, result,
+                    () -> database.entryDao().getEntriesCountByCategory(category));
+            boolean hasMorePages = result.hasMore;
 
             Log.d(TAG, "Loaded category '" + category + "' page " + page + " with " + entries.size() + " items. Total: " + totalCount);
+            resultCache.put(key, entries, hasMorePages, totalCount, resultGeneration);
             callback.onSuccess(entries, hasMorePages, totalCount);
         } catch (Exception e) {
             Log.e(TAG, "Error loading paginated category data: " + e.getMessage(), e);
@@ -165,17 +337,29 @@ public class DataRepository {
     }
 
     /**
-     * Search with pagination
+     * Search with pagination. Results are full-text matches on title,
+     * description, country and genre, best match first (see {@link FullTextSearch}).
      */
     public void searchPaginated(String searchQuery, int page, int pageSize, PaginatedDataCallback callback) {
+        readPage(callback, onMain -> readSearchPaginated(searchQuery, page, pageSize, onMain));
+    }
+
+    private void readSearchPaginated(String searchQuery, int page, int pageSize, PaginatedDataCallback callback) {
+        String key = resultKey("search\u0000" + searchQuery, page, pageSize);
+        if (deliverCached(key, callback)) {
+            return;
+        }
         try {
             int offset = page * pageSize;
-            List<EntryEntity> entities = database.entryDao().searchByTitlePaged(searchQuery, pageSize, offset);
-            List<Entry> entries = DatabaseUtils.entitiesToEntries(entities);
-            int totalCount = database.entryDao().getSearchResultsCount(searchQuery);
+            int resultGeneration = resultCache.generation();
+            FullTextSearch.Results results = fullTextSearch.search(searchQuery);
+            List<EntryTile> tiles = loadTiles(results.page(page, pageSize));
+            List<Entry> entries = DatabaseUtils.tilesToEntries(tiles);
+            int totalCount = results.size();
             boolean hasMorePages = (offset + pageSize) < totalCount;
 
             Log.d(TAG, "Search '" + searchQuery + "' page " + page + " with " + entries.size() + " results. Total: " + totalCount);
+            resultCache.put(key, entries, hasMorePages, totalCount, resultGeneration);
             callback.onSuccess(entries, hasMorePages, totalCount);
         } catch (Exception e) {
             Log.e(TAG, "Error searching with pagination: " + e.getMessage(), e);
@@ -194,178 +378,436 @@ public class DataRepository {
     /**
      * Get entries by category from cache
      */
-    public List<Entry> getEntriesByCategory(String category) {
-        List<EntryEntity> entities = database.entryDao().getEntriesByCategory(category);
-        return DatabaseUtils.entitiesToEntries(entities);
+    public void getEntriesByCategory(String category, DataCallback callback) {
+        readEntries(() -> DatabaseUtils.tilesToEntries(database.entryDao().getTilesByCategory(category)), callback);
+    }
+
+    /**
+     * Titles to suggest for what was typed so far, best first. Reads only memory;
+     * empty until the suggestions are loaded.
+     */
+    public List<String> getSearchSuggestions(String prefix) {
+        return suggestions.suggest(prefix);
     }
 
     /**
-     * Search entries by title from cache
+     * Search entries from cache, best match first
      */
-    public List<Entry> searchByTitle(String title) {
-        List<EntryEntity> entities = database.entryDao().searchByTitle(title);
-        return DatabaseUtils.entitiesToEntries(entities);
+    public void searchByTitle(String title, DataCallback callback) {
+        readEntries(() -> DatabaseUtils.tilesToEntries(loadTiles(fullTextSearch.search(title).all())),
+                callback);
     }
 
     /**
      * Get all cached entries
      */
-    public List<Entry> getAllCachedEntries() {
-        List<EntryEntity> entities = database.entryDao().getAllEntries();
-        return DatabaseUtils.entitiesToEntries(entities);
+    public void getAllCachedEntries(DataCallback callback) {
+        readEntries(() -> DatabaseUtils.tilesToEntries(database.entryDao().getAllTiles()), callback);
+    }
+
+    /**
+     * The cached entry with row id entryId, with its full description, servers,
+     * season list and related entries, or null when it is no longer cached.
+     * Seasons come without episodes; load those per season with
+     * {@link #getSeasonEpisodes}. The entry is read into a new object, so the
+     * listing entries of pages and caches are never modified.
+     */
+    public void loadEntryDetails(int entryId, ResultCallback<Entry> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            EntryEntity entity = database.entryDao().getEntryById(entryId);
+            return entity != null ? readDetails(DatabaseUtils.entityToEntry(entity), entity) : null;
+        }, callback);
+    }
+
+    /**
+     * The cached entry whose {@link Entry#getKey()} is key, with its details as
+     * {@link #loadEntryDetails} reads them, or null when it is not cached. The
+     * entry row is found through the entry_key index, not by scanning the catalog.
+     */
+    public void getEntryByKey(long key, ResultCallback<Entry> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            EntryEntity entity = database.entryDao().getEntryByKey(key);
+            return entity != null ? readDetails(DatabaseUtils.entityToEntry(entity), entity) : null;
+        }, callback);
+    }
+
+    private Entry readDetails(Entry entry, EntryEntity entity) {
+        int entryId = entity.getId();
+        entry.setServers(DatabaseUtils.toServers(database.serverDao().getServersForEntry(entryId)));
+        entry.setSeasons(DatabaseUtils.toSeasons(database.seasonDao().getSeasonsForEntry(entryId)));
+        entry.setRelated(DatabaseUtils.parseRelated(entity.getRelatedJson()));
+        return entry;
+    }
+
+    /**
+     * count episodes of a season from position from on, with their servers.
+     * Long seasons are read a window at a time this way instead of whole.
+     */
+    public void getSeasonEpisodes(long seasonId, int from, int count, ResultCallback<List<Episode>> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> DatabaseUtils.toEpisodes(
+                database.seasonDao().getEpisodeWindow(seasonId, from, from + count),
+                database.seasonDao().getEpisodeServerWindow(seasonId, from, from + count)), callback);
+    }
+
+    /**
+     * Position in its season of the episode with the given number, or -1 when the season has none
+     */
+    public void findEpisodePosition(long seasonId, int number, ResultCallback<Integer> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            Integer position = database.seasonDao().getEpisodePosition(seasonId, number);
+            return position != null ? position : -1;
+        }, callback);
     }
 
     /**
      * Get total count of cached entries
      */
-    public int getTotalEntriesCount() {
-        return database.entryDao().getEntriesCount();
+    public void getTotalEntriesCount(ResultCallback<Integer> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> database.entryDao().getEntriesCount(), callback);
+    }
+
+    /**
+     * Hit counts of every genre, country and year for a selection, each
+     * facet counted under the other facets' selections. Null or empty means "any".
+     */
+    public void getFacetCounts(String category, String genre, String country, String year,
+                               ResultCallback<FacetCube.Counts> callback) {
+        scope.submit(AppExecutors.dbRead(), () -> {
+            try {
+                return facetCube.counts(category, genre, country, year);
+            } catch (Exception e) {
+                Log.e(TAG, "Error counting facets: " + e.getMessage(), e);
+                return FacetCube.Counts.EMPTY;
+            }
+        }, callback);
+    }
+
+    /**
+     * Get paginated data filtered by genre, country, and year
+     */
+    public void getPaginatedFilteredData(String genre, String country, String year, int page, int pageSize, PaginatedDataCallback callback) {
+        getPaginatedFilteredData(null, genre, country, year, page, pageSize, callback);
     }
 
     /**
-     * Get unique genres from cached data
+     * Get paginated data filtered by genre, country, and year within a category
      */
-    public List<String> getUniqueGenres() {
+    public void getPaginatedFilteredData(String category, String genre, String country, String year, int page, int pageSize,
+                                         PaginatedDataCallback callback) {
+        readPage(callback, onMain -> readPaginatedFilteredData(category, genre, country, year, page, pageSize, onMain));
+    }
+
+    private void readPaginatedFilteredData(String category, String genre, String country, String year, int page,
+                                           int pageSize, PaginatedDataCallback callback) {
+        String categoryFilter = category == null || category.isEmpty() ? null : category;
+        String genreFilter = genre == null || genre.isEmpty() ? null : genre;
+        String countryFilter = country == null || country.isEmpty() ? null : country;
+        String yearFilter = year == null || year.isEmpty() ? null : year;
+        String listing = "filtered\u0000" + categoryFilter + "\u0000" + genreFilter
+                + "\u0000" + countryFilter + "\u0000" + yearFilter;
+        String key = resultKey(listing, page, pageSize);
+        if (deliverCached(key, callback)) {
+            return;
+        }
         try {
-            List<String> genres = database.entryDao().getUniqueGenres();
-            // Filter out null and empty values
-            List<String> filteredGenres = new ArrayList<>();
-            for (String genre : genres) {
-                if (genre != null && !genre.trim().isEmpty() && !genre.equalsIgnoreCase("null")) {
-                    filteredGenres.add(genre.trim());
-                }
+            int offset = page * pageSize;
+            int resultGeneration = resultCache.generation();
+            List<EntryTile> tiles;
+            int totalCount;
+            boolean hasMorePages;
+            FilterIndex.Match match = filterIndex.match(categoryFilter, genreFilter, countryFilter, yearFilter);
+            if (match != null) {
+                // Page and total straight from the filter bitmaps; only the page's tiles are read
+                tiles = loadTiles(match.ids(offset, pageSize));
+                totalCount = match.count();
+                hasMorePages = (offset + pageSize) < totalCount;
+            } else {
+                int generation = counts.generation();
+                KeysetPager.Page result = loadFilteredPage(listing, categoryFilter, genreFilter, countryFilter,
+                        yearFilter, page, pageSize);
+                tiles = result.tiles;
+                totalCount = totalOf(listing, generation, offset, result, () -> database.entryDao()
+                        .getEntriesFilteredCount(categoryFilter, genreFilter, countryFilter, yearFilter));
+                hasMorePages = result.hasMore;
             }
-            return filteredGenres;
+            List<Entry> entries = DatabaseUtils.tilesToEntries(tiles);
+
+            Log.d(TAG, "Loaded filtered page " + page + " with " + entries.size() + " items. Total: " + totalCount);
+            resultCache.put(key, entries, hasMorePages, totalCount, resultGeneration);
+            callback.onSuccess(entries, hasMorePages, totalCount);
         } catch (Exception e) {
-            Log.e(TAG, "Error getting unique genres: " + e.getMessage(), e);
-            return new ArrayList<>();
+            Log.e(TAG, "Error loading filtered paginated data: " + e.getMessage(), e);
+            callback.onError("Error loading filtered page: " + e.getMessage());
         }
     }
 
     /**
-     * Get unique countries from cached data
+     * Filtered page by keyset seeks, until the filter index is built
      */
-    public List<String> getUniqueCountries() {
-        try {
-            List<String> countries = database.entryDao().getUniqueCountries();
-            // Filter out null and empty values
-            List<String> filteredCountries = new ArrayList<>();
-            for (String country : countries) {
-                if (country != null && !country.trim().isEmpty() && !country.equalsIgnoreCase("null")) {
-                    filteredCountries.add(country.trim());
-                }
+    private KeysetPager.Page loadFilteredPage(String listing, String category, String genre, String country,
+                                              String year, int page, int pageSize) {
+        return pager.page(listing, page, pageSize, new KeysetPager.Query() {
+            @Override
+            public List<EntryTile> after(EntryKey key, int limit) {
+                return database.entryDao().getTilesFilteredAfter(category, genre, country, year,
+                        key.title, key.id, limit);
+            }
+
+            @Override
+            public EntryKey keyAt(int keyOffset) {
+                return database.entryDao().getFilteredKeyAt(category, genre, country, year, keyOffset);
+            }
+        });
+    }
+
+    /**
+     * Tiles of the given ids, in the same order, e.g. a page of ranked search
+     * hits or of filter index matches
+     */
+    private List<EntryTile> loadTiles(List<Integer> ids) {
+        Map<Integer, EntryTile> byId = new HashMap<>(ids.size() * 2);
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY));
+            for (EntryTile tile : database.entryDao().getTilesByIds(chunk)) {
+                byId.put(tile.id, tile);
             }
-            return filteredCountries;
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting unique countries: " + e.getMessage(), e);
-            return new ArrayList<>();
         }
+        List<EntryTile> tiles = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            EntryTile tile = byId.get(id);
+            if (tile != null) {
+                tiles.add(tile);
+            }
+        }
+        return tiles;
     }
 
     /**
-     * Get unique years from cached data
+     * Total of a listing for a page just loaded: cached, known from the last
+     * page, or counted when totals are counted at all
      */
-    public List<String> getUniqueYears() {
-        try {
-            List<String> years = database.entryDao().getUniqueYears();
-            // Filter out null, empty, and zero values
-            List<String> filteredYears = new ArrayList<>();
-            for (String year : years) {
-                if (year != null && !year.trim().isEmpty() && !year.equalsIgnoreCase("null") && !year.equals("0")) {
-                    filteredYears.add(year.trim());
+    private int totalOf(String listing, int generation, int offset, KeysetPager.Page page, CountCache.Counter counter) {
+        Integer cached = counts.get(listing);
+        if (cached != null) {
+            return cached;
+        }
+        if (!page.hasMore && (offset == 0 || !page.tiles.isEmpty())) {
+            int total = offset + page.tiles.size();
+            counts.put(listing, total, generation);
+            return total;
+        }
+        if (!countTotals) {
+            return TOTAL_UNKNOWN;
+        }
+        int total = counter.count();
+        counts.put(listing, total, generation);
+        return total;
+    }
+
+    /**
+     * Whether pages carry an exact total, counting listings the first time
+     * they are paged. Screens that only need hasMorePages can turn this off
+     * and never run a COUNT query. On by default.
+     */
+    public void setCountTotals(boolean countTotals) {
+        this.countTotals = countTotals;
+    }
+
+    private interface PageRead {
+        void run(PaginatedDataCallback callback);
+    }
+
+    /**
+     * Run a page read on the database read pool and report it on the main
+     * thread, unless this repository's lifecycle ended meanwhile
+     */
+    private void readPage(PaginatedDataCallback callback, PageRead read) {
+        PaginatedDataCallback onMain = new PaginatedDataCallback() {
+            @Override
+            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
+                scope.post(() -> callback.onSuccess(entries, hasMorePages, totalCount));
+            }
+
+            @Override
+            public void onError(String error) {
+                scope.post(() -> callback.onError(error));
+            }
+        };
+        if (!scope.execute(AppExecutors.dbRead(), () -> read.run(onMain))) {
+            onMain.onError("Too much work queued");
+        }
+    }
+
+    /**
+     * Run a read of entries on the database read pool; callback hears about it on the main thread
+     */
+    private void readEntries(TaskScope.Work<List<Entry>> work, DataCallback callback) {
+        scope.submit(AppExecutors.dbRead(), work, new ResultCallback<List<Entry>>() {
+            @Override
+            public void onSuccess(List<Entry> entries) {
+                callback.onSuccess(entries);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Cache key of a page; pages without an exact total are kept apart, as
+     * screens that count totals must not be served them
+     */
+    private String resultKey(String listing, int page, int pageSize) {
+        return listing + "#" + page + "#" + pageSize + (countTotals ? "" : "#uncounted");
+    }
+
+    /**
+     * Serve a page from the result cache. Returns false on a miss.
+     */
+    private boolean deliverCached(String key, PaginatedDataCallback callback) {
+        ResultCache.Page cached = resultCache.get(key);
+        if (cached == null) {
+            return false;
+        }
+        callback.onSuccess(new ArrayList<>(cached.entries), cached.hasMorePages, cached.totalCount);
+        return true;
+    }
+
+    /**
+     * Highest rated entries, from the materialized ranking once it is built
+     */
+    public void getTopRatedEntries(int count, DataCallback callback) {
+        readEntries(() -> {
+            try {
+                List<EntryTile> tiles = rankings.tiles(database, RankingEntity.TOP_RATED, count);
+                if (tiles == null) {
+                    tiles = database.entryDao().getTopRatedTiles(count);
                 }
+                return DatabaseUtils.tilesToEntries(tiles);
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting top rated entries: " + e.getMessage(), e);
+                return new ArrayList<>();
             }
-            return filteredYears;
+        }, callback);
+    }
+
+    /**
+     * Highest rated entries of one main category, e.g. for a home row
+     */
+    public void getTopRatedEntries(String category, int count, DataCallback callback) {
+        readEntries(() -> getRankedEntries(RankingEntity.topRatedIn(category), count), callback);
+    }
+
+    /**
+     * Entries with the latest release year, best rated first within a year
+     */
+    public void getNewestEntries(int count, DataCallback callback) {
+        readEntries(() -> getRankedEntries(RankingEntity.NEWEST, count), callback);
+    }
+
+    private List<Entry> getRankedEntries(String ranking, int count) {
+        try {
+            List<EntryTile> tiles = rankings.tiles(database, ranking, count);
+            return tiles != null ? DatabaseUtils.tilesToEntries(tiles) : new ArrayList<>();
         } catch (Exception e) {
-            Log.e(TAG, "Error getting unique years: " + e.getMessage(), e);
+            Log.e(TAG, "Error getting ranking " + ranking + ": " + e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
     /**
-     * Get paginated data filtered by genre, country, and year
+     * Index the cached titles once per process; later syncs update the index incrementally
      */
-    public void getPaginatedFilteredData(String genre, String country, String year, int page, int pageSize, PaginatedDataCallback callback) {
+    private void buildTitleIndex() {
         try {
-            int offset = page * pageSize;
-            List<EntryEntity> entities = database.entryDao().getEntriesFilteredPaged(
-                genre == null || genre.isEmpty() ? null : genre,
-                country == null || country.isEmpty() ? null : country,
-                year == null || year.isEmpty() ? null : year,
-                pageSize, offset
-            );
-            List<Entry> entries = DatabaseUtils.entitiesToEntries(entities);
-            int totalCount = database.entryDao().getEntriesFilteredCount(
-                genre == null || genre.isEmpty() ? null : genre,
-                country == null || country.isEmpty() ? null : country,
-                year == null || year.isEmpty() ? null : year
-            );
-            boolean hasMorePages = (offset + pageSize) < totalCount;
+            if (!titleIndex.isBuilt()) {
+                titleIndex.refresh(database);
+                fullTextSearch.clear(); // Cached results were ranked without typo matches
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error building title index: " + e.getMessage(), e);
+        }
+    }
 
-            Log.d(TAG, "Loaded filtered page " + page + " with " + entries.size() + " items. Total: " + totalCount);
-            callback.onSuccess(entries, hasMorePages, totalCount);
+    private void buildFilterIndex() {
+        try {
+            if (!filterIndex.isBuilt()) {
+                filterIndex.refresh(database);
+            }
         } catch (Exception e) {
-            Log.e(TAG, "Error loading filtered paginated data: " + e.getMessage(), e);
-            callback.onError("Error loading filtered page: " + e.getMessage());
+            Log.e(TAG, "Error building filter index: " + e.getMessage(), e);
         }
     }
 
-    public List<Entry> getTopRatedEntries(int count) {
+    private void buildRankings() {
         try {
-            List<EntryEntity> entities = database.entryDao().getTopRatedEntries(count);
-            return DatabaseUtils.entitiesToEntries(entities);
+            if (rankings.isMissing(database)) {
+                AppExecutors.dbWrite().execute(this::rebuildRankings);
+            }
         } catch (Exception e) {
-            Log.e(TAG, "Error getting top rated entries: " + e.getMessage(), e);
-            return new ArrayList<>();
+            Log.e(TAG, "Error building rankings: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * Check if cache is still valid
-     */
-    private boolean isCacheValid(long lastUpdated) {
-        long currentTime = System.currentTimeMillis();
-        long cacheAge = currentTime - lastUpdated;
-        long expiryTime = TimeUnit.HOURS.toMillis(CACHE_EXPIRY_HOURS);
-        return cacheAge < expiryTime;
+    private void rebuildRankings() {
+        try {
+            rankings.rebuild(database);
+        } catch (Exception e) {
+            Log.e(TAG, "Error building rankings: " + e.getMessage(), e);
+        }
     }
 
     /**
-     * Load data from local cache
+     * Load the saved title suggestions, rebuilding them when they predate the cached catalog
      */
-    private void loadFromCache(DataCallback callback) {
+    private void loadSuggestions() {
         try {
-            List<EntryEntity> entities = database.entryDao().getAllEntries();
-            List<Entry> entries = DatabaseUtils.entitiesToEntries(entities);
-
-            if (!entries.isEmpty()) {
-                callback.onSuccess(entries);
-            } else {
-                // Cache is empty, fetch from API
-                Log.d(TAG, "Cache is empty, fetching from API");
-                getPlaylistData(callback);
+            CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST_VERSION);
+            if (metadata != null && !suggestions.isLoaded()) {
+                suggestions.load(database, metadata.getLastUpdated());
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error loading from cache: " + e.getMessage(), e);
-            getPlaylistData(callback);
+            Log.e(TAG, "Error loading suggestions: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Check if cache is still valid
+     */
+    private boolean isCacheValid(long lastUpdated) {
+        long currentTime = System.currentTimeMillis();
+        long cacheAge = currentTime - lastUpdated;
+        long expiryTime = TimeUnit.HOURS.toMillis(CACHE_EXPIRY_HOURS);
+        return cacheAge < expiryTime;
+    }
+
     public void checkForUpdates(UpdateCheckCallback callback) {
         apiService.getPlaylistsVersion().enqueue(new Callback<PlaylistsVersion>() {
             @Override
             public void onResponse(Call<PlaylistsVersion> call, Response<PlaylistsVersion> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     PlaylistsVersion playlistsVersion = response.body();
-                    CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST_VERSION);
-                    int localVersion = metadata != null ? Integer.parseInt(metadata.getDataVersion()) : -1;
-
-                    if (playlistsVersion.getVersion() > localVersion) {
-                        callback.onUpdateAvailable(playlistsVersion);
-                    } else {
-                        Log.d(TAG, "No new version found. Using cached data.");
-                        callback.onNoUpdate();
-                    }
+                    scope.submit(AppExecutors.dbRead(), () -> {
+                        CacheMetadataEntity metadata = database.cacheMetadataDao().getMetadata(CACHE_KEY_PLAYLIST_VERSION);
+                        return metadata != null ? Integer.parseInt(metadata.getDataVersion()) : -1;
+                    }, new ResultCallback<Integer>() {
+                        @Override
+                        public void onSuccess(Integer localVersion) {
+                            if (playlistsVersion.getVersion() > localVersion) {
+                                callback.onUpdateAvailable(playlistsVersion);
+                            } else {
+                                Log.d(TAG, "No new version found. Using cached data.");
+                                callback.onNoUpdate();
+                            }
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            callback.onError(error);
+                        }
+                    });
                 } else {
                     Log.e(TAG, "Failed to fetch playlist version: " + response.code());
                     callback.onError("Failed to fetch playlist version: " + response.code());
@@ -380,93 +822,405 @@ public class DataRepository {
         });
     }
 
+    /**
+     * One caller waiting on a playlist refresh
+     */
+    private static class SyncSubscriber {
+        final DataRepository owner;
+        final DataCallback callback;
+        final PlaylistProgressListener progressListener; // may be null
+
+        SyncSubscriber(DataRepository owner, DataCallback callback, PlaylistProgressListener progressListener) {
+            this.owner = owner;
+            this.callback = callback;
+            this.progressListener = progressListener;
+        }
+    }
+
+    /**
+     * State of one playlist refresh, shared by the threads ingesting its files
+     */
+    private static class PlaylistSync {
+        final PlaylistsVersion version;
+        final PlaylistDownloadScheduler scheduler;
+        final long startTime;
+        final TransferStats.Snapshot startStats = TransferStats.snapshot();
+        final AtomicInteger failedCount = new AtomicInteger(0);
+        final AtomicInteger notModifiedCount = new AtomicInteger(0);
+        final AtomicInteger invalidatedAt = new AtomicInteger(0); // written count at the last invalidation
+        final Set<String> ingestedUrls = Collections.synchronizedSet(new HashSet<>());
+        final List<PlaylistSourceEntity> fetchedSources = Collections.synchronizedList(new ArrayList<>());
+        final List<SyncSubscriber> subscribers = new ArrayList<>(); // guarded by syncLock
+        volatile EntryBatchWriter writer;
+
+        PlaylistSync(PlaylistsVersion version, PlaylistDownloadScheduler scheduler, long startTime) {
+            this.version = version;
+            this.scheduler = scheduler;
+            this.startTime = startTime;
+        }
+    }
+
     public void downloadPlaylists(PlaylistsVersion playlistsVersion, DataCallback callback) {
-        List<String> playlistUrls = playlistsVersion.getPlaylists();
-        List<Playlist> playlists = Collections.synchronizedList(new ArrayList<>());
-        AtomicInteger counter = new AtomicInteger(playlistUrls.size());
-        AtomicInteger failedCount = new AtomicInteger(0);
+        downloadPlaylists(playlistsVersion, callback, null);
+    }
 
-        for (String url : playlistUrls) {
-            apiService.getPlaylist(url).enqueue(new Callback<Playlist>() {
-                @Override
-                public void onResponse(Call<Playlist> call, Response<Playlist> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        playlists.add(response.body());
-                    } else {
-                        Log.e(TAG, "Failed to fetch playlist: " + url);
-                        failedCount.incrementAndGet();
-                    }
-                    if (counter.decrementAndGet() == 0) {
-                        handleAllPlaylistsFetched(playlists, playlistsVersion.getVersion(), failedCount.get(), callback);
-                    }
+    /**
+     * Download and ingest every playlist file of a version, at most
+     * MAX_CONCURRENT_PLAYLIST_DOWNLOADS at a time and Home/Movies first.
+     * progressListener (may be null) hears about each file as soon as its
+     * entries are in the database; callback fires once the whole refresh is
+     * committed.
+     *
+     * If a refresh of the same version is already running, the caller joins it
+     * instead of starting a second one.
+     */
+    public void downloadPlaylists(PlaylistsVersion playlistsVersion, DataCallback callback,
+                                  PlaylistProgressListener progressListener) {
+        SyncSubscriber subscriber = new SyncSubscriber(this, callback, progressListener);
+        PlaylistSync sync;
+        synchronized (syncLock) {
+            if (activeSync != null && activeSync.version.getVersion() == playlistsVersion.getVersion()) {
+                Log.d(TAG, "Joining playlist refresh already in progress");
+                activeSync.subscribers.add(subscriber);
+                return;
+            }
+            sync = new PlaylistSync(playlistsVersion,
+                    new PlaylistDownloadScheduler(MAX_CONCURRENT_PLAYLIST_DOWNLOADS, PlaylistDownloadScheduler.DEFAULT_PRIORITIZER),
+                    SystemClock.elapsedRealtime());
+            sync.subscribers.add(subscriber);
+            activeSync = sync;
+        }
+
+        AppExecutors.dbWrite().execute(() -> {
+            // Loading the stored hashes for delta sync touches the database, so do it off the caller's thread
+            try {
+                sync.writer = new EntryBatchWriter(database);
+                if (sync.scheduler.isCancelled()) {
+                    sync.writer.abandon();
+                    return;
                 }
+            } catch (Exception e) {
+                Log.e(TAG, "Error preparing sync: " + e.getMessage(), e);
+                finishSync(sync, "Error preparing sync: " + e.getMessage());
+                return;
+            }
 
-                @Override
-                public void onFailure(Call<Playlist> call, Throwable t) {
-                    Log.e(TAG, "Failed to fetch playlist: " + url, t);
-                    failedCount.incrementAndGet();
-                    if (counter.decrementAndGet() == 0) {
-                        handleAllPlaylistsFetched(playlists, playlistsVersion.getVersion(), failedCount.get(), callback);
-                    }
+            sync.scheduler.start(playlistsVersion.getPlaylists(), url -> fetchPlaylist(url, sync),
+                    new PlaylistDownloadScheduler.Listener() {
+                        @Override
+                        public void onFileFinished(String url, boolean success) {
+                            if (!success) {
+                                sync.failedCount.incrementAndGet();
+                            }
+                        }
+
+                        @Override
+                        public void onAllFinished() {
+                            handleAllPlaylistsFetched(sync);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Cancel reads and downloads when the owner is destroyed; no callback fires
+     * after that. A refresh shared with other screens keeps running until every
+     * caller that joined it is gone.
+     */
+    public void bindToLifecycle(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                scope.cancel();
+                cancelDownloads();
+            }
+        });
+    }
+
+    /**
+     * Drop this repository's callbacks from the running refresh, and cancel it
+     * when nobody else is waiting for it
+     */
+    public void cancelDownloads() {
+        PlaylistSync cancelled = null;
+        synchronized (syncLock) {
+            if (activeSync == null) {
+                return;
+            }
+            Iterator<SyncSubscriber> it = activeSync.subscribers.iterator();
+            while (it.hasNext()) {
+                if (it.next().owner == this) {
+                    it.remove();
                 }
-            });
+            }
+            if (activeSync.subscribers.isEmpty()) {
+                cancelled = activeSync;
+                activeSync = null;
+            }
+        }
+        if (cancelled != null) {
+            // A first sync keeps the files ingested so far, a delta sync rolls back; the next refresh picks up the rest
+            cancelled.scheduler.cancel();
+            EntryBatchWriter writer = cancelled.writer;
+            if (writer != null) {
+                writer.abandon();
+            }
         }
     }
 
-    private void handleAllPlaylistsFetched(List<Playlist> playlists, int version, int failedCount, DataCallback callback) {
+    private static List<SyncSubscriber> subscribersOf(PlaylistSync sync) {
+        synchronized (syncLock) {
+            return new ArrayList<>(sync.subscribers);
+        }
+    }
+
+    /**
+     * Report the outcome of a refresh to everyone waiting on it; error is null on success
+     */
+    private void finishSync(PlaylistSync sync, String error) {
+        List<SyncSubscriber> subscribers;
+        synchronized (syncLock) {
+            if (activeSync == sync) {
+                activeSync = null;
+            }
+            subscribers = new ArrayList<>(sync.subscribers);
+            sync.subscribers.clear();
+        }
+        if (sync.scheduler.isCancelled()) {
+            return;
+        }
         mainHandler.post(() -> {
-            if (failedCount > 0) {
-                Log.w(TAG, failedCount + " playlists failed to download.");
-                if (playlists.isEmpty()) {
-                    callback.onError("Failed to download any playlists.");
-                    return;
+            for (SyncSubscriber subscriber : subscribers) {
+                if (error != null) {
+                    subscriber.callback.onError(error);
+                } else {
+                    subscriber.callback.onSuccess(new ArrayList<>());
                 }
-                // Optionally, inform the user about partial data
             }
-            cachePlaylists(playlists, version);
-            callback.onSuccess(new ArrayList<>());
         });
     }
 
     /**
-     * Cache the playlist data to local database
+     * Called on a download thread once a file's entries are in the database
      */
-    private void cachePlaylists(List<Playlist> playlists, int version) {
-        try {
-            database.entryDao().deleteAll();
-            Set<Integer> entryIds = new HashSet<>();
-            List<EntryEntity> entitiesToInsert = new ArrayList<>();
-
-            for (Playlist playlist : playlists) {
-                if (playlist.getCategories() != null) {
-                    for (Category category : playlist.getCategories()) {
-                        if (category != null && category.getEntries() != null) {
-                            String mainCategory = category.getMainCategory();
-                            for (Entry entry : category.getEntries()) {
-                                if (entry != null && entryIds.add(entry.getId())) {
-                                    EntryEntity entity = DatabaseUtils.entryToEntity(entry, mainCategory);
-                                    entitiesToInsert.add(entity);
-                                }
-                            }
-                        }
-                    }
+    private void notifyPlaylistReady(PlaylistSync sync, String url, int entryCount) {
+        List<SyncSubscriber> subscribers = subscribersOf(sync);
+        mainHandler.post(() -> {
+            if (sync.scheduler.isCancelled()) {
+                return;
+            }
+            for (SyncSubscriber subscriber : subscribers) {
+                if (subscriber.progressListener != null) {
+                    subscriber.progressListener.onPlaylistReady(url, entryCount);
                 }
             }
+        });
+    }
 
-            if (!entitiesToInsert.isEmpty()) {
-                database.entryDao().insertAll(entitiesToInsert);
+    /**
+     * Fetch one playlist file, sending the stored validators so an unchanged
+     * file answers 304 and skips parsing and database work entirely.
+     *
+     * @return false when the server did not deliver the file
+     */
+    private boolean fetchPlaylist(String url, PlaylistSync sync) throws IOException {
+        int version = sync.version.getVersion();
+        if (archivePayloads) {
+            // A previous run of this sync died after downloading this file; re-parse it instead of refetching
+            PayloadArchive.Archived archived = payloadArchive.find(url, version);
+            if (archived != null) {
+                int parsed = ingestPlaylist(url, archived.open(), sync.writer);
+                flushPlaylist(sync);
+                sync.ingestedUrls.add(url);
+                sync.fetchedSources.add(new PlaylistSourceEntity(url, archived.etag, archived.lastModified,
+                        parsed, System.currentTimeMillis()));
+                Log.d(TAG, "Re-parsed " + parsed + " archived entries from " + url);
+                notifyPlaylistReady(sync, url, parsed);
+                return true;
+            }
+        }
+
+        // Validators are only useful while the entries they describe are still cached
+        PlaylistSourceEntity source = sync.writer.isDeltaMode() ? database.playlistSourceDao().getSource(url) : null;
+        String etag = source != null ? source.getEtag() : null;
+        String lastModified = source != null ? source.getLastModified() : null;
+
+        Call<ResponseBody> call = sync.scheduler.track(apiService.getPlaylistStream(url, etag, lastModified));
+        try {
+            return ingestResponse(url, version, source, call.execute(), sync);
+        } finally {
+            sync.scheduler.untrack(call);
+        }
+    }
+
+    /**
+     * Ingest a playlist response, or record that it was not modified
+     */
+    private boolean ingestResponse(String url, int version, PlaylistSourceEntity source,
+                                   Response<ResponseBody> response, PlaylistSync sync) throws IOException {
+        if (response.code() == 304) {
+            Log.d(TAG, "Playlist not modified: " + url);
+            sync.notModifiedCount.incrementAndGet();
+            closeQuietly(response.errorBody());
+            notifyPlaylistReady(sync, url, source != null ? source.getEntryCount() : 0);
+            return true;
+        }
+        if (!response.isSuccessful() || response.body() == null) {
+            Log.e(TAG, "Failed to fetch playlist: " + url + " (" + response.code() + ")");
+            closeQuietly(response.errorBody());
+            return false;
+        }
+
+        String newEtag = response.headers().get("ETag");
+        String newLastModified = response.headers().get("Last-Modified");
+        InputStream body = new TransferStats.CountingInputStream(response.body().byteStream());
+        PayloadArchive.Recording recording = archivePayloads ? payloadArchive.record(url, version, body) : null;
+        int parsed;
+        try {
+            parsed = ingestPlaylist(url, recording != null ? recording : body, sync.writer);
+            if (recording != null) {
+                recording.commit(newEtag, newLastModified);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (recording != null) {
+                recording.abort();
+            }
+            throw e;
+        }
+        flushPlaylist(sync);
+        sync.ingestedUrls.add(url);
+        sync.fetchedSources.add(new PlaylistSourceEntity(url, newEtag, newLastModified,
+                parsed, System.currentTimeMillis()));
+        Log.d(TAG, "Streamed " + parsed + " entries from " + url);
+        notifyPlaylistReady(sync, url, parsed);
+        return true;
+    }
+
+    /**
+     * Make a playlist file's entries visible, and drop the cached pages, search
+     * results, page start keys and filter bitmaps read before they were written. The
+     * filter index is rebuilt when the sync commits; until then filtered pages
+     * are read from the table.
+     */
+    private void flushPlaylist(PlaylistSync sync) {
+        sync.writer.flushPending();
+        int written = sync.writer.getWrittenCount();
+        if (sync.invalidatedAt.getAndSet(written) != written) {
+            resultCache.invalidate();
+            fullTextSearch.clear();
+            pager.clear();
+            filterIndex.invalidate();
+            facetCube.clear();
+        }
+    }
+
+    /**
+     * Stream one playlist body straight into the batch writer without
+     * building the full Playlist object graph.
+     */
+    private int ingestPlaylist(String url, InputStream body, EntryBatchWriter writer) throws IOException {
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return PlaylistStreamParser.parse(reader, (entry, mainCategory) -> writer.add(entry, mainCategory, url));
+        }
+    }
+
+    private static void closeQuietly(ResponseBody body) {
+        if (body != null) {
+            body.close();
+        }
+    }
+
+    private void handleAllPlaylistsFetched(PlaylistSync sync) {
+        int failedCount = sync.failedCount.get();
+        if (failedCount > 0) {
+            Log.w(TAG, failedCount + " playlists failed to download.");
+            if (failedCount >= sync.version.getPlaylists().size()) {
+                sync.writer.abandon();
+                finishSync(sync, "Failed to download any playlists.");
+                return;
+            }
+            // Optionally, inform the user about partial data
+        }
+        if (sync.notModifiedCount.get() > 0) {
+            Log.d(TAG, sync.notModifiedCount.get() + " playlists not modified since last sync.");
+        }
+        try {
+            // Entries of a failed or unmodified playlist were not seen, so only files parsed to the end may delete rows
+            sync.writer.finish(sync.ingestedUrls, new HashSet<>(sync.version.getPlaylists()), sync.failedCount.get() == 0);
+            // Runs on the db-write pool after the writer committed, not on this download thread
+            AppExecutors.dbWrite().execute(() -> {
+                cachePlaylists(sync);
+                finishSync(sync, null);
+            });
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error committing sync: " + e.getMessage(), e);
+            sync.writer.abandon();
+            finishSync(sync, "Error saving playlists: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wait for the streamed entries to be committed, then refresh the indexes
+     * and record the file validators and the cached version with sync
+     * statistics. Runs on the db-write pool.
+     */
+    private void cachePlaylists(PlaylistSync sync) {
+        try {
+            EntryBatchWriter writer = sync.writer;
+            writer.awaitCommitted();
+            pager.clear();
+            counts.invalidate(); // Also done by the invalidation tracker, but only after it runs
+            boolean changed = writer.getWrittenCount() + writer.getDeletedCount() > 0;
+            if (changed || !titleIndex.isBuilt()) {
+                titleIndex.refresh(database);
+            }
+            if (changed || !filterIndex.isBuilt()) {
+                filterIndex.refresh(database);
+            }
+            if (changed) {
+                rankings.rebuild(database);
+            }
+            fullTextSearch.clear();
+            facetCube.clear();
+
+            // Saved only after the commit, so a crash mid-sync never leaves a validator for data that was not written
+            if (!sync.fetchedSources.isEmpty()) {
+                database.playlistSourceDao().insertAll(sync.fetchedSources);
             }
 
             CacheMetadataEntity metadata = new CacheMetadataEntity(
                     CACHE_KEY_PLAYLIST_VERSION,
                     System.currentTimeMillis(),
-                    String.valueOf(version)
+                    String.valueOf(sync.version.getVersion())
             );
+            metadata.setSyncInserted(writer.getInsertedCount());
+            metadata.setSyncUpdated(writer.getUpdatedCount());
+            metadata.setSyncDeleted(writer.getDeletedCount());
+            metadata.setSyncDurationMs(SystemClock.elapsedRealtime() - sync.startTime);
             database.cacheMetadataDao().insert(metadata);
+            // Drop pages read while the entries and indexes above were being replaced; a no-op sync keeps them
+            if (changed) {
+                resultCache.invalidate();
+            }
+
+            // Suggestions are stamped with the sync that wrote the catalog they were built from
+            if (changed || !suggestions.isLoaded()) {
+                suggestions.rebuild(database, metadata.getLastUpdated());
+            } else {
+                suggestions.restamp(metadata.getLastUpdated());
+            }
+
+            // Also removes archives left behind while archiving was enabled
+            payloadArchive.clear();
 
-            Log.d(TAG, "Data cached successfully: " + entitiesToInsert.size() + " entries");
+            Log.d(TAG, "Data cached successfully (" + (writer.isDeltaMode() ? "delta" : "full") + "): "
+                    + metadata.getSyncInserted() + " inserted, " + metadata.getSyncUpdated() + " updated, "
+                    + metadata.getSyncDeleted() + " deleted in " + metadata.getSyncDurationMs() + " ms");
+            Log.d(TAG, String.format(Locale.US, "Ingest: %.0f rows/s, writer thread busy %d ms",
+                    writer.getRowsPerSecond(), writer.getWriteTimeMs()));
+            Log.d(TAG, "Refresh transfer: " + TransferStats.snapshot().since(sync.startStats));
+            Log.d(TAG, "Result cache: " + resultCache.stats());
         } catch (Exception e) {
             Log.e(TAG, "Error caching data: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.cinecraze.free.repository;
+
+import android.content.Intent;
+
+import com.cinecraze.free.models.Entry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Passes the entry of a tapped tile to the details screen without
+ * serializing it.
+ *
+ * The caller registers the entry here and puts only its key in the Intent;
+ * the details screen takes a copy of it back. Listing entries are shared with
+ * the page caches and adapters, so the screen never gets the caller's object.
+ * After process death the registry is empty, and the screen reads the entry
+ * by its key from the cache instead (see {@link DataRepository#getEntryByKey}).
+ * Only the most recently handed over entries are held, so the registry stays
+ * small however many screens are opened.
+ */
+public final class EntryHandoff {
+
+    public static final String EXTRA_ENTRY_KEY = "entryKey";
+
+    // Enough for a stack of details screens opened from one another
+    private static final int MAX_ENTRIES = 16;
+
+    private static final Map<Long, Entry> entries = new LinkedHashMap<Long, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private EntryHandoff() {
+    }
+
+    /**
+     * Register a copy of entry and put its key in intent
+     */
+    public static void put(Intent intent, Entry entry) {
+        long key = entry.getKey();
+        Entry copy = entry.copy();
+        synchronized (entries) {
+            entries.put(key, copy);
+        }
+        intent.putExtra(EXTRA_ENTRY_KEY, key);
+    }
+
+    /**
+     * Key of the entry handed over with intent, or 0
+     */
+    public static long keyOf(Intent intent) {
+        return intent.getLongExtra(EXTRA_ENTRY_KEY, 0);
+    }
+
+    /**
+     * The registered entry with key, or null when this process did not register it
+     */
+    public static Entry get(long key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+}
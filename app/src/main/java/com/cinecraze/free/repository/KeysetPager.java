@@ -0,0 +1,110 @@
+package com.cinecraze.free.repository;
+
+import com.cinecraze.free.database.entities.EntryKey;
+import com.cinecraze.free.database.entities.EntryTile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves numbered pages with keyset queries.
+ *
+ * For every listing (a query plus its arguments and page size) the key of the
+ * last row of each loaded page is remembered, so the next or previous page is
+ * a seek on the (title, id) index whatever its depth. A page whose start is not
+ * known yet, e.g. after a jump, looks its start key up by offset once.
+ *
+ * Each page reads one row more than it returns, which tells whether another
+ * page follows without counting the listing. A start key read before a
+ * {@link #clear()} is not remembered after it.
+ */
+class KeysetPager {
+
+    private static final int MAX_LISTINGS = 16;
+
+    interface Query {
+        List<EntryTile> after(EntryKey key, int limit);
+
+        /** Key of the row at offset, or null past the end */
+        EntryKey keyAt(int offset);
+    }
+
+    static class Page {
+        final List<EntryTile> tiles;
+        final boolean hasMore;
+
+        Page(List<EntryTile> tiles, boolean hasMore) {
+            this.tiles = tiles;
+            this.hasMore = hasMore;
+        }
+    }
+
+    // listing -> page number -> key of the row before that page
+    private final Map<String, Map<Integer, EntryKey>> pageStarts =
+            new LinkedHashMap<String, Map<Integer, EntryKey>>(MAX_LISTINGS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<Integer, EntryKey>> eldest) {
+                    return size() > MAX_LISTINGS;
+                }
+            };
+    private int generation;
+
+    /**
+     * Load page number page of a listing. Runs database queries; call off the main thread.
+     */
+    Page page(String listing, int page, int pageSize, Query query) {
+        String id = listing + "#" + pageSize;
+        int stamp = generation();
+        EntryKey start = page == 0 ? EntryKey.FIRST : startOf(id, page);
+        if (start == null) {
+            start = query.keyAt(page * pageSize - 1);
+            if (start == null) {
+                return new Page(new ArrayList<>(), false); // past the end
+            }
+            remember(id, page, start, stamp);
+        }
+        List<EntryTile> tiles = query.after(start, pageSize + 1);
+        boolean hasMore = tiles.size() > pageSize;
+        if (hasMore) {
+            tiles = tiles.subList(0, pageSize);
+            remember(id, page + 1, EntryKey.of(tiles.get(pageSize - 1)), stamp);
+        }
+        return new Page(tiles, hasMore);
+    }
+
+    /**
+     * Forget all page starts whenever entries are written, including each
+     * playlist file a running sync flushes
+     */
+    synchronized void clear() {
+        generation++;
+        pageStarts.clear();
+    }
+
+    private synchronized int generation() {
+        return generation;
+    }
+
+    private synchronized EntryKey startOf(String id, int page) {
+        Map<Integer, EntryKey> starts = pageStarts.get(id);
+        return starts != null ? starts.get(page) : null;
+    }
+
+    /**
+     * Store a page start, unless the pager was cleared since stamp was taken
+     */
+    private synchronized void remember(String id, int page, EntryKey key, int stamp) {
+        if (stamp != generation) {
+            return;
+        }
+        Map<Integer, EntryKey> starts = pageStarts.get(id);
+        if (starts == null) {
+            starts = new HashMap<>();
+            pageStarts.put(id, starts);
+        }
+        starts.put(page, key);
+    }
+}
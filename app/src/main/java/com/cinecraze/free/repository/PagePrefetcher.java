@@ -0,0 +1,203 @@
+package com.cinecraze.free.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.FutureTarget;
+import com.cinecraze.free.models.Entry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speculative loading of the pages next to the one on screen.
+ *
+ * After a page of a query is shown, the previous and next pages are read
+ * through the same repository call, on the database read pool, which leaves
+ * them in the repository's result cache, and their posters are downloaded into
+ * Glide's disk cache. Tapping next or previous is then answered from memory
+ * and the images come from disk.
+ *
+ * A query is identified by its shape: the query type and its parameters.
+ * Showing a page of another shape cancels everything prefetched or queued for
+ * the old one, as does {@link #cancel()}. Prefetching is skipped while the
+ * heap is above its budget; prefetched pages are held only by the result
+ * cache, which has a byte budget of its own, and posters are downloaded but
+ * not decoded, so they take no heap.
+ */
+public class PagePrefetcher {
+
+    private static final String TAG = "PagePrefetcher";
+
+    // Prefetch only while the heap is below this share of its limit
+    private static final float HEAP_BUDGET = 0.75f;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong prefetched = new AtomicLong();
+    private static final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Reads one page of a query, e.g. a call to {@link DataRepository#getPaginatedData}
+     */
+    public interface PageLoader {
+        void load(int page, DataRepository.PaginatedDataCallback callback);
+    }
+
+    /**
+     * Counters since the process started, across screens
+     */
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long prefetched;
+        public final long skipped;
+
+        Stats(long hits, long misses, long prefetched, long skipped) {
+            this.hits = hits;
+            this.misses = misses;
+            this.prefetched = prefetched;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Share of page turns to a new page that found it prefetched
+         */
+        public double hitRate() {
+            long turns = hits + misses;
+            return turns == 0 ? 0 : (double) hits / turns;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d hits, %d misses (%.1f%%), %d pages prefetched, %d skipped over budget",
+                    hits, misses, hitRate() * 100, prefetched, skipped);
+        }
+    }
+
+    private final Context context;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Set<Integer> ready = Collections.synchronizedSet(new HashSet<>()); // prefetched pages
+    private final Set<Integer> requested = Collections.synchronizedSet(new HashSet<>()); // shown or queued pages
+    private final Set<Integer> shown = new HashSet<>(); // main thread only
+    private final List<FutureTarget<File>> posters = new ArrayList<>();
+    private String shape; // main thread only
+
+    public PagePrefetcher(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static Stats getStats() {
+        return new Stats(hits.get(), misses.get(), prefetched.get(), skipped.get());
+    }
+
+    /**
+     * Record that a page of the query with the given shape is on screen, and
+     * prefetch its neighbours with loader. Call on the main thread.
+     */
+    public void onPageShown(String shape, int page, boolean hasMorePages, PageLoader loader) {
+        if (!shape.equals(this.shape)) {
+            cancel();
+            this.shape = shape;
+            shown.add(page);
+        } else if (shown.add(page)) {
+            // A page shown before is served by the result cache either way and is not counted
+            (ready.contains(page) ? hits : misses).incrementAndGet();
+            Log.d(TAG, "Page " + page + " shown; " + getStats());
+        }
+        requested.add(page);
+        if (hasMorePages) {
+            prefetch(page + 1, loader);
+        }
+        if (page > 0) {
+            prefetch(page - 1, loader);
+        }
+    }
+
+    /**
+     * Drop queued prefetches and stop warming posters. Call on the main thread.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        shape = null;
+        ready.clear();
+        requested.clear();
+        shown.clear();
+        synchronized (posters) {
+            for (FutureTarget<File> poster : posters) {
+                poster.cancel(false);
+            }
+            posters.clear();
+        }
+    }
+
+    private void prefetch(int page, PageLoader loader) {
+        if (!requested.add(page)) {
+            return;
+        }
+        run(page, loader, generation.get());
+    }
+
+    private void run(int page, PageLoader loader, int ticket) {
+        if (!hasHeapRoom()) {
+            skipped.incrementAndGet();
+            requested.remove(page); // Retry on a later page turn
+            return;
+        }
+        loader.load(page, new DataRepository.PaginatedDataCallback() {
+            @Override
+            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
+                if (ticket != generation.get()) {
+                    return;
+                }
+                ready.add(page);
+                prefetched.incrementAndGet();
+                warmPosters(entries, ticket);
+            }
+
+            @Override
+            public void onError(String error) {
+                requested.remove(page);
+                Log.w(TAG, "Prefetch of page " + page + " failed: " + error);
+            }
+        });
+    }
+
+    /**
+     * Download the posters of a page into Glide's disk cache without decoding them
+     */
+    private void warmPosters(List<Entry> entries, int ticket) {
+        synchronized (posters) {
+            if (ticket != generation.get()) {
+                return;
+            }
+            Iterator<FutureTarget<File>> done = posters.iterator();
+            while (done.hasNext()) {
+                if (done.next().isDone()) {
+                    done.remove();
+                }
+            }
+            for (Entry entry : entries) {
+                String poster = entry.getPoster();
+                if (poster != null && !poster.isEmpty()) {
+                    posters.add(Glide.with(context).downloadOnly().load(poster).submit());
+                }
+            }
+        }
+    }
+
+    private static boolean hasHeapRoom() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used < runtime.maxMemory() * HEAP_BUDGET;
+    }
+}
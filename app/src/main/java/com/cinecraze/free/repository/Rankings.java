@@ -0,0 +1,110 @@
+package com.cinecraze.free.repository;
+
+import android.util.Log;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.dao.RankingDao;
+import com.cinecraze.free.database.entities.EntryTile;
+import com.cinecraze.free.database.entities.RankingEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked home rows: top rated, newest by year and top rated per category.
+ *
+ * The rankings table is rebuilt once per sync that changed entries; the
+ * tiles of a ranking are then read once and kept, so the carousel and home
+ * rows cost a map lookup on every later page load.
+ */
+class Rankings {
+
+    private static final String TAG = "Rankings";
+
+    // Entries kept per ranking; a row asking for more falls back to a query
+    static final int SIZE = 50;
+
+    private final Map<String, List<EntryTile>> tiles = new HashMap<>();
+    private int generation; // rebuilds so far; tiles read before a rebuild are not kept
+    private boolean checked;
+
+    /**
+     * Recompute every ranking from the entries table. Must not be called on the main thread.
+     */
+    void rebuild(CineCrazeDatabase database) {
+        long start = System.nanoTime();
+        RankingDao dao = database.rankingDao();
+        List<RankingEntity> rows = new ArrayList<>();
+        add(rows, RankingEntity.TOP_RATED, dao.getTopRatedIds(SIZE));
+        add(rows, RankingEntity.NEWEST, dao.getNewestIds(SIZE));
+        for (String category : dao.getCategories()) {
+            add(rows, RankingEntity.topRatedIn(category), dao.getTopRatedIdsInCategory(category, SIZE));
+        }
+        database.runInTransaction(() -> {
+            dao.deleteAll();
+            dao.insertAll(rows);
+        });
+        synchronized (this) {
+            tiles.clear();
+            generation++;
+            checked = true;
+        }
+        Log.d(TAG, "Rebuilt " + rows.size() + " ranking rows in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Whether the rankings must be built because the table is empty while
+     * entries are not, e.g. right after the schema upgrade that added it.
+     * Only reads; checked once per process, later calls return false.
+     */
+    boolean isMissing(CineCrazeDatabase database) {
+        synchronized (this) {
+            if (checked) {
+                return false;
+            }
+            checked = true;
+        }
+        return database.rankingDao().getRankingRowCount() == 0 && database.entryDao().getEntriesCount() > 0;
+    }
+
+    synchronized boolean isChecked() {
+        return checked;
+    }
+
+    /**
+     * The first count tiles of a ranking, or null when the ranking is not
+     * built yet or keeps fewer than count rows, and the caller should query entries
+     */
+    List<EntryTile> tiles(CineCrazeDatabase database, String ranking, int count) {
+        if (count > SIZE) {
+            return null;
+        }
+        List<EntryTile> ranked;
+        int readGeneration;
+        synchronized (this) {
+            ranked = tiles.get(ranking);
+            readGeneration = generation;
+        }
+        if (ranked == null) {
+            // Read outside the lock, so a slow query blocks neither rebuilds nor other readers
+            ranked = database.rankingDao().getRankedTiles(ranking, SIZE);
+            if (ranked.isEmpty()) {
+                return null; // Not built yet; keep asking until it is
+            }
+            synchronized (this) {
+                if (readGeneration == generation) {
+                    tiles.put(ranking, ranked);
+                }
+            }
+        }
+        return ranked.subList(0, Math.min(count, ranked.size()));
+    }
+
+    private static void add(List<RankingEntity> rows, String ranking, List<Integer> ids) {
+        for (int position = 0; position < ids.size(); position++) {
+            rows.add(new RankingEntity(ranking, position, ids.get(position)));
+        }
+    }
+}
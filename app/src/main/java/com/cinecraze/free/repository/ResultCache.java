@@ -0,0 +1,163 @@
+package com.cinecraze.free.repository;
+
+import com.cinecraze.free.models.Entry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Converted pages of listing, category, filter and search queries, keyed by
+ * query type, parameters and page, so switching tabs or paging back serves
+ * the page from memory.
+ *
+ * The cache is bounded by the estimated heap size of its entries and evicts
+ * the least recently used page first. It is emptied when a sync writes or
+ * deletes entries, both when a playlist file is flushed and when the sync
+ * commits; a sync that changed nothing keeps it. A page read before an
+ * invalidation is not stored afterwards.
+ *
+ * Cached entries are handed to every caller of the same page, each in a
+ * list of its own; callers must not modify the entries themselves.
+ */
+public class ResultCache {
+
+    // Fixed part of an Entry built from a tile, and of each String it holds
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int PAGE_OVERHEAD_BYTES = 128;
+
+    static class Page {
+        final List<Entry> entries;
+        final boolean hasMorePages;
+        final int totalCount;
+        final long bytes;
+
+        Page(List<Entry> entries, boolean hasMorePages, int totalCount, long bytes) {
+            this.entries = entries;
+            this.hasMorePages = hasMorePages;
+            this.totalCount = totalCount;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Counters since the process started
+     */
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final int pages;
+        public final long bytes;
+        public final long maxBytes;
+
+        Stats(long hits, long misses, long evictions, int pages, long bytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.pages = pages;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+        }
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d hits, %d misses (%.1f%%), %d evictions, %d pages, %d/%d KB",
+                    hits, misses, hitRate() * 100, evictions, pages, bytes / 1024, maxBytes / 1024);
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Page> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private int generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ResultCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Stamp to pass to {@link #put}; take it before running the query
+     */
+    synchronized int generation() {
+        return generation;
+    }
+
+    /**
+     * The cached page, or null. Counts a hit or a miss.
+     */
+    synchronized Page get(String key) {
+        Page page = pages.get(key);
+        if (page != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return page;
+    }
+
+    /**
+     * Cache a page, unless the data changed since generation was taken or the page alone exceeds the budget
+     */
+    synchronized void put(String key, List<Entry> entries, boolean hasMorePages, int totalCount, int generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        long size = PAGE_OVERHEAD_BYTES + key.length() * 2L;
+        for (Entry entry : entries) {
+            size += sizeOf(entry);
+        }
+        if (size > maxBytes) {
+            return;
+        }
+        Page previous = pages.put(key, new Page(Collections.unmodifiableList(new ArrayList<>(entries)),
+                hasMorePages, totalCount, size));
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += size;
+        Iterator<Page> eldest = pages.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        pages.clear();
+        bytes = 0;
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, pages.size(), bytes, maxBytes);
+    }
+
+    /**
+     * Estimated heap size of an entry as built from a tile
+     */
+    private static long sizeOf(Entry entry) {
+        return ENTRY_OVERHEAD_BYTES
+                + sizeOf(entry.getTitle()) + sizeOf(entry.getSubCategory()) + sizeOf(entry.getMainCategory())
+                + sizeOf(entry.getCountry()) + sizeOf(entry.getDescription()) + sizeOf(entry.getPoster())
+                + sizeOf(entry.getThumbnail()) + sizeOf(entry.getDuration())
+                + sizeOf(entry.getRatingString()) + sizeOf(entry.getYearString());
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length() * 2L;
+    }
+}
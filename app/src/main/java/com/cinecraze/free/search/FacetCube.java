@@ -0,0 +1,254 @@
+package com.cinecraze.free.search;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.entities.FacetCell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Hit counts of every genre, country and year for the filters currently chosen.
+ *
+ * The catalog is read once, as one grouped query that returns a cell per
+ * distinct (category, genre, country, year) with its number of entries; a
+ * few thousand cells even for a large catalog. Each facet value is then
+ * counted in one pass over the cells, with the selections of the other
+ * facets applied but not its own, so a spinner lists what choosing each of
+ * its values would show. Call {@link #clear()} when the catalog changes.
+ */
+public class FacetCube {
+
+    // Selection codes; a cell's code is its value's index in the dictionary, or NONE
+    private static final int NONE = -1;
+    private static final int ANY = -2;
+    private static final int UNKNOWN = -3;
+
+    private static FacetCube instance;
+
+    private final CineCrazeDatabase database;
+    private Cells cells; // null until first use after a clear
+
+    public static synchronized FacetCube getInstance(CineCrazeDatabase database) {
+        if (instance == null) {
+            instance = new FacetCube(database);
+        }
+        return instance;
+    }
+
+    public FacetCube(CineCrazeDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * A facet value and the number of entries it would show
+     */
+    public static class Value {
+        public final String value;
+        public final int count;
+
+        Value(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Counts of every facet for one selection. Genres and countries are in
+     * alphabetical order, years newest first. Values that would show nothing
+     * are left out, except the one selected.
+     */
+    public static class Counts {
+        public static final Counts EMPTY = new Counts(Collections.<Value>emptyList(),
+                Collections.<Value>emptyList(), Collections.<Value>emptyList(), 0, 0, 0, 0);
+
+        public final List<Value> genres;
+        public final List<Value> countries;
+        public final List<Value> years;
+        // Entries shown by each facet's "All" choice, and by the whole selection
+        public final int allGenres;
+        public final int allCountries;
+        public final int allYears;
+        public final int total;
+
+        Counts(List<Value> genres, List<Value> countries, List<Value> years,
+               int allGenres, int allCountries, int allYears, int total) {
+            this.genres = genres;
+            this.countries = countries;
+            this.years = years;
+            this.allGenres = allGenres;
+            this.allCountries = allCountries;
+            this.allYears = allYears;
+            this.total = total;
+        }
+    }
+
+    /**
+     * Counts for a selection; null or empty means "any". Reads the database on first use after a clear.
+     */
+    public Counts counts(String category, String genre, String country, String year) {
+        return cells().count(category, genre, country, year);
+    }
+
+    public synchronized void clear() {
+        cells = null;
+    }
+
+    private synchronized Cells cells() {
+        if (cells == null) {
+            cells = new Cells(database.entryDao().getFacetCells());
+        }
+        return cells;
+    }
+
+    /**
+     * Dictionary-encoded cells: each facet's distinct values in display order, and per cell their codes
+     */
+    private static final class Cells {
+        final Facet categories;
+        final Facet genres;
+        final Facet countries;
+        final Facet years;
+        final int[] hits;
+
+        Cells(List<FacetCell> rows) {
+            int size = rows.size();
+            List<String> categoryValues = new ArrayList<>(size);
+            List<String> genreValues = new ArrayList<>(size);
+            List<String> countryValues = new ArrayList<>(size);
+            List<String> yearValues = new ArrayList<>(size);
+            hits = new int[size];
+            for (int i = 0; i < size; i++) {
+                FacetCell row = rows.get(i);
+                categoryValues.add(row.mainCategory);
+                genreValues.add(row.subCategory);
+                countryValues.add(row.country);
+                yearValues.add(row.year);
+                hits[i] = row.hits;
+            }
+            categories = new Facet(categoryValues, null, false);
+            genres = new Facet(genreValues, null, false);
+            countries = new Facet(countryValues, null, false);
+            years = new Facet(yearValues, Collections.<String>reverseOrder(), true);
+        }
+
+        Counts count(String category, String genre, String country, String year) {
+            int categoryCode = categories.select(category);
+            int genreCode = genres.select(genre);
+            int countryCode = countries.select(country);
+            int yearCode = years.select(year);
+
+            int[] genreHits = new int[genres.values.length];
+            int[] countryHits = new int[countries.values.length];
+            int[] yearHits = new int[years.values.length];
+            int allGenres = 0;
+            int allCountries = 0;
+            int allYears = 0;
+            int total = 0;
+            for (int i = 0; i < hits.length; i++) {
+                if (!matches(categoryCode, categories.codes[i])) {
+                    continue;
+                }
+                int g = genres.codes[i];
+                int c = countries.codes[i];
+                int y = years.codes[i];
+                boolean genreMatches = matches(genreCode, g);
+                boolean countryMatches = matches(countryCode, c);
+                boolean yearMatches = matches(yearCode, y);
+                int cellHits = hits[i];
+                // Each facet is counted under the other facets' selections only
+                if (countryMatches && yearMatches) {
+                    allGenres += cellHits;
+                    if (g != NONE) {
+                        genreHits[g] += cellHits;
+                    }
+                }
+                if (genreMatches && yearMatches) {
+                    allCountries += cellHits;
+                    if (c != NONE) {
+                        countryHits[c] += cellHits;
+                    }
+                }
+                if (genreMatches && countryMatches) {
+                    allYears += cellHits;
+                    if (y != NONE) {
+                        yearHits[y] += cellHits;
+                    }
+                    if (yearMatches) {
+                        total += cellHits;
+                    }
+                }
+            }
+            return new Counts(genres.values(genreHits, genreCode), countries.values(countryHits, countryCode),
+                    years.values(yearHits, yearCode), allGenres, allCountries, allYears, total);
+        }
+
+        private static boolean matches(int selected, int code) {
+            return selected == ANY || selected == code;
+        }
+    }
+
+    /**
+     * One facet column: its dictionary and the code of every cell
+     */
+    private static final class Facet {
+        final String[] values;
+        final boolean[] listed;
+        final int[] codes;
+        final Map<String, Integer> lookup = new HashMap<>();
+
+        /**
+         * @param order display order of the values; null for alphabetical
+         */
+        Facet(List<String> cellValues, Comparator<String> order, boolean isYear) {
+            TreeSet<String> distinct = new TreeSet<>(order);
+            for (String value : cellValues) {
+                if (value != null) {
+                    distinct.add(value);
+                }
+            }
+            values = distinct.toArray(new String[0]);
+            listed = new boolean[values.length];
+            for (int i = 0; i < values.length; i++) {
+                lookup.put(values[i], i);
+                listed[i] = isListed(values[i], isYear);
+            }
+            codes = new int[cellValues.size()];
+            for (int i = 0; i < codes.length; i++) {
+                String value = cellValues.get(i);
+                codes[i] = value == null ? NONE : lookup.get(value);
+            }
+        }
+
+        /**
+         * Code of a selected value. Matching is exact, as in the filter queries.
+         */
+        int select(String value) {
+            if (value == null || value.isEmpty()) {
+                return ANY;
+            }
+            Integer code = lookup.get(value);
+            return code != null ? code : UNKNOWN;
+        }
+
+        List<Value> values(int[] valueHits, int selected) {
+            List<Value> result = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                if (listed[i] && (valueHits[i] > 0 || i == selected)) {
+                    result.add(new Value(values[i], valueHits[i]));
+                }
+            }
+            return result;
+        }
+
+        // Placeholder values in the playlists are stored but never offered as filters
+        private static boolean isListed(String value, boolean isYear) {
+            String trimmed = value.trim();
+            return !trimmed.isEmpty() && !trimmed.equalsIgnoreCase("null") && !(isYear && trimmed.equals("0"));
+        }
+    }
+}
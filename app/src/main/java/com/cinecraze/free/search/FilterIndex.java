@@ -0,0 +1,227 @@
+package com.cinecraze.free.search;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inverted index for the category, genre, country and year filters.
+ *
+ * Every entry is numbered by its position in (title, id) order, the order
+ * filter pages are listed in, and each distinct value of a filter column
+ * holds a {@link RoaringBitmap} of the positions of its entries. A combined
+ * filter is the AND of one bitmap per filter that is set, smallest first;
+ * its total is the cardinality, and a page is a run of set bits mapped back
+ * to entry ids, so no page or count query touches the entries table.
+ *
+ * Positions move whenever a title is inserted before them, so
+ * {@link #refresh} rebuilds the bitmaps from one ordered read of the filter
+ * columns; reads see an immutable snapshot and take no lock.
+ */
+public class FilterIndex {
+
+    private static final String TAG = "FilterIndex";
+
+    private static FilterIndex instance;
+
+    private volatile Snapshot snapshot;
+
+    public static synchronized FilterIndex getInstance() {
+        if (instance == null) {
+            instance = new FilterIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * True once a {@link #build} or {@link #refresh} completed, and the index
+     * was not invalidated since
+     */
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    /**
+     * Entries matching a combination of filters
+     */
+    public static class Match {
+        private final int[] idsByPosition;
+        private final RoaringBitmap positions;
+
+        Match(int[] idsByPosition, RoaringBitmap positions) {
+            this.idsByPosition = idsByPosition;
+            this.positions = positions;
+        }
+
+        public int count() {
+            return positions.cardinality();
+        }
+
+        /**
+         * Ids of the matches at [offset, offset + limit) in (title, id) order
+         */
+        public List<Integer> ids(int offset, int limit) {
+            int[] selected = positions.select(offset, limit);
+            List<Integer> ids = new ArrayList<>(selected.length);
+            for (int position : selected) {
+                ids.add(idsByPosition[position]);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Rebuild the index from the entries table. Must not be called on the main thread.
+     */
+    public void refresh(CineCrazeDatabase database) {
+        int[] ids = new int[1024];
+        String[][] columns = new String[4][1024];
+        int count = 0;
+        try (Cursor cursor = database.entryDao().queryFilterSources()) {
+            while (cursor.moveToNext()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    for (int c = 0; c < columns.length; c++) {
+                        columns[c] = Arrays.copyOf(columns[c], count * 2);
+                    }
+                }
+                ids[count] = cursor.getInt(0);
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c][count] = cursor.isNull(c + 1) ? null : cursor.getString(c + 1);
+                }
+                count++;
+            }
+        }
+        build(Arrays.copyOf(ids, count), Arrays.copyOf(columns[0], count), Arrays.copyOf(columns[1], count),
+                Arrays.copyOf(columns[2], count), Arrays.copyOf(columns[3], count));
+    }
+
+    /**
+     * Drop the index because entries were written, e.g. by one playlist file of
+     * a running sync. {@link #match} returns null until the next build or refresh.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Replace the index with the given entries, listed in (title, id) order
+     */
+    public synchronized void build(int[] ids, String[] categories, String[] genres, String[] countries, String[] years) {
+        long start = System.nanoTime();
+        Snapshot next = new Snapshot(ids, categories, genres, countries, years);
+        snapshot = next;
+        Log.d(TAG, "Indexed " + ids.length + " entries into " + next.bitmapCount() + " bitmaps ("
+                + next.sizeInBytes() / 1024 + " KB) in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Entries matching every filter that is set; null or empty means "any".
+     * Null until the index is built.
+     */
+    public Match match(String category, String genre, String country, String year) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        List<RoaringBitmap> selected = new ArrayList<>(4);
+        current.select(current.categories, category, selected);
+        current.select(current.genres, genre, selected);
+        current.select(current.countries, country, selected);
+        current.select(current.years, year, selected);
+        if (selected.isEmpty()) {
+            return new Match(current.ids, current.all);
+        }
+        // The smallest bitmap bounds the result, so intersect from there
+        RoaringBitmap[] bitmaps = selected.toArray(new RoaringBitmap[0]);
+        Arrays.sort(bitmaps, (a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        RoaringBitmap result = bitmaps[0];
+        for (int i = 1; i < bitmaps.length && !result.isEmpty(); i++) {
+            result = result.and(bitmaps[i]);
+        }
+        return new Match(current.ids, result);
+    }
+
+    private static final class Snapshot {
+        final int[] ids; // by position
+        final RoaringBitmap all;
+        final Map<String, RoaringBitmap> categories;
+        final Map<String, RoaringBitmap> genres;
+        final Map<String, RoaringBitmap> countries;
+        final Map<String, RoaringBitmap> years;
+
+        Snapshot(int[] ids, String[] categories, String[] genres, String[] countries, String[] years) {
+            this.ids = ids;
+            this.all = RoaringBitmap.range(ids.length);
+            this.categories = bitmaps(categories);
+            this.genres = bitmaps(genres);
+            this.countries = bitmaps(countries);
+            this.years = bitmaps(years);
+        }
+
+        void select(Map<String, RoaringBitmap> column, String value, List<RoaringBitmap> selected) {
+            if (value != null && !value.isEmpty()) {
+                RoaringBitmap bitmap = column.get(value);
+                selected.add(bitmap != null ? bitmap : RoaringBitmap.EMPTY);
+            }
+        }
+
+        int bitmapCount() {
+            return categories.size() + genres.size() + countries.size() + years.size();
+        }
+
+        long sizeInBytes() {
+            long bytes = ids.length * 4L + all.sizeInBytes();
+            for (Map<String, RoaringBitmap> column : Arrays.asList(categories, genres, countries, years)) {
+                for (RoaringBitmap bitmap : column.values()) {
+                    bytes += bitmap.sizeInBytes();
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * One bitmap per distinct value; positions are visited in order, so every list is ascending
+         */
+        private static Map<String, RoaringBitmap> bitmaps(String[] values) {
+            Map<String, Postings> postings = new HashMap<>();
+            for (int position = 0; position < values.length; position++) {
+                String value = values[position];
+                if (value == null) {
+                    continue;
+                }
+                Postings list = postings.get(value);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(value, list);
+                }
+                list.add(position);
+            }
+            Map<String, RoaringBitmap> bitmaps = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                bitmaps.put(entry.getKey(), RoaringBitmap.of(list.positions, 0, list.size));
+            }
+            return bitmaps;
+        }
+    }
+
+    private static final class Postings {
+        int[] positions = new int[16];
+        int size;
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.cinecraze.free.search;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+import com.cinecraze.free.database.entities.EntryMatch;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Catalog search on the entries_fts index.
+ *
+ * Every word of the user's query becomes a prefix term ("star war" matches
+ * "Star Wars: A New Hope"), all words must match, and hits are ranked
+ * by BM25 over title, description, country and sub-category, with the title
+ * weighted highest. FTS4 has no built-in BM25, so the score is computed here
+ * from matchinfo('pcnalx'). Titles the {@link TrigramIndex} finds for a
+ * misspelled query follow the full-text hits.
+ *
+ * The ranked ids of recent queries are cached, so paging through results
+ * reads only the tiles of one page. Call {@link #clear()} whenever entries
+ * are written, including the per-file flushes of a running sync.
+ */
+public class FullTextSearch {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Column weights, in entries_fts column order: title, description, country, sub_category
+    private static final double[] COLUMN_WEIGHTS = {5.0, 1.0, 0.5, 1.0};
+
+    private static final int MAX_CACHED_QUERIES = 8;
+
+    // Typo matches appended after the full-text hits
+    private static final int MAX_FUZZY_MATCHES = 100;
+
+    private static FullTextSearch instance;
+
+    private final CineCrazeDatabase database;
+    private final TrigramIndex titleIndex; // null: no typo matches
+    private final Map<String, Results> cache =
+            new LinkedHashMap<String, Results>(MAX_CACHED_QUERIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Results> eldest) {
+                    return size() > MAX_CACHED_QUERIES;
+                }
+            };
+
+    public static synchronized FullTextSearch getInstance(CineCrazeDatabase database) {
+        if (instance == null) {
+            instance = new FullTextSearch(database, TrigramIndex.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Standalone instance with its own cache, e.g. for a benchmark database
+     */
+    public FullTextSearch(CineCrazeDatabase database) {
+        this(database, null);
+    }
+
+    FullTextSearch(CineCrazeDatabase database, TrigramIndex titleIndex) {
+        this.database = database;
+        this.titleIndex = titleIndex;
+    }
+
+    /**
+     * Entry ids of one query, best match first
+     */
+    public static class Results {
+        private final int[] ids;
+
+        Results(int[] ids) {
+            this.ids = ids;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public List<Integer> page(int page, int pageSize) {
+            int from = Math.min(ids.length, page * pageSize);
+            int to = Math.min(ids.length, from + pageSize);
+            List<Integer> pageIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                pageIds.add(ids[i]);
+            }
+            return pageIds;
+        }
+
+        public List<Integer> all() {
+            return page(0, ids.length);
+        }
+    }
+
+    /**
+     * Ranked matches of a user query. Runs a database query unless the
+     * query was answered recently; call off the main thread.
+     */
+    public Results search(String query) {
+        String matchQuery = toMatchQuery(query);
+        if (matchQuery == null) {
+            return new Results(new int[0]);
+        }
+        synchronized (this) {
+            Results cached = cache.get(matchQuery);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Results results = withFuzzyMatches(query, rank(database.entryDao().match(matchQuery)));
+        synchronized (this) {
+            cache.put(matchQuery, results);
+        }
+        return results;
+    }
+
+    /**
+     * Forget cached results, e.g. once a sync changed the catalog
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * FTS4 MATCH expression for a user query: every word as a prefix term,
+     * implicitly ANDed. Punctuation and FTS operators are dropped, so user
+     * input can never be a syntax error. Null when nothing is searchable.
+     */
+    public static String toMatchQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        String lower = query.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                // Lowercase words are never read as AND/OR/NOT/NEAR
+                match.append(word).append('*');
+                word.setLength(0);
+            }
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    /**
+     * Append typo-tolerant title matches that the full-text query missed
+     */
+    private Results withFuzzyMatches(String query, Results results) {
+        if (titleIndex == null || !titleIndex.isBuilt()) {
+            return results;
+        }
+        int[] fuzzy = titleIndex.search(query, MAX_FUZZY_MATCHES);
+        int[] sorted = results.ids.clone();
+        Arrays.sort(sorted);
+        int[] ids = Arrays.copyOf(results.ids, results.ids.length + fuzzy.length);
+        int count = results.ids.length;
+        for (int id : fuzzy) {
+            if (Arrays.binarySearch(sorted, id) < 0) {
+                ids[count++] = id;
+            }
+        }
+        return count == results.ids.length ? results : new Results(Arrays.copyOf(ids, count));
+    }
+
+    static Results rank(List<EntryMatch> matches) {
+        int count = matches.size();
+        double[] scores = new double[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            scores[i] = bm25(matches.get(i).info);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            return byScore != 0 ? byScore : Integer.compare(matches.get(a).id, matches.get(b).id);
+        });
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = matches.get(order[i]).id;
+        }
+        return new Results(ids);
+    }
+
+    /**
+     * Okapi BM25 of one row from matchinfo('pcnalx'): phrase count, column
+     * count, row count, average tokens per column, this row's tokens per
+     * column, then (hits in this row, hits in all rows, rows with hits) per
+     * phrase and column.
+     */
+    static double bm25(byte[] info) {
+        ByteBuffer buffer = ByteBuffer.wrap(info).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        int rows = buffer.getInt(8);
+        int averageBase = 3;
+        int lengthBase = averageBase + columns;
+        int hitsBase = lengthBase + columns;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int hits = hitsBase + 3 * (column + phrase * columns);
+                int termFrequency = buffer.getInt(4 * hits);
+                if (termFrequency == 0) {
+                    continue;
+                }
+                int rowsWithHits = buffer.getInt(4 * (hits + 2));
+                double averageLength = Math.max(1, buffer.getInt(4 * (averageBase + column)));
+                double length = buffer.getInt(4 * (lengthBase + column));
+                double idf = Math.log(1 + (rows - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                score += weight * idf * (termFrequency * (K1 + 1))
+                        / (termFrequency + K1 * (1 - B + B * length / averageLength));
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,336 @@
+package com.cinecraze.free.search;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of non-negative ints, laid out as a roaring bitmap.
+ *
+ * Values are split by their high 16 bits into chunks of up to 65536. A chunk
+ * holding at most {@link #ARRAY_MAX} values stores them as a sorted char
+ * array; a denser one as a 1024-word bitmap. Either way a chunk never takes
+ * more than 8 KB, and AND, OR and counting work a chunk at a time without
+ * decompressing anything.
+ */
+public final class RoaringBitmap {
+
+    // Above this many values a chunk is smaller as a bitmap than as an array
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    public static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Object[0], new int[0]);
+
+    private final char[] keys;          // high 16 bits of each chunk, ascending
+    private final Object[] containers;  // char[] of low bits, ascending, or long[BITMAP_WORDS]
+    private final int[] counts;         // values per chunk
+    private final int cardinality;
+
+    private RoaringBitmap(char[] keys, Object[] containers, int[] counts) {
+        this.keys = keys;
+        this.containers = containers;
+        this.counts = counts;
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * Bitmap of values[from, to), which must be ascending and non-negative
+     */
+    public static RoaringBitmap of(int[] values, int from, int to) {
+        Builder builder = new Builder();
+        int start = from;
+        while (start < to) {
+            int key = values[start] >>> 16;
+            int end = start + 1;
+            while (end < to && values[end] >>> 16 == key) {
+                end++;
+            }
+            int count = end - start;
+            if (count <= ARRAY_MAX) {
+                char[] low = new char[count];
+                for (int i = 0; i < count; i++) {
+                    low[i] = (char) values[start + i];
+                }
+                builder.add(key, low, count);
+            } else {
+                long[] words = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    int low = values[i] & 0xFFFF;
+                    words[low >>> 6] |= 1L << low;
+                }
+                builder.add(key, words, count);
+            }
+            start = end;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Bitmap of every value in [0, size)
+     */
+    public static RoaringBitmap range(int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        return of(values, 0, size);
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (index < 0 || value < 0) {
+            return false;
+        }
+        Object container = containers[index];
+        char low = (char) value;
+        if (container instanceof char[]) {
+            return Arrays.binarySearch((char[]) container, low) >= 0;
+        }
+        return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        Builder builder = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                and(keys[i], containers[i], other.containers[j], builder);
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        Builder builder = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                builder.add(keys[i], containers[i], counts[i]);
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                builder.add(other.keys[j], other.containers[j], other.counts[j]);
+                j++;
+            } else {
+                or(keys[i], containers[i], counts[i], other.containers[j], other.counts[j], builder);
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * The values at ranks [offset, offset + limit) in ascending order; fewer at the end of the set
+     */
+    public int[] select(int offset, int limit) {
+        int size = Math.max(0, Math.min(limit, cardinality - Math.max(0, offset)));
+        int[] result = new int[size];
+        int skip = Math.max(0, offset);
+        int filled = 0;
+        for (int c = 0; c < keys.length && filled < size; c++) {
+            if (skip >= counts[c]) {
+                skip -= counts[c];
+                continue;
+            }
+            int high = keys[c] << 16;
+            Object container = containers[c];
+            if (container instanceof char[]) {
+                char[] low = (char[]) container;
+                for (int k = skip; k < low.length && filled < size; k++) {
+                    result[filled++] = high | low[k];
+                }
+            } else {
+                long[] words = (long[]) container;
+                for (int w = 0; w < BITMAP_WORDS && filled < size; w++) {
+                    long word = words[w];
+                    int bits = Long.bitCount(word);
+                    if (skip >= bits) {
+                        skip -= bits;
+                        continue;
+                    }
+                    while (word != 0 && filled < size) {
+                        long lowest = word & -word;
+                        if (skip > 0) {
+                            skip--;
+                        } else {
+                            result[filled++] = high | (w << 6) | Long.numberOfTrailingZeros(lowest);
+                        }
+                        word ^= lowest;
+                    }
+                }
+            }
+            skip = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap size in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + counts.length * 4L;
+        for (Object container : containers) {
+            bytes += container instanceof char[] ? ((char[]) container).length * 2L : BITMAP_WORDS * 8L;
+        }
+        return bytes;
+    }
+
+    private static void and(char key, Object a, Object b, Builder builder) {
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] x = (char[]) a;
+            char[] y = (char[]) b;
+            char[] out = new char[Math.min(x.length, y.length)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.length && j < y.length) {
+                if (x[i] < y[j]) {
+                    i++;
+                } else if (x[i] > y[j]) {
+                    j++;
+                } else {
+                    out[n++] = x[i];
+                    i++;
+                    j++;
+                }
+            }
+            builder.add(key, Arrays.copyOf(out, n), n);
+        } else if (a instanceof char[] || b instanceof char[]) {
+            char[] array = (char[]) (a instanceof char[] ? a : b);
+            long[] words = (long[]) (a instanceof char[] ? b : a);
+            char[] out = new char[array.length];
+            int n = 0;
+            for (char low : array) {
+                if ((words[low >>> 6] & (1L << low)) != 0) {
+                    out[n++] = low;
+                }
+            }
+            builder.add(key, Arrays.copyOf(out, n), n);
+        } else {
+            long[] x = (long[]) a;
+            long[] y = (long[]) b;
+            long[] out = new long[BITMAP_WORDS];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                out[w] = x[w] & y[w];
+                n += Long.bitCount(out[w]);
+            }
+            builder.add(key, n <= ARRAY_MAX ? toArray(out, n) : out, n);
+        }
+    }
+
+    private static void or(char key, Object a, int countA, Object b, int countB, Builder builder) {
+        if (a instanceof char[] && b instanceof char[] && countA + countB <= ARRAY_MAX) {
+            char[] x = (char[]) a;
+            char[] y = (char[]) b;
+            char[] out = new char[x.length + y.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.length || j < y.length) {
+                if (j == y.length || (i < x.length && x[i] < y[j])) {
+                    out[n++] = x[i++];
+                } else if (i == x.length || x[i] > y[j]) {
+                    out[n++] = y[j++];
+                } else {
+                    out[n++] = x[i];
+                    i++;
+                    j++;
+                }
+            }
+            builder.add(key, Arrays.copyOf(out, n), n);
+            return;
+        }
+        long[] out = toWords(a);
+        if (b instanceof char[]) {
+            for (char low : (char[]) b) {
+                out[low >>> 6] |= 1L << low;
+            }
+        } else {
+            long[] y = (long[]) b;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                out[w] |= y[w];
+            }
+        }
+        int n = 0;
+        for (long word : out) {
+            n += Long.bitCount(word);
+        }
+        builder.add(key, n <= ARRAY_MAX ? toArray(out, n) : out, n);
+    }
+
+    private static long[] toWords(Object container) {
+        if (container instanceof long[]) {
+            return ((long[]) container).clone();
+        }
+        long[] words = new long[BITMAP_WORDS];
+        for (char low : (char[]) container) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words, int count) {
+        char[] low = new char[count];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                low[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects chunks in ascending key order, skipping empty ones
+     */
+    private static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] containers = new Object[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        void add(int key, Object container, int count) {
+            if (count == 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            keys[size] = (char) key;
+            containers[size] = container;
+            counts[size] = count;
+            size++;
+        }
+
+        RoaringBitmap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new RoaringBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size),
+                    Arrays.copyOf(counts, size));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.cinecraze.free.search;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.repository.DataRepository;
+
+import java.util.List;
+
+/**
+ * Search-as-you-type for a search box: runs the first result page of the
+ * latest query once typing pauses, on the repository's read pool.
+ *
+ * Every {@link #submit} supersedes the queries before it. A superseded query
+ * that is still waiting out the debounce never reaches the database, and
+ * results of one that was already sent are dropped instead of delivered. Call {@link #cancel()} when the search
+ * box closes or the screen goes away.
+ */
+public class SearchPipeline {
+
+    public static final long DEFAULT_DEBOUNCE_MS = 250;
+
+    public interface Listener {
+        /** Called on the main thread with the first page of the latest query */
+        void onResults(String query, List<Entry> entries, boolean hasMorePages, int totalCount);
+        void onError(String query, String error);
+    }
+
+    private final DataRepository repository;
+    private final int pageSize;
+    private final long debounceMs;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int generation; // main thread only
+    private Runnable pending; // main thread only
+
+    public SearchPipeline(DataRepository repository, int pageSize, Listener listener) {
+        this(repository, pageSize, DEFAULT_DEBOUNCE_MS, listener);
+    }
+
+    public SearchPipeline(DataRepository repository, int pageSize, long debounceMs, Listener listener) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        this.debounceMs = debounceMs;
+        this.listener = listener;
+    }
+
+    /**
+     * Search for query once no newer query arrives within the debounce delay. Call on the main thread.
+     */
+    public void submit(String query) {
+        int ticket = ++generation;
+        removePending();
+        pending = () -> {
+            pending = null;
+            run(query, ticket);
+        };
+        mainHandler.postDelayed(pending, debounceMs);
+    }
+
+    /**
+     * Drop the pending query and the results of any running one. Call on the main thread.
+     */
+    public void cancel() {
+        generation++;
+        removePending();
+    }
+
+    private void removePending() {
+        if (pending != null) {
+            mainHandler.removeCallbacks(pending);
+            pending = null;
+        }
+    }
+
+    private boolean isCurrent(int ticket) {
+        return ticket == generation;
+    }
+
+    private void run(String query, int ticket) {
+        // The repository reads off the main thread and answers on it
+        repository.searchPaginated(query, 0, pageSize, new DataRepository.PaginatedDataCallback() {
+            @Override
+            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
+                if (isCurrent(ticket)) {
+                    listener.onResults(query, entries, hasMorePages, totalCount);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (isCurrent(ticket)) {
+                    listener.onError(query, error);
+                }
+            }
+        });
+    }
+}
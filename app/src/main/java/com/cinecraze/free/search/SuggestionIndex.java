@@ -0,0 +1,634 @@
+package com.cinecraze.free.search;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Title suggestions for the search box, by prefix.
+ *
+ * Every title is keyed by its folded text (see {@link TrigramIndex#fold}) and
+ * by the text from each of its first words on, so "godf" suggests "The
+ * Godfather". The folded titles share one char arena and a key is just an
+ * offset into it, sorted by the text it starts; a prefix is a binary search
+ * and a walk over its range. The best titles of every prefix of up to
+ * {@link #TABLE_PREFIX_CHARS} characters, whose ranges are the largest, are
+ * precomputed in an open-addressing table. Titles are ranked by rating and
+ * release year, and titles that start with the prefix come first.
+ *
+ * The index is saved to a file after each sync that changed the catalog and
+ * loaded from it at startup, so the entries table is only scanned when the
+ * file is missing or older than the cached catalog.
+ */
+public class SuggestionIndex {
+
+    private static final String TAG = "SuggestionIndex";
+    private static final String FILE_NAME = "title_suggestions.bin";
+    private static final String PART_SUFFIX = ".part";
+    private static final int MAGIC = 0x43435347; // "CCSG"
+    private static final int FORMAT_VERSION = 1;
+
+    public static final int MAX_SUGGESTIONS = 8;
+
+    // Word keys for the first few words of 3+ characters
+    private static final int MAX_WORD_KEYS = 4;
+    private static final int MIN_WORD_CHARS = 3;
+
+    static final int TABLE_PREFIX_CHARS = 3;
+
+    // A title starting with the prefix outranks any title merely containing a word starting with it
+    private static final float TITLE_START_BONUS = 1f;
+
+    private static SuggestionIndex instance;
+
+    private final File file;
+    private volatile Data data;
+
+    public static synchronized SuggestionIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new SuggestionIndex(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    public SuggestionIndex(File directory) {
+        this.file = new File(directory, FILE_NAME);
+    }
+
+    public boolean isLoaded() {
+        return data != null;
+    }
+
+    /**
+     * Load the saved index if it was built for the given catalog stamp,
+     * otherwise build it from the database and save it. Must not be called on
+     * the main thread.
+     */
+    public synchronized void load(CineCrazeDatabase database, long stamp) {
+        long start = System.nanoTime();
+        Data saved = read(file, stamp);
+        if (saved != null) {
+            data = saved;
+            Log.d(TAG, "Loaded " + saved.titleCount() + " titles in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } else {
+            rebuild(database, stamp);
+        }
+    }
+
+    /**
+     * Build from the entries table and save. Must not be called on the main thread.
+     */
+    public synchronized void rebuild(CineCrazeDatabase database, long stamp) {
+        List<String> titles = new ArrayList<>();
+        float[] ratings = new float[1024];
+        int[] years = new int[1024];
+        try (Cursor cursor = database.entryDao().querySuggestionSources()) {
+            while (cursor.moveToNext()) {
+                int row = titles.size();
+                if (row == ratings.length) {
+                    ratings = Arrays.copyOf(ratings, row * 2);
+                    years = Arrays.copyOf(years, row * 2);
+                }
+                titles.add(cursor.isNull(0) ? "" : cursor.getString(0));
+                ratings[row] = cursor.getFloat(1);
+                years[row] = parseYear(cursor.isNull(2) ? null : cursor.getString(2));
+            }
+        }
+        build(titles.toArray(new String[0]), ratings, years, stamp);
+    }
+
+    /**
+     * Replace the index with one built from the given titles and save it
+     */
+    public synchronized void build(String[] titles, float[] ratings, int[] years, long stamp) {
+        long start = System.nanoTime();
+        Data built = Data.build(titles, ratings, years, stamp);
+        data = built;
+        Log.d(TAG, "Built " + built.titleCount() + " titles, " + built.keyCount() + " keys in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        save(built);
+    }
+
+    /**
+     * The catalog was synced without changes: keep the index and mark it current for stamp
+     */
+    public synchronized void restamp(long stamp) {
+        Data current = data;
+        if (current != null && current.stamp != stamp) {
+            data = current.withStamp(stamp);
+            save(data);
+        }
+    }
+
+    /**
+     * Up to {@link #MAX_SUGGESTIONS} titles for a typed prefix, best first
+     */
+    public List<String> suggest(String prefix) {
+        Data current = data;
+        if (current == null || prefix == null) {
+            return new ArrayList<>();
+        }
+        String folded = TrigramIndex.fold(prefix);
+        return folded.isEmpty() ? new ArrayList<>() : current.suggest(folded);
+    }
+
+    private void save(Data snapshot) {
+        File part = new File(file.getPath() + PART_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(part)))) {
+                snapshot.writeTo(out);
+            }
+            if (!part.renameTo(file)) {
+                throw new IOException("Cannot rename " + part);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error saving suggestions: " + e.getMessage(), e);
+            part.delete();
+        }
+    }
+
+    /**
+     * Saved index for stamp, or null when missing, stale or unreadable
+     */
+    private static Data read(File file, long stamp) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) in.length()];
+            in.readFully(bytes);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != stamp) {
+                return null;
+            }
+            return Data.readFrom(buffer, stamp);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Ignoring unreadable suggestions file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static int parseYear(String year) {
+        if (year == null) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = 0; i < year.length() && i < 4; i++) {
+            char c = year.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Up to MAX_SUGGESTIONS titles by descending score, one entry per title; ties go to the lower title
+     */
+    private static final class Top {
+        final int[] titles = new int[MAX_SUGGESTIONS];
+        final float[] scores = new float[MAX_SUGGESTIONS];
+        int size;
+
+        void offer(int title, float score) {
+            for (int i = 0; i < size; i++) {
+                if (titles[i] == title) {
+                    if (score <= scores[i]) {
+                        return;
+                    }
+                    System.arraycopy(titles, i + 1, titles, i, size - i - 1);
+                    System.arraycopy(scores, i + 1, scores, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+            int at = size;
+            while (at > 0 && (scores[at - 1] < score || (scores[at - 1] == score && titles[at - 1] > title))) {
+                at--;
+            }
+            if (at >= MAX_SUGGESTIONS) {
+                return;
+            }
+            int moved = Math.min(size, MAX_SUGGESTIONS - 1) - at;
+            System.arraycopy(titles, at, titles, at + 1, moved);
+            System.arraycopy(scores, at, scores, at + 1, moved);
+            titles[at] = title;
+            scores[at] = score;
+            size = Math.min(size + 1, MAX_SUGGESTIONS);
+        }
+    }
+
+    /**
+     * Immutable index arrays, laid out as saved
+     */
+    private static final class Data {
+        final long stamp;
+
+        // Title t is titleChars[titleStart[t] .. titleStart[t + 1]), folded
+        // foldedChars[foldedStart[t] .. foldedStart[t + 1])
+        final int[] titleStart;
+        final char[] titleChars;
+        final int[] foldedStart;
+        final char[] foldedChars;
+        final float[] titleScore;
+
+        // Keys sorted by text: key k runs from foldedChars[keyOffset[k]] to the end of title keyTitle[k]
+        final int[] keyOffset;
+        final int[] keyTitle;
+
+        // Short prefix -> its best titles, topTitles[topStart[slot] .. topEnd[slot])
+        final long[] prefixKeys;
+        final int[] topStart;
+        final int[] topEnd;
+        final int[] topTitles;
+
+        Data(long stamp, int[] titleStart, char[] titleChars, int[] foldedStart, char[] foldedChars,
+             float[] titleScore, int[] keyOffset, int[] keyTitle, long[] prefixKeys, int[] topStart,
+             int[] topEnd, int[] topTitles) {
+            this.stamp = stamp;
+            this.titleStart = titleStart;
+            this.titleChars = titleChars;
+            this.foldedStart = foldedStart;
+            this.foldedChars = foldedChars;
+            this.titleScore = titleScore;
+            this.keyOffset = keyOffset;
+            this.keyTitle = keyTitle;
+            this.prefixKeys = prefixKeys;
+            this.topStart = topStart;
+            this.topEnd = topEnd;
+            this.topTitles = topTitles;
+        }
+
+        int titleCount() {
+            return titleStart.length - 1;
+        }
+
+        int keyCount() {
+            return keyOffset.length;
+        }
+
+        Data withStamp(long newStamp) {
+            return new Data(newStamp, titleStart, titleChars, foldedStart, foldedChars, titleScore,
+                    keyOffset, keyTitle, prefixKeys, topStart, topEnd, topTitles);
+        }
+
+        List<String> suggest(String folded) {
+            List<String> suggestions = new ArrayList<>(MAX_SUGGESTIONS);
+            if (folded.length() <= TABLE_PREFIX_CHARS) {
+                int slot = findSlot(prefixKeys, prefixKey(folded));
+                if (prefixKeys[slot] != 0) {
+                    for (int i = topStart[slot]; i < topEnd[slot]; i++) {
+                        suggestions.add(title(topTitles[i]));
+                    }
+                }
+                return suggestions;
+            }
+            Top top = new Top();
+            for (int key = lowerBound(folded); key < keyCount() && startsWith(key, folded); key++) {
+                top.offer(keyTitle[key], keyScore(key));
+            }
+            for (int i = 0; i < top.size; i++) {
+                suggestions.add(title(top.titles[i]));
+            }
+            return suggestions;
+        }
+
+        String title(int title) {
+            return new String(titleChars, titleStart[title], titleStart[title + 1] - titleStart[title]);
+        }
+
+        float keyScore(int key) {
+            int title = keyTitle[key];
+            return keyOffset[key] == foldedStart[title] ? titleScore[title] + TITLE_START_BONUS : titleScore[title];
+        }
+
+        private int keyLength(int key) {
+            return foldedStart[keyTitle[key] + 1] - keyOffset[key];
+        }
+
+        /**
+         * First key not below prefix
+         */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = keyCount();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int compare(int key, String text) {
+            int start = keyOffset[key];
+            int length = keyLength(key);
+            int shared = Math.min(length, text.length());
+            for (int i = 0; i < shared; i++) {
+                int diff = foldedChars[start + i] - text.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - text.length();
+        }
+
+        private boolean startsWith(int key, String prefix) {
+            if (keyLength(key) < prefix.length()) {
+                return false;
+            }
+            int start = keyOffset[key];
+            for (int i = 0; i < prefix.length(); i++) {
+                if (foldedChars[start + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static Data build(String[] titles, float[] ratings, int[] years, long stamp) {
+            // One title per distinct text, with the best score of its entries, in text order
+            Map<String, Float> scores = new HashMap<>(titles.length * 2);
+            int minYear = Integer.MAX_VALUE;
+            int maxYear = Integer.MIN_VALUE;
+            for (int year : years) {
+                if (year > 0) {
+                    minYear = Math.min(minYear, year);
+                    maxYear = Math.max(maxYear, year);
+                }
+            }
+            float yearSpan = Math.max(1, maxYear - minYear);
+            for (int i = 0; i < titles.length; i++) {
+                if (TrigramIndex.fold(titles[i]).isEmpty()) {
+                    continue;
+                }
+                float recency = years[i] > 0 ? (years[i] - minYear) / yearSpan : 0f;
+                float score = 0.7f * Math.max(0f, Math.min(ratings[i], 10f)) / 10f + 0.3f * recency;
+                Float previous = scores.get(titles[i]);
+                if (previous == null || previous < score) {
+                    scores.put(titles[i], score);
+                }
+            }
+            String[] unique = scores.keySet().toArray(new String[0]);
+            Arrays.sort(unique);
+
+            int titleCount = unique.length;
+            String[] folded = new String[titleCount];
+            float[] titleScore = new float[titleCount];
+            int[] titleStart = new int[titleCount + 1];
+            int[] foldedStart = new int[titleCount + 1];
+            for (int t = 0; t < titleCount; t++) {
+                folded[t] = TrigramIndex.fold(unique[t]);
+                titleScore[t] = scores.get(unique[t]);
+                titleStart[t + 1] = titleStart[t] + unique[t].length();
+                foldedStart[t + 1] = foldedStart[t] + folded[t].length();
+            }
+            char[] titleChars = new char[titleStart[titleCount]];
+            char[] foldedChars = new char[foldedStart[titleCount]];
+            for (int t = 0; t < titleCount; t++) {
+                unique[t].getChars(0, unique[t].length(), titleChars, titleStart[t]);
+                folded[t].getChars(0, folded[t].length(), foldedChars, foldedStart[t]);
+            }
+
+            // Keys: the whole folded title, then from each of the first words on
+            int[] offsets = new int[titleCount * 2];
+            int[] owners = new int[titleCount * 2];
+            int keyCount = 0;
+            for (int t = 0; t < titleCount; t++) {
+                int words = -1;
+                int wordStart = 0;
+                while (wordStart < folded[t].length() && words < MAX_WORD_KEYS) {
+                    int wordEnd = folded[t].indexOf(' ', wordStart);
+                    if (wordEnd < 0) {
+                        wordEnd = folded[t].length();
+                    }
+                    if (wordStart == 0 || wordEnd - wordStart >= MIN_WORD_CHARS) {
+                        if (keyCount == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, keyCount * 2);
+                            owners = Arrays.copyOf(owners, keyCount * 2);
+                        }
+                        offsets[keyCount] = foldedStart[t] + wordStart;
+                        owners[keyCount] = t;
+                        keyCount++;
+                        words++;
+                    }
+                    wordStart = wordEnd + 1;
+                }
+            }
+            Integer[] order = new Integer[keyCount];
+            for (int k = 0; k < keyCount; k++) {
+                order[k] = k;
+            }
+            int[] keyOffsets = offsets;
+            int[] keyOwners = owners;
+            Arrays.sort(order, (a, b) -> compareKeys(foldedChars, keyOffsets[a], foldedStart[keyOwners[a] + 1],
+                    keyOffsets[b], foldedStart[keyOwners[b] + 1]));
+            int[] keyOffset = new int[keyCount];
+            int[] keyTitle = new int[keyCount];
+            for (int k = 0; k < keyCount; k++) {
+                keyOffset[k] = offsets[order[k]];
+                keyTitle[k] = owners[order[k]];
+            }
+
+            Data partial = new Data(stamp, titleStart, titleChars, foldedStart, foldedChars, titleScore,
+                    keyOffset, keyTitle, null, null, null, null);
+
+            // Best titles of every prefix of 1..TABLE_PREFIX_CHARS characters. Keys
+            // sharing a prefix are contiguous; a shorter key sorts before them.
+            long[] rangeKeys = new long[64];
+            int[] rangeTops = new int[64 * 2];
+            int[] tops = new int[256];
+            int ranges = 0;
+            int topCount = 0;
+            for (int length = 1; length <= TABLE_PREFIX_CHARS; length++) {
+                int key = 0;
+                while (key < keyCount) {
+                    if (partial.keyLength(key) < length) {
+                        key++;
+                        continue;
+                    }
+                    long prefix = prefixKey(foldedChars, keyOffset[key], length);
+                    Top top = new Top();
+                    int end = key;
+                    while (end < keyCount && partial.keyLength(end) >= length
+                            && prefixKey(foldedChars, keyOffset[end], length) == prefix) {
+                        top.offer(keyTitle[end], partial.keyScore(end));
+                        end++;
+                    }
+                    if (ranges == rangeKeys.length) {
+                        rangeKeys = Arrays.copyOf(rangeKeys, ranges * 2);
+                        rangeTops = Arrays.copyOf(rangeTops, ranges * 4);
+                    }
+                    if (topCount + top.size > tops.length) {
+                        tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topCount + top.size));
+                    }
+                    rangeKeys[ranges] = prefix;
+                    rangeTops[2 * ranges] = topCount;
+                    rangeTops[2 * ranges + 1] = topCount + top.size;
+                    System.arraycopy(top.titles, 0, tops, topCount, top.size);
+                    topCount += top.size;
+                    ranges++;
+                    key = end;
+                }
+            }
+
+            // Table at most half full
+            int capacity = 16;
+            while (capacity < ranges * 2) {
+                capacity <<= 1;
+            }
+            long[] prefixKeys = new long[capacity];
+            int[] topStart = new int[capacity];
+            int[] topEnd = new int[capacity];
+            for (int r = 0; r < ranges; r++) {
+                int slot = findSlot(prefixKeys, rangeKeys[r]);
+                prefixKeys[slot] = rangeKeys[r];
+                topStart[slot] = rangeTops[2 * r];
+                topEnd[slot] = rangeTops[2 * r + 1];
+            }
+            return new Data(stamp, titleStart, titleChars, foldedStart, foldedChars, titleScore,
+                    keyOffset, keyTitle, prefixKeys, topStart, topEnd, Arrays.copyOf(tops, topCount));
+        }
+
+        private static int compareKeys(char[] chars, int a, int aEnd, int b, int bEnd) {
+            while (a < aEnd && b < bEnd) {
+                int diff = chars[a++] - chars[b++];
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (aEnd - a) - (bEnd - b);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(stamp);
+            writeInts(out, titleStart);
+            writeChars(out, titleChars);
+            writeInts(out, foldedStart);
+            writeChars(out, foldedChars);
+            out.writeInt(titleScore.length);
+            for (float score : titleScore) {
+                out.writeFloat(score);
+            }
+            writeInts(out, keyOffset);
+            writeInts(out, keyTitle);
+            out.writeInt(prefixKeys.length);
+            for (long key : prefixKeys) {
+                out.writeLong(key);
+            }
+            writeInts(out, topStart);
+            writeInts(out, topEnd);
+            writeInts(out, topTitles);
+        }
+
+        /**
+         * Read the arrays following the header; the buffer is big-endian like DataOutputStream
+         */
+        static Data readFrom(ByteBuffer in, long stamp) {
+            int[] titleStart = readInts(in);
+            char[] titleChars = readChars(in);
+            int[] foldedStart = readInts(in);
+            char[] foldedChars = readChars(in);
+            float[] titleScore = new float[in.getInt()];
+            in.asFloatBuffer().get(titleScore);
+            in.position(in.position() + 4 * titleScore.length);
+            int[] keyOffset = readInts(in);
+            int[] keyTitle = readInts(in);
+            long[] prefixKeys = new long[in.getInt()];
+            in.asLongBuffer().get(prefixKeys);
+            in.position(in.position() + 8 * prefixKeys.length);
+            int[] topStart = readInts(in);
+            int[] topEnd = readInts(in);
+            int[] topTitles = readInts(in);
+            int titleCount = titleStart.length - 1;
+            if (titleStart[titleCount] != titleChars.length || foldedStart.length != titleStart.length
+                    || foldedStart[titleCount] != foldedChars.length || titleScore.length != titleCount
+                    || keyTitle.length != keyOffset.length
+                    || topStart.length != prefixKeys.length || topEnd.length != prefixKeys.length) {
+                throw new IllegalStateException("Inconsistent suggestions file");
+            }
+            return new Data(stamp, titleStart, titleChars, foldedStart, foldedChars, titleScore,
+                    keyOffset, keyTitle, prefixKeys, topStart, topEnd, topTitles);
+        }
+
+        private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+            out.writeInt(values.length);
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+
+        private static void writeChars(DataOutputStream out, char[] values) throws IOException {
+            out.writeInt(values.length);
+            for (char value : values) {
+                out.writeChar(value);
+            }
+        }
+
+        private static int[] readInts(ByteBuffer in) {
+            int[] values = new int[in.getInt()];
+            in.asIntBuffer().get(values);
+            in.position(in.position() + 4 * values.length);
+            return values;
+        }
+
+        private static char[] readChars(ByteBuffer in) {
+            char[] values = new char[in.getInt()];
+            in.asCharBuffer().get(values);
+            in.position(in.position() + 2 * values.length);
+            return values;
+        }
+    }
+
+    /**
+     * Up to three UTF-16 units and the length in one long; never 0 for a non-empty prefix
+     */
+    private static long prefixKey(char[] chars, int start, int length) {
+        long key = length;
+        for (int i = 0; i < TABLE_PREFIX_CHARS; i++) {
+            key = (key << 16) | (i < length ? chars[start + i] : 0);
+        }
+        return key;
+    }
+
+    private static long prefixKey(String prefix) {
+        long key = prefix.length();
+        for (int i = 0; i < TABLE_PREFIX_CHARS; i++) {
+            key = (key << 16) | (i < prefix.length() ? prefix.charAt(i) : 0);
+        }
+        return key;
+    }
+
+    /**
+     * Slot holding key, or the empty slot where it belongs
+     */
+    private static int findSlot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,514 @@
+package com.cinecraze.free.search;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.cinecraze.free.database.CineCrazeDatabase;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * In-memory, typo-tolerant index over entry titles for search-as-you-type.
+ *
+ * Titles are folded (lowercase, no accents, punctuation as spaces) and split
+ * into the trigrams of each word padded with a space on both sides. A query
+ * matches a title that shares most of its trigrams, so a missing, extra or
+ * wrong letter still finds it ("godfater" finds "The Godfather"). The last
+ * query word is treated as a prefix while the user is typing it.
+ *
+ * Posting lists are packed into int arrays behind an open-addressing table of
+ * trigram keys; nothing is boxed. The index is a large base segment plus a
+ * small delta segment and a deletion bitmap over the base: {@link #update}
+ * only rebuilds the delta, and folds everything into a new base once the
+ * delta grows past {@link #COMPACT_PERCENT} percent of it. Reads see an
+ * immutable snapshot and take no lock.
+ */
+public class TrigramIndex {
+
+    private static final String TAG = "TrigramIndex";
+
+    // Rebuild the base once changed or deleted titles exceed this share of it
+    private static final int COMPACT_PERCENT = 20;
+
+    // Query trigrams beyond this add nothing to the ranking and keep counters in a byte
+    private static final int MAX_QUERY_TRIGRAMS = 64;
+
+    private static TrigramIndex instance;
+
+    private volatile Snapshot snapshot;
+
+    public static synchronized TrigramIndex getInstance() {
+        if (instance == null) {
+            instance = new TrigramIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * True once the first {@link #update} or {@link #refresh} completed
+     */
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    /**
+     * Number of indexed titles
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.liveCount;
+    }
+
+    /**
+     * Bring the index up to date with the entries table. Must not be called on the main thread.
+     */
+    public void refresh(CineCrazeDatabase database) {
+        int[] ids = new int[1024];
+        String[] titles = new String[1024];
+        int count = 0;
+        try (Cursor cursor = database.entryDao().queryTitles()) {
+            while (cursor.moveToNext()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    titles = Arrays.copyOf(titles, count * 2);
+                }
+                ids[count] = cursor.getInt(0);
+                titles[count] = cursor.isNull(1) ? "" : cursor.getString(1);
+                count++;
+            }
+        }
+        update(Arrays.copyOf(ids, count), Arrays.copyOf(titles, count));
+    }
+
+    /**
+     * Replace the indexed titles with the given ones, ids ascending. Titles
+     * that are unchanged since the last update are not re-indexed.
+     */
+    public synchronized void update(int[] ids, String[] titles) {
+        long start = System.nanoTime();
+        Snapshot current = snapshot;
+        Snapshot next = current == null ? Snapshot.full(ids, titles) : current.apply(ids, titles);
+        snapshot = next;
+        Log.d(TAG, "Indexed " + next.liveCount + " titles (" + next.delta.size() + " in delta) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Ids of the titles that best match a query, best first, at most limit of them
+     */
+    public int[] search(String query, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || query == null || limit <= 0) {
+            return new int[0];
+        }
+        String folded = fold(query);
+        long[] trigrams = trigrams(folded, true);
+        if (trigrams.length == 0) {
+            return new int[0];
+        }
+        if (trigrams.length > MAX_QUERY_TRIGRAMS) {
+            trigrams = Arrays.copyOf(trigrams, MAX_QUERY_TRIGRAMS);
+        }
+        TopK top = new TopK(limit);
+        current.base.collect(trigrams, folded, current.deleted, top);
+        current.delta.collect(trigrams, folded, null, top);
+        return top.drain();
+    }
+
+    /**
+     * Lowercase, strip accents and reduce everything but letters and digits to single spaces
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                folded.append(' ');
+                space = true;
+            }
+        }
+        int length = folded.length();
+        if (length > 0 && folded.charAt(length - 1) == ' ') {
+            folded.setLength(length - 1);
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Distinct trigrams of a folded text, sorted. With lastIsPrefix the last
+     * word gets no trailing pad, so a partly typed word still matches.
+     */
+    static long[] trigrams(String folded, boolean lastIsPrefix) {
+        long[] keys = new long[folded.length() + 2];
+        int count = 0;
+        int wordStart = 0;
+        while (wordStart < folded.length()) {
+            int wordEnd = folded.indexOf(' ', wordStart);
+            boolean last = wordEnd < 0;
+            if (last) {
+                wordEnd = folded.length();
+            }
+            // Padded word: ' ' + word + ' ', minus the trailing pad for a prefix
+            int paddedLength = wordEnd - wordStart + (last && lastIsPrefix ? 1 : 2);
+            for (int i = 0; i + 3 <= paddedLength; i++) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                keys[count++] = key(padded(folded, wordStart, wordEnd, i),
+                        padded(folded, wordStart, wordEnd, i + 1),
+                        padded(folded, wordStart, wordEnd, i + 2));
+            }
+            wordStart = wordEnd + 1;
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static char padded(String folded, int wordStart, int wordEnd, int i) {
+        int at = wordStart + i - 1;
+        return at < wordStart || at >= wordEnd ? ' ' : folded.charAt(at);
+    }
+
+    /**
+     * Three UTF-16 units in one long; never 0, folded text has no NUL
+     */
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Base and delta segments with the base rows that were deleted or changed
+     */
+    private static final class Snapshot {
+        final Segment base;
+        final long[] deleted; // bit per base row
+        final Segment delta;
+        final int liveCount;
+
+        Snapshot(Segment base, long[] deleted, Segment delta, int liveCount) {
+            this.base = base;
+            this.deleted = deleted;
+            this.delta = delta;
+            this.liveCount = liveCount;
+        }
+
+        static Snapshot full(int[] ids, String[] titles) {
+            Segment base = Segment.build(ids, titles);
+            return new Snapshot(base, new long[(base.size() + 63) >>> 6], Segment.build(new int[0], new String[0]),
+                    base.size());
+        }
+
+        /**
+         * Diff the new titles against the base: rows missing from the new set
+         * or with a different title are marked deleted, and new or changed
+         * titles make up the delta.
+         */
+        Snapshot apply(int[] ids, String[] titles) {
+            long[] deletedRows = new long[deleted.length];
+            int[] deltaIds = new int[16];
+            String[] deltaTitles = new String[16];
+            int deltaCount = 0;
+            int deletedCount = 0;
+
+            int row = 0;
+            for (int i = 0; i < ids.length; i++) {
+                while (row < base.size() && base.ids[row] < ids[i]) {
+                    deletedRows[row >>> 6] |= 1L << row;
+                    deletedCount++;
+                    row++;
+                }
+                if (row < base.size() && base.ids[row] == ids[i]) {
+                    boolean same = base.titles[row].equals(titles[i]);
+                    if (!same) {
+                        deletedRows[row >>> 6] |= 1L << row;
+                        deletedCount++;
+                    }
+                    row++;
+                    if (same) {
+                        continue;
+                    }
+                }
+                if (deltaCount == deltaIds.length) {
+                    deltaIds = Arrays.copyOf(deltaIds, deltaCount * 2);
+                    deltaTitles = Arrays.copyOf(deltaTitles, deltaCount * 2);
+                }
+                deltaIds[deltaCount] = ids[i];
+                deltaTitles[deltaCount] = titles[i];
+                deltaCount++;
+            }
+            for (; row < base.size(); row++) {
+                deletedRows[row >>> 6] |= 1L << row;
+                deletedCount++;
+            }
+
+            if ((long) (deltaCount + deletedCount) * 100 > (long) base.size() * COMPACT_PERCENT) {
+                return full(ids, titles);
+            }
+            Segment newDelta = Segment.build(Arrays.copyOf(deltaIds, deltaCount), Arrays.copyOf(deltaTitles, deltaCount));
+            return new Snapshot(base, deletedRows, newDelta, ids.length);
+        }
+    }
+
+    /**
+     * Immutable packed index over a set of titles
+     */
+    private static final class Segment {
+        final int[] ids;          // ascending
+        final String[] titles;    // as stored
+        final String[] folded;
+        final int[] trigramCounts;
+
+        // Open-addressing table from trigram key to term number
+        final long[] slotKeys;
+        final int[] slotTerms;
+        final int slotShift;
+
+        // Rows of term t are postings[postingStart[t] .. postingStart[t + 1])
+        final int[] postingStart;
+        final int[] postings;
+
+        private Segment(int[] ids, String[] titles, String[] folded, int[] trigramCounts, long[] slotKeys,
+                        int[] slotTerms, int slotShift, int[] postingStart, int[] postings) {
+            this.ids = ids;
+            this.titles = titles;
+            this.folded = folded;
+            this.trigramCounts = trigramCounts;
+            this.slotKeys = slotKeys;
+            this.slotTerms = slotTerms;
+            this.slotShift = slotShift;
+            this.postingStart = postingStart;
+            this.postings = postings;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        static Segment build(int[] ids, String[] titles) {
+            int rows = ids.length;
+            String[] folded = new String[rows];
+            int[] trigramCounts = new int[rows];
+            long[][] rowTrigrams = new long[rows][];
+            int total = 0;
+            for (int row = 0; row < rows; row++) {
+                folded[row] = fold(titles[row]);
+                rowTrigrams[row] = trigrams(folded[row], false);
+                trigramCounts[row] = rowTrigrams[row].length;
+                total += trigramCounts[row];
+            }
+
+            // Table at most half full
+            int bits = 4;
+            while ((1 << bits) < total * 2 && bits < 30) {
+                bits++;
+            }
+            long[] slotKeys = new long[1 << bits];
+            int[] slotTerms = new int[1 << bits];
+            int slotShift = 64 - bits;
+            int[] termRows = new int[64];
+            int terms = 0;
+            int[] rowTerms = new int[total];
+            int at = 0;
+            for (int row = 0; row < rows; row++) {
+                for (long key : rowTrigrams[row]) {
+                    int slot = slot(key, slotShift);
+                    while (slotKeys[slot] != 0 && slotKeys[slot] != key) {
+                        slot = (slot + 1) & (slotKeys.length - 1);
+                    }
+                    if (slotKeys[slot] == 0) {
+                        slotKeys[slot] = key;
+                        slotTerms[slot] = terms;
+                        if (terms == termRows.length) {
+                            termRows = Arrays.copyOf(termRows, terms * 2);
+                        }
+                        termRows[terms++] = 0;
+                    }
+                    int term = slotTerms[slot];
+                    termRows[term]++;
+                    rowTerms[at++] = term;
+                }
+            }
+
+            int[] postingStart = new int[terms + 1];
+            for (int term = 0; term < terms; term++) {
+                postingStart[term + 1] = postingStart[term] + termRows[term];
+            }
+            int[] fill = Arrays.copyOf(postingStart, terms);
+            int[] postings = new int[total];
+            at = 0;
+            for (int row = 0; row < rows; row++) {
+                for (int i = 0; i < trigramCounts[row]; i++) {
+                    postings[fill[rowTerms[at++]]++] = row;
+                }
+            }
+            return new Segment(ids, titles, folded, trigramCounts, slotKeys, slotTerms, slotShift,
+                    postingStart, postings);
+        }
+
+        private static int slot(long key, int shift) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        private int term(long key) {
+            int slot = slot(key, slotShift);
+            while (slotKeys[slot] != 0) {
+                if (slotKeys[slot] == key) {
+                    return slotTerms[slot];
+                }
+                slot = (slot + 1) & (slotKeys.length - 1);
+            }
+            return -1;
+        }
+
+        /**
+         * Count shared trigrams per row and offer every row sharing enough of
+         * them to top, skipping rows marked in deleted
+         */
+        void collect(long[] queryTrigrams, String foldedQuery, long[] deleted, TopK top) {
+            if (ids.length == 0) {
+                return;
+            }
+            int queryCount = queryTrigrams.length;
+            // About one edit per word still matches; short queries must match fully
+            int minShared = (queryCount * 3 + 4) / 5;
+            byte[] shared = new byte[ids.length];
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            for (long key : queryTrigrams) {
+                int term = term(key);
+                if (term < 0) {
+                    continue;
+                }
+                for (int p = postingStart[term]; p < postingStart[term + 1]; p++) {
+                    int row = postings[p];
+                    if (shared[row]++ == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = row;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                int row = touched[i];
+                int hits = shared[row];
+                if (hits < minShared || (deleted != null && (deleted[row >>> 6] & (1L << row)) != 0)) {
+                    continue;
+                }
+                top.offer(ids[row], score(hits, queryCount, trigramCounts[row], folded[row], foldedQuery));
+            }
+        }
+    }
+
+    /**
+     * Share of the query found, plus similarity of the whole title so shorter
+     * close matches win, plus a bonus when the query appears as typed
+     */
+    static float score(int shared, int queryTrigrams, int titleTrigrams, String foldedTitle, String foldedQuery) {
+        float coverage = (float) shared / queryTrigrams;
+        float dice = 2f * shared / (queryTrigrams + titleTrigrams);
+        float exact = 0f;
+        if (foldedTitle.startsWith(foldedQuery)) {
+            exact = 1f;
+        } else if (foldedTitle.contains(foldedQuery)) {
+            exact = 0.5f;
+        }
+        return coverage + 0.5f * dice + exact;
+    }
+
+    /**
+     * Bounded min-heap of (score, id); ties go to the lower id
+     */
+    static final class TopK {
+        private final float[] scores;
+        private final int[] ids;
+        private int size;
+
+        TopK(int limit) {
+            scores = new float[limit];
+            ids = new int[limit];
+        }
+
+        void offer(int id, float score) {
+            if (size < ids.length) {
+                scores[size] = score;
+                ids[size] = id;
+                siftUp(size++);
+            } else if (worse(0, score, id)) {
+                scores[0] = score;
+                ids[0] = id;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Ids best first; empties the heap
+         */
+        int[] drain() {
+            int[] ranked = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = ids[0];
+                size--;
+                scores[0] = scores[size];
+                ids[0] = ids[size];
+                siftDown(0);
+            }
+            return ranked;
+        }
+
+        // True when the entry at i ranks below (score, id)
+        private boolean worse(int i, float score, int id) {
+            return scores[i] < score || (scores[i] == score && ids[i] > id);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, scores[parent], ids[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && worse(left + 1, scores[left], ids[left]) ? left + 1 : left;
+                if (!worse(child, scores[i], ids[i])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+}
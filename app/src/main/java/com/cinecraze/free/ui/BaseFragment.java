@@ -11,6 +11,8 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -22,8 +24,11 @@ import com.cinecraze.free.FilterSpinner;
 import com.cinecraze.free.FragmentMainActivity;
 import com.cinecraze.free.MovieAdapter;
 import com.cinecraze.free.R;
+import com.cinecraze.free.concurrent.ResultCallback;
 import com.cinecraze.free.models.Entry;
 import com.cinecraze.free.repository.DataRepository;
+import com.cinecraze.free.repository.PagePrefetcher;
+import com.cinecraze.free.search.FacetCube;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
@@ -35,12 +40,13 @@ public abstract class BaseFragment extends Fragment {
     protected RecyclerView recyclerView;
     protected SwipeRefreshLayout swipeRefreshLayout;
     protected MovieAdapter movieAdapter;
-    protected List<Entry> currentPageEntries = new ArrayList<>();
+    protected PagedEntryList pagedEntries;
+    protected RecyclerView.Adapter<?> headerAdapter; // Items above the entries, e.g. the home rows; null for none
     protected ViewPager2 carouselViewPager;
     protected CarouselAdapter carouselAdapter;
     protected FloatingActionButton fabViewMode;
     
-    // Floating Pagination Layout
+    // Floating Pagination Layout (kept hidden; pages load as the list scrolls)
     protected LinearLayout floatingPaginationLayout;
     protected ImageView btnPreviousPage;
     protected ImageView btnNextPage;
@@ -61,12 +67,11 @@ public abstract class BaseFragment extends Fragment {
 
     protected boolean isGridView = true;
     protected DataRepository dataRepository;
+    protected PagePrefetcher pagePrefetcher;
     
     // Pagination variables
-    protected int currentPage = 0;
     protected int pageSize = 20;
     protected boolean hasMorePages = false;
-    protected int totalCount = 0;
     protected String currentCategory = "";
     protected String currentSearchQuery = "";
 
@@ -80,6 +85,20 @@ public abstract class BaseFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         dataRepository = new DataRepository(getContext());
+        dataRepository.setCountTotals(false); // Nothing here shows a total; paging needs only hasMorePages
+        dataRepository.bindToLifecycle(getViewLifecycleOwner());
+        pagePrefetcher = new PagePrefetcher(getContext());
+        pagedEntries = new PagedEntryList(pageSize, new PagedList.Listener<Entry>() {
+            @Override
+            public void onPageLoaded(int page, List<Entry> entries, boolean hasMorePages) {
+                updatePageData(page, entries);
+            }
+
+            @Override
+            public void onPageError(int page, String error) {
+                handlePageLoadError(error);
+            }
+        });
         initializeViews(view);
         setupRecyclerView();
         setupCarousel();
@@ -90,16 +109,28 @@ public abstract class BaseFragment extends Fragment {
         loadInitialData();
     }
 
+    @Override
+    public void onDestroyView() {
+        if (pagePrefetcher != null) {
+            pagePrefetcher.cancel();
+        }
+        if (pagedEntries != null) {
+            pagedEntries.cancel();
+        }
+        super.onDestroyView();
+    }
+
     protected abstract void initializeViews(View view);
     protected abstract String getCategory();
     protected abstract int getLayoutId();
 
     protected void setupRecyclerView() {
         if (recyclerView != null) {
-            movieAdapter = new MovieAdapter(getContext(), currentPageEntries, isGridView);
+            movieAdapter = new MovieAdapter(getContext(), pagedEntries, isGridView);
+            pagedEntries.setUpdateCallback(new AdapterListUpdateCallback(movieAdapter));
             updateViewMode();
             
-            // Add scroll listener to show pagination only when scrolling to bottom and to hide/show bottom navigation
+            // Add scroll listener to load pages around the visible rows and to hide/show bottom navigation
             recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
                 private int lastDy = 0;
 
@@ -107,17 +138,12 @@ public abstract class BaseFragment extends Fragment {
                 public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
                     super.onScrolled(recyclerView, dx, dy);
 
-                    // Check if user has scrolled to bottom and there are 20+ items
-                    if (!recyclerView.canScrollVertically(1) && totalCount > 20) {
-                        // User has scrolled to bottom and there are more than 20 items
-                        if (floatingPaginationLayout != null) {
-                            floatingPaginationLayout.setVisibility(View.VISIBLE);
-                        }
-                    } else {
-                        // Hide pagination when not at bottom
-                        if (floatingPaginationLayout != null) {
-                            floatingPaginationLayout.setVisibility(View.GONE);
-                        }
+                    // Also called after every layout, so pages that land below the fold are followed up
+                    if (recyclerView.getLayoutManager() instanceof LinearLayoutManager) {
+                        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                        int header = headerCount();
+                        pagedEntries.onVisibleRange(Math.max(0, layoutManager.findFirstVisibleItemPosition() - header),
+                                layoutManager.findLastVisibleItemPosition() - header);
                     }
 
                     // Hide/show bottom navigation
@@ -162,17 +188,28 @@ public abstract class BaseFragment extends Fragment {
     protected void updateViewMode() {
         if (recyclerView != null && movieAdapter != null) {
             if (isGridView) {
-                recyclerView.setLayoutManager(new GridLayoutManager(getContext(), 2));
+                GridLayoutManager grid = new GridLayoutManager(getContext(), 2);
+                grid.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+                    @Override
+                    public int getSpanSize(int position) {
+                        return position < headerCount() ? grid.getSpanCount() : 1; // Header items span the grid
+                    }
+                });
+                recyclerView.setLayoutManager(grid);
                 if (fabViewMode != null) fabViewMode.setImageResource(R.drawable.ic_grid_view);
             } else {
                 recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
                 if (fabViewMode != null) fabViewMode.setImageResource(R.drawable.ic_list_view);
             }
             movieAdapter.setGridView(isGridView);
-            recyclerView.setAdapter(movieAdapter);
+            recyclerView.setAdapter(headerAdapter != null ? new ConcatAdapter(headerAdapter, movieAdapter) : movieAdapter);
         }
     }
 
+    private int headerCount() {
+        return headerAdapter != null ? headerAdapter.getItemCount() : 0;
+    }
+
     protected void setupViewSwitch() {
         if (fabViewMode != null) {
             fabViewMode.setOnClickListener(v -> {
@@ -183,22 +220,9 @@ public abstract class BaseFragment extends Fragment {
     }
 
     protected void setupPagination() {
-        if (btnPreviousPage != null) {
-            btnPreviousPage.setOnClickListener(v -> {
-                if (currentPage > 0) {
-                    currentPage--;
-                    loadPageData();
-                }
-            });
-        }
-
-        if (btnNextPage != null) {
-            btnNextPage.setOnClickListener(v -> {
-                if (hasMorePages) {
-                    currentPage++;
-                    loadPageData();
-                }
-            });
+        // The list loads further pages as it scrolls, so the page buttons are not shown
+        if (floatingPaginationLayout != null) {
+            floatingPaginationLayout.setVisibility(View.GONE);
         }
     }
 
@@ -228,7 +252,6 @@ public abstract class BaseFragment extends Fragment {
                     }
 
                     // Reset pagination and apply filters
-                    currentPage = 0;
                     currentSearchQuery = ""; // Clear search when filtering
                     loadPageData();
                 };
@@ -262,20 +285,27 @@ public abstract class BaseFragment extends Fragment {
     protected void populateFilterSpinners() {
         if (dataRepository == null) return;
         
-        // Get unique values from repository and populate spinners
-        List<String> genres = dataRepository.getUniqueGenres();
-        List<String> countries = dataRepository.getUniqueCountries();
-        List<String> years = dataRepository.getUniqueYears();
-        
-        if (genreSpinner != null) {
-            genreSpinner.updateFilterValues(genres);
-        }
-        if (countrySpinner != null) {
-            countrySpinner.updateFilterValues(countries);
-        }
-        if (yearSpinner != null) {
-            yearSpinner.updateFilterValues(years);
-        }
+        // Every facet with its hit count under the other filters, from one lookup
+        dataRepository.getFacetCounts(currentCategory, currentGenreFilter, currentCountryFilter, currentYearFilter,
+                new ResultCallback<FacetCube.Counts>() {
+            @Override
+            public void onSuccess(FacetCube.Counts counts) {
+                if (genreSpinner != null) {
+                    genreSpinner.updateFacetValues(counts.genres, counts.allGenres);
+                }
+                if (countrySpinner != null) {
+                    countrySpinner.updateFacetValues(counts.countries, counts.allCountries);
+                }
+                if (yearSpinner != null) {
+                    yearSpinner.updateFacetValues(counts.years, counts.allYears);
+                }
+            }
+            
+            @Override
+            public void onError(String error) {
+                // Spinners keep the values they had
+            }
+        });
     }
     
     protected void dismissAllSpinners() {
@@ -293,7 +323,6 @@ public abstract class BaseFragment extends Fragment {
     protected void setupSwipeRefresh() {
         if (swipeRefreshLayout != null) {
             swipeRefreshLayout.setOnRefreshListener(() -> {
-                currentPage = 0;
                 currentSearchQuery = "";
                 // Force fetch latest data from API, then reload the current page from cache
                 if (dataRepository != null) {
@@ -326,8 +355,6 @@ public abstract class BaseFragment extends Fragment {
     }
 
     protected void loadInitialData() {
-        currentPage = 0;
-        
         // Ensure data is available before loading
         dataRepository.ensureDataAvailable(new DataRepository.DataCallback() {
             @Override
@@ -346,6 +373,11 @@ public abstract class BaseFragment extends Fragment {
                     });
                 }
             }
+        }, (url, entryCount) -> {
+            // Show the first playlist that lands instead of waiting for the whole download
+            if (pagedEntries.isEmpty() && entryCount > 0) {
+                loadPageData();
+            }
         });
     }
 
@@ -354,106 +386,90 @@ public abstract class BaseFragment extends Fragment {
         
         isLoading = true;
         
-        // Use DataRepository's paginated methods for better performance
+        // Start the list over with the current query; further pages load as it scrolls
+        pagedEntries.reset(currentPageLoader());
+    }
+    
+    /**
+     * Query type and parameters of the pages loadPageData loads
+     */
+    protected String currentQueryShape() {
         if (hasActiveFilters()) {
-            loadFilteredPageData();
+            return "filtered\u0000" + currentCategory + "\u0000" + currentGenreFilter
+                    + "\u0000" + currentCountryFilter + "\u0000" + currentYearFilter;
         } else if (!currentSearchQuery.isEmpty()) {
-            loadSearchPageData();
+            return "search\u0000" + currentSearchQuery;
         } else if (!currentCategory.isEmpty()) {
-            loadCategoryPageData();
-        } else {
-            loadAllPageData();
+            return "category\u0000" + currentCategory;
+        }
+        return "all";
+    }
+
+    /**
+     * Loader for other pages of the current query, with its parameters captured
+     */
+    protected PagePrefetcher.PageLoader currentPageLoader() {
+        final String category = currentCategory;
+        final String search = currentSearchQuery;
+        final String genre = currentGenreFilter;
+        final String country = currentCountryFilter;
+        final String year = currentYearFilter;
+        final int size = pageSize;
+        if (hasActiveFilters()) {
+            return (page, callback) -> dataRepository.getPaginatedFilteredData(category, genre, country, year,
+                    page, size, callback);
+        } else if (!search.isEmpty()) {
+            return (page, callback) -> dataRepository.searchPaginated(search, page, size, callback);
+        } else if (!category.isEmpty()) {
+            return (page, callback) -> dataRepository.getPaginatedDataByCategory(category, page, size, callback);
         }
+        return (page, callback) -> dataRepository.getPaginatedData(page, size, callback);
     }
     
     protected boolean hasActiveFilters() {
         return currentGenreFilter != null || currentCountryFilter != null || currentYearFilter != null;
     }
     
-    protected void loadAllPageData() {
-        dataRepository.getPaginatedData(currentPage, pageSize, new DataRepository.PaginatedDataCallback() {
-            @Override
-            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
-                updatePageData(entries, hasMorePages, totalCount);
-            }
-            
-            @Override
-            public void onError(String error) {
-                handlePageLoadError(error);
-            }
-        });
-    }
-    
-    protected void loadCategoryPageData() {
-        dataRepository.getPaginatedDataByCategory(currentCategory, currentPage, pageSize, new DataRepository.PaginatedDataCallback() {
-            @Override
-            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
-                updatePageData(entries, hasMorePages, totalCount);
-            }
-            
-            @Override
-            public void onError(String error) {
-                handlePageLoadError(error);
-            }
-        });
-    }
-    
-    protected void loadSearchPageData() {
-        dataRepository.searchPaginated(currentSearchQuery, currentPage, pageSize, new DataRepository.PaginatedDataCallback() {
-            @Override
-            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
-                updatePageData(entries, hasMorePages, totalCount);
-            }
-            
-            @Override
-            public void onError(String error) {
-                handlePageLoadError(error);
-            }
-        });
-    }
-    
-    protected void loadFilteredPageData() {
-        dataRepository.getPaginatedFilteredData(currentGenreFilter, currentCountryFilter, currentYearFilter, 
-                currentPage, pageSize, new DataRepository.PaginatedDataCallback() {
-            @Override
-            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
-                updatePageData(entries, hasMorePages, totalCount);
-            }
-            
-            @Override
-            public void onError(String error) {
-                handlePageLoadError(error);
-            }
-        });
-    }
-    
-    protected void updatePageData(List<Entry> entries, boolean hasMorePages, int totalCount) {
+    protected void updatePageData(int page, List<Entry> entries) {
         if (getActivity() == null) return;
         
-        getActivity().runOnUiThread(() -> {
-            this.hasMorePages = hasMorePages;
-            this.totalCount = totalCount;
-            this.isLoading = false;
-            
-            currentPageEntries.clear();
-            currentPageEntries.addAll(entries);
-            
-            if (movieAdapter != null) {
-                movieAdapter.setEntryList(currentPageEntries);
-            }
-            updatePaginationUI();
-            
-            if (swipeRefreshLayout != null) {
-                swipeRefreshLayout.setRefreshing(false);
-            }
-            
-            // Load carousel data if this is the first page and home fragment
-            if (currentPage == 0 && carouselAdapter != null && getCategory().isEmpty()) {
-                List<Entry> topRatedEntries = dataRepository.getTopRatedEntries(10);
-                carouselAdapter.setEntries(topRatedEntries);
-                carouselAdapter.notifyDataSetChanged();
-            }
-        });
+        this.hasMorePages = pagedEntries.hasMorePages();
+        
+        // Read the page after the one that just landed ahead of the scroll
+        if (pagePrefetcher != null) {
+            pagePrefetcher.onPageShown(currentQueryShape(), page, pagedEntries.hasMorePages(), currentPageLoader());
+        }
+        if (!isLoading) {
+            return; // Not the first page of a new query
+        }
+        
+        this.isLoading = false;
+        if (swipeRefreshLayout != null) {
+            swipeRefreshLayout.setRefreshing(false);
+        }
+        
+        // Load carousel data for the home fragment along with the first page
+        if (carouselAdapter != null && getCategory().isEmpty()) {
+            dataRepository.getTopRatedEntries(10, new DataRepository.DataCallback() {
+                @Override
+                public void onSuccess(List<Entry> topRatedEntries) {
+                    carouselAdapter.setEntries(topRatedEntries);
+                    carouselAdapter.notifyDataSetChanged();
+                }
+                
+                @Override
+                public void onError(String error) {
+                    // Keep the carousel as it is
+                }
+            });
+        }
+        onFirstPageShown();
+    }
+
+    /**
+     * Called when the first page of a new query or a refresh is shown, e.g. to reload ranked rows
+     */
+    protected void onFirstPageShown() {
     }
     
     protected void handlePageLoadError(String error) {
@@ -468,102 +484,8 @@ public abstract class BaseFragment extends Fragment {
         });
     }
     
-    protected void loadPageDataOld() {
-        if (getActivity() == null) return;
-        
-        new Thread(() -> {
-            try {
-                List<Entry> allEntries;
-                
-                if (currentSearchQuery.isEmpty()) {
-                    if (currentCategory.isEmpty()) {
-                        allEntries = dataRepository.getAllCachedEntries();
-                    } else {
-                        allEntries = dataRepository.getEntriesByCategory(currentCategory);
-                    }
-                } else {
-                    allEntries = dataRepository.searchByTitle(currentSearchQuery);
-                }
-                
-                // Calculate pagination
-                final int totalItems = allEntries.size();
-                final int startIndex = currentPage * pageSize;
-                final int endIndex = Math.min(startIndex + pageSize, totalItems);
-                
-                final List<Entry> pageEntries = new ArrayList<>();
-                if (startIndex < totalItems) {
-                    pageEntries.addAll(allEntries.subList(startIndex, endIndex));
-                }
-                
-                final boolean hasMore = endIndex < totalItems;
-                
-                // Prepare carousel data if needed
-                final List<Entry> carouselEntries = new ArrayList<>();
-                if (currentPage == 0 && !pageEntries.isEmpty()) {
-                    int carouselSize = Math.min(5, pageEntries.size());
-                    for (int i = 0; i < carouselSize; i++) {
-                        carouselEntries.add(pageEntries.get(i));
-                    }
-                }
-                
-                // Update UI on main thread
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        currentPageEntries.clear();
-                        currentPageEntries.addAll(pageEntries);
-                        if (movieAdapter != null) {
-                            movieAdapter.notifyDataSetChanged();
-                        }
-                        
-                        totalCount = totalItems;
-                        hasMorePages = hasMore;
-                        updatePaginationButtons();
-                        
-                        if (swipeRefreshLayout != null) {
-                            swipeRefreshLayout.setRefreshing(false);
-                        }
-                        
-                        // Load carousel data if this is the first page
-                        if (currentPage == 0 && carouselAdapter != null && !carouselEntries.isEmpty()) {
-                            carouselAdapter.setEntries(carouselEntries);
-                            carouselAdapter.notifyDataSetChanged();
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        if (swipeRefreshLayout != null) {
-                            swipeRefreshLayout.setRefreshing(false);
-                        }
-                        Toast.makeText(getContext(), "Error loading data: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    });
-                }
-            }
-        }).start();
-    }
-
-    protected void updatePaginationUI() {
-        // Only update button states, not visibility (visibility is controlled by scroll listener)
-        if (btnPreviousPage != null && btnNextPage != null) {
-            boolean canGoPrevious = currentPage > 0 && !isLoading;
-            boolean canGoNext = hasMorePages && !isLoading && ((currentPage + 1) * pageSize < totalCount);
-            
-            btnPreviousPage.setEnabled(canGoPrevious);
-            btnPreviousPage.setAlpha(canGoPrevious ? 1.0f : 0.3f);
-            
-            btnNextPage.setEnabled(canGoNext);
-            btnNextPage.setAlpha(canGoNext ? 1.0f : 0.3f);
-        }
-    }
-    
-    protected void updatePaginationButtons() {
-        updatePaginationUI();
-    }
-
     protected void filterByQuery(String query) {
         currentSearchQuery = query;
-        currentPage = 0;
         loadPageData();
     }
 
@@ -574,17 +496,36 @@ public abstract class BaseFragment extends Fragment {
 
     private void triggerBackgroundRefreshIfNeeded() {
         if (dataRepository == null) return;
-        final int beforeCount = dataRepository.getTotalEntriesCount();
+        dataRepository.getTotalEntriesCount(new ResultCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer beforeCount) {
+                refreshAndReloadIfChanged(beforeCount);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Silent fail; keep cached data
+            }
+        });
+    }
+
+    private void refreshAndReloadIfChanged(int beforeCount) {
         dataRepository.forceRefreshData(new DataRepository.DataCallback() {
             @Override
             public void onSuccess(List<Entry> entries) {
-                int afterCount = dataRepository.getTotalEntriesCount();
-                if (afterCount != beforeCount && getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        currentPage = 0;
-                        loadPageData();
-                    });
-                }
+                dataRepository.getTotalEntriesCount(new ResultCallback<Integer>() {
+                    @Override
+                    public void onSuccess(Integer afterCount) {
+                        if (afterCount != beforeCount && getActivity() != null) {
+                            loadPageData();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        // Silent fail; keep cached data
+                    }
+                });
             }
 
             @Override
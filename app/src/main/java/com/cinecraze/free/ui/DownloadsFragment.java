@@ -19,6 +19,9 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.cinecraze.free.R;
+import com.cinecraze.free.concurrent.AppExecutors;
+import com.cinecraze.free.concurrent.ResultCallback;
+import com.cinecraze.free.concurrent.TaskScope;
 import com.cinecraze.free.database.CineCrazeDatabase;
 import com.cinecraze.free.database.entities.DownloadItemEntity;
 
@@ -30,6 +33,8 @@ public class DownloadsFragment extends Fragment {
     private RecyclerView recyclerView;
     private DownloadsListAdapter adapter;
     private Handler handler;
+    private TaskScope scope;
+    private boolean refreshing;
     private final Runnable poller = new Runnable() {
         @Override public void run() { refreshStatuses(); handler.postDelayed(this, 1000); }
     };
@@ -50,19 +55,45 @@ public class DownloadsFragment extends Fragment {
         adapter = new DownloadsListAdapter(getContext());
         recyclerView.setAdapter(adapter);
         handler = new Handler(Looper.getMainLooper());
+        scope = new TaskScope().bindTo(getViewLifecycleOwner());
+        refreshing = false;
     }
 
     @Override public void onResume() { super.onResume(); loadItems(); handler.post(poller); }
     @Override public void onPause() { super.onPause(); handler.removeCallbacks(poller); }
 
     private void loadItems() {
-        List<DownloadItemEntity> items = CineCrazeDatabase.getInstance(getContext()).downloadItemDao().getAll();
-        adapter.setItems(items);
+        Context ctx = getContext();
+        if (ctx == null) return;
+        scope.submit(AppExecutors.dbRead(), () -> CineCrazeDatabase.getInstance(ctx).downloadItemDao().getAll(), itemsCallback());
     }
 
     private void refreshStatuses() {
         Context ctx = getContext();
-        if (ctx == null) return;
+        if (ctx == null || refreshing) return; // Skip a tick rather than queue polls behind a slow one
+        refreshing = true;
+        scope.submit(AppExecutors.dbWrite(), () -> readStatuses(ctx), itemsCallback());
+    }
+
+    private ResultCallback<List<DownloadItemEntity>> itemsCallback() {
+        return new ResultCallback<List<DownloadItemEntity>>() {
+            @Override
+            public void onSuccess(List<DownloadItemEntity> items) {
+                refreshing = false;
+                adapter.setItems(items);
+            }
+
+            @Override
+            public void onError(String error) {
+                refreshing = false;
+            }
+        };
+    }
+
+    /**
+     * Copy DownloadManager progress into the stored items. Runs on the database write pool.
+     */
+    private static List<DownloadItemEntity> readStatuses(Context ctx) {
         List<DownloadItemEntity> items = CineCrazeDatabase.getInstance(ctx).downloadItemDao().getAll();
         DownloadManager dm = (DownloadManager) ctx.getSystemService(Context.DOWNLOAD_SERVICE);
         for (DownloadItemEntity item : items) {
@@ -82,7 +113,7 @@ public class DownloadsFragment extends Fragment {
                 }
             } catch (Exception ignored) {}
         }
-        adapter.setItems(items);
+        return items;
     }
 
     private static class DownloadsListAdapter extends RecyclerView.Adapter<DownloadsListAdapter.Holder> {
@@ -9,9 +9,26 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.cinecraze.free.R;
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.repository.DataRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class HomeFragment extends BaseFragment {
 
+    // Entries per home row; the rankings keep more, so every row is a map lookup once read
+    private static final int ROW_SIZE = 15;
+
+    // Main categories with a top rated row, as filed by the playlists
+    private static final String[] ROW_CATEGORIES = {"Movies", "TV Series", "Live TV"};
+    private static final String[] ROW_TITLES = {"Top Movies", "Top Series", "Top Live TV"};
+
+    private HomeRowsAdapter rowsAdapter;
+    private int rowsRequest; // ignores rows of an earlier request that land late
+
     public static HomeFragment newInstance() {
         return new HomeFragment();
     }
@@ -38,6 +55,65 @@ public class HomeFragment extends BaseFragment {
         btnGenreFilter = view.findViewById(R.id.btn_genre_filter);
         btnCountryFilter = view.findViewById(R.id.btn_country_filter);
         btnYearFilter = view.findViewById(R.id.btn_year_filter);
+        
+        // Ranked rows above the grid, scrolling away with it
+        rowsAdapter = new HomeRowsAdapter(getContext());
+        headerAdapter = rowsAdapter;
+    }
+
+    /**
+     * Reload the newest and per-category top rated rows. They are hidden while
+     * a search or filter narrows the grid.
+     */
+    @Override
+    protected void onFirstPageShown() {
+        int request = ++rowsRequest;
+        if (hasActiveFilters() || !currentSearchQuery.isEmpty()) {
+            rowsAdapter.setRows(new ArrayList<>());
+            return;
+        }
+        List<String> titles = new ArrayList<>();
+        titles.add("New Releases");
+        titles.addAll(Arrays.asList(ROW_TITLES));
+        List<List<Entry>> loaded = new ArrayList<>(Collections.nCopies(titles.size(), (List<Entry>) null));
+        dataRepository.getNewestEntries(ROW_SIZE, rowCallback(request, titles, loaded, 0));
+        for (int i = 0; i < ROW_CATEGORIES.length; i++) {
+            dataRepository.getTopRatedEntries(ROW_CATEGORIES[i], ROW_SIZE, rowCallback(request, titles, loaded, i + 1));
+        }
+    }
+
+    /**
+     * Stores one row's entries and shows the rows once all of them landed
+     */
+    private DataRepository.DataCallback rowCallback(int request, List<String> titles, List<List<Entry>> loaded, int index) {
+        return new DataRepository.DataCallback() {
+            @Override
+            public void onSuccess(List<Entry> entries) {
+                land(entries);
+            }
+
+            @Override
+            public void onError(String error) {
+                land(new ArrayList<>());
+            }
+
+            private void land(List<Entry> entries) {
+                if (request != rowsRequest) {
+                    return;
+                }
+                loaded.set(index, entries);
+                if (loaded.contains(null)) {
+                    return;
+                }
+                List<HomeRowsAdapter.Row> rows = new ArrayList<>();
+                for (int i = 0; i < titles.size(); i++) {
+                    if (!loaded.get(i).isEmpty()) {
+                        rows.add(new HomeRowsAdapter.Row(titles.get(i), loaded.get(i)));
+                    }
+                }
+                rowsAdapter.setRows(rows);
+            }
+        };
     }
 
     @Override
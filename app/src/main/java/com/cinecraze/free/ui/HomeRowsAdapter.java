@@ -0,0 +1,128 @@
+package com.cinecraze.free.ui;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.cinecraze.free.DetailsActivity;
+import com.cinecraze.free.R;
+import com.cinecraze.free.models.Entry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontal rows of ranked entries shown above the home grid, one item per
+ * row. Rows without entries are not shown.
+ */
+public class HomeRowsAdapter extends RecyclerView.Adapter<HomeRowsAdapter.RowHolder> {
+
+    static class Row {
+        final String title;
+        final List<Entry> entries;
+
+        Row(String title, List<Entry> entries) {
+            this.title = title;
+            this.entries = entries;
+        }
+    }
+
+    private final Context context;
+    private final RecyclerView.RecycledViewPool tilePool = new RecyclerView.RecycledViewPool();
+    private List<Row> rows = new ArrayList<>();
+
+    public HomeRowsAdapter(Context context) {
+        this.context = context;
+    }
+
+    void setRows(List<Row> rows) {
+        this.rows = rows;
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_home_row, parent, false);
+        return new RowHolder(view, tilePool);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        Row row = rows.get(position);
+        holder.title.setText(row.title);
+        holder.tiles.setEntries(row.entries);
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows.size();
+    }
+
+    static class RowHolder extends RecyclerView.ViewHolder {
+        final TextView title;
+        final TileAdapter tiles;
+
+        RowHolder(View itemView, RecyclerView.RecycledViewPool tilePool) {
+            super(itemView);
+            title = itemView.findViewById(R.id.row_title);
+            RecyclerView list = itemView.findViewById(R.id.row_list);
+            list.setLayoutManager(new LinearLayoutManager(itemView.getContext(), LinearLayoutManager.HORIZONTAL, false));
+            list.setRecycledViewPool(tilePool); // Rows share their tile views
+            tiles = new TileAdapter(itemView.getContext());
+            list.setAdapter(tiles);
+        }
+    }
+
+    private static class TileAdapter extends RecyclerView.Adapter<TileAdapter.TileHolder> {
+        private final Context context;
+        private List<Entry> entries = new ArrayList<>();
+
+        TileAdapter(Context context) {
+            this.context = context;
+        }
+
+        void setEntries(List<Entry> entries) {
+            this.entries = entries;
+            notifyDataSetChanged();
+        }
+
+        @NonNull
+        @Override
+        public TileHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new TileHolder(LayoutInflater.from(context).inflate(R.layout.item_home_row_tile, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TileHolder holder, int position) {
+            Entry entry = entries.get(position);
+            holder.title.setText(entry.getTitle());
+            Glide.with(context).load(entry.getPoster()).into(holder.poster);
+            holder.itemView.setOnClickListener(v -> DetailsActivity.start(context, entry));
+        }
+
+        @Override
+        public int getItemCount() {
+            return entries.size();
+        }
+
+        static class TileHolder extends RecyclerView.ViewHolder {
+            final ImageView poster;
+            final TextView title;
+
+            TileHolder(View itemView) {
+                super(itemView);
+                poster = itemView.findViewById(R.id.poster);
+                title = itemView.findViewById(R.id.title);
+            }
+        }
+    }
+}
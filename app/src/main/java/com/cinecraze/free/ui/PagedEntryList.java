@@ -0,0 +1,44 @@
+package com.cinecraze.free.ui;
+
+import com.cinecraze.free.models.Entry;
+import com.cinecraze.free.repository.DataRepository;
+import com.cinecraze.free.repository.PagePrefetcher;
+
+import java.util.List;
+
+/**
+ * Entries of one query for an endlessly scrolling list, loaded a page at a
+ * time as the list nears its end. The size starts at zero and grows with
+ * every new page; see {@link PagedList} for which pages are held.
+ */
+public class PagedEntryList extends PagedList<Entry> {
+
+    private PagePrefetcher.PageLoader loader;
+
+    public PagedEntryList(int pageSize, Listener<Entry> listener) {
+        super(pageSize, 0, listener);
+    }
+
+    /**
+     * Start over with another query and load its first page
+     */
+    public void reset(PagePrefetcher.PageLoader loader) {
+        this.loader = loader;
+        restart();
+    }
+
+    @Override
+    void loadPage(int page, int ticket) {
+        loader.load(page, new DataRepository.PaginatedDataCallback() {
+            @Override
+            public void onSuccess(List<Entry> entries, boolean hasMorePages, int totalCount) {
+                deliver(ticket, page, entries, hasMorePages);
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(ticket, page, error);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.cinecraze.free.ui;
+
+import com.cinecraze.free.concurrent.ResultCallback;
+import com.cinecraze.free.models.Episode;
+
+import java.util.List;
+
+/**
+ * Episodes of one cached season, read a window at a time as the list
+ * scrolls, for series with thousands of episodes.
+ *
+ * The size is the season's episode count from the start, so any position can
+ * be scrolled to directly, e.g. to jump to an episode; see {@link PagedList}
+ * for which pages are held.
+ */
+public class PagedEpisodeList extends PagedList<Episode> {
+
+    public static final int PAGE_SIZE = 50;
+
+    /**
+     * Reads count episodes from position from on
+     */
+    public interface WindowLoader {
+        void load(int from, int count, ResultCallback<List<Episode>> callback);
+    }
+
+    private final WindowLoader loader;
+
+    public PagedEpisodeList(int size, WindowLoader loader, Listener<Episode> listener) {
+        super(PAGE_SIZE, size, listener);
+        this.loader = loader;
+    }
+
+    @Override
+    void loadPage(int page, int ticket) {
+        int from = page * PAGE_SIZE;
+        loader.load(from, Math.min(PAGE_SIZE, size() - from), new ResultCallback<List<Episode>>() {
+            @Override
+            public void onSuccess(List<Episode> episodes) {
+                deliver(ticket, page, episodes, false);
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(ticket, page, error);
+            }
+        });
+    }
+}
@@ -0,0 +1,195 @@
+package com.cinecraze.free.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A list read a page at a time as it scrolls, for lists too long to hold
+ * whole. Subclasses only say how a page is read.
+ *
+ * Only the pages around the visible range are held: a page more than
+ * {@link #WINDOW_MARGIN} pages away from it is dropped, and its positions
+ * read as null (a placeholder) until the list scrolls back and the page is
+ * read again. Memory therefore stays flat however far the list is scrolled.
+ * The size never shrinks while scrolling, so scroll positions never shift;
+ * it grows when a page lands past the end, and the page after the last one
+ * is asked for while half a page is still left to scroll.
+ *
+ * Changes are reported as ranges: a page landing past the end as an insert,
+ * any other page as a change of its own positions. Nothing else is rebound.
+ * Call every method on the main thread.
+ */
+public abstract class PagedList<T> extends AbstractList<T> {
+
+    // Pages kept on either side of the visible ones
+    static final int WINDOW_MARGIN = 2;
+
+    public interface Listener<T> {
+        /** Called for every page that lands, including pages read again */
+        void onPageLoaded(int page, List<T> items, boolean hasMorePages);
+        void onPageError(int page, String error);
+    }
+
+    private final int pageSize;
+    private final Listener<T> listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Integer, List<T>> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private ListUpdateCallback updates;
+    private int generation;
+    private int size;
+    private boolean hasMorePages;
+    private boolean cancelled;
+
+    PagedList(int pageSize, int size, Listener<T> listener) {
+        this.pageSize = pageSize;
+        this.size = size;
+        this.listener = listener;
+    }
+
+    /**
+     * Read one page; report it with {@link #deliver} or {@link #fail}, passing
+     * ticket on. May be called back on any thread.
+     */
+    abstract void loadPage(int page, int ticket);
+
+    /**
+     * Where inserts and changes are reported, usually an AdapterListUpdateCallback
+     */
+    public void setUpdateCallback(ListUpdateCallback updates) {
+        this.updates = updates;
+    }
+
+    /**
+     * Drop the results of pages still loading and load no more
+     */
+    public void cancel() {
+        generation++;
+        loading.clear();
+        cancelled = true;
+    }
+
+    /**
+     * Empty the list and load its first page again
+     */
+    void restart() {
+        cancel();
+        int removed = size;
+        pages.clear();
+        size = 0;
+        hasMorePages = false;
+        cancelled = false;
+        if (removed > 0 && updates != null) {
+            updates.onRemoved(0, removed);
+        }
+        load(0);
+    }
+
+    public boolean hasMorePages() {
+        return hasMorePages;
+    }
+
+    /**
+     * The item at position, or null while its page is not loaded
+     */
+    @Override
+    public T get(int position) {
+        List<T> page = pages.get(position / pageSize);
+        int offset = position % pageSize;
+        return page != null && offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Load the pages the visible range shows and one on either side, and drop pages far from it
+     */
+    public void onVisibleRange(int first, int last) {
+        if (first < 0 || last < first) {
+            return;
+        }
+        int firstPage = first / pageSize;
+        int lastPage = last / pageSize;
+        for (int page = Math.max(0, firstPage - 1); page <= lastPage + 1 && page * pageSize < size; page++) {
+            if (!pages.containsKey(page)) {
+                load(page);
+            }
+        }
+        if (hasMorePages && last >= size - pageSize / 2) {
+            load(size / pageSize);
+        }
+        Iterator<Integer> held = pages.keySet().iterator();
+        while (held.hasNext()) {
+            int page = held.next();
+            if (page < firstPage - WINDOW_MARGIN || page > lastPage + WINDOW_MARGIN) {
+                held.remove();
+            }
+        }
+    }
+
+    private void load(int page) {
+        if (cancelled || !loading.add(page)) {
+            return;
+        }
+        loadPage(page, generation);
+    }
+
+    /**
+     * Hand over a page read with {@link #loadPage}
+     */
+    void deliver(int ticket, int page, List<T> items, boolean more) {
+        // Posted even when called on the main thread, as the list may be mid-layout
+        mainHandler.post(() -> {
+            if (ticket == generation) {
+                land(page, items, more);
+            }
+        });
+    }
+
+    /**
+     * Report that a page could not be read
+     */
+    void fail(int ticket, int page, String error) {
+        mainHandler.post(() -> {
+            if (ticket == generation) {
+                loading.remove(page);
+                listener.onPageError(page, error);
+            }
+        });
+    }
+
+    private void land(int page, List<T> items, boolean more) {
+        loading.remove(page);
+        pages.put(page, items);
+        int start = page * pageSize;
+        int end = start + items.size();
+        if (end >= size) {
+            // The last page so far decides whether there is more
+            hasMorePages = more;
+        }
+        if (updates != null) {
+            int changed = Math.min(end, size) - start;
+            if (changed > 0) {
+                updates.onChanged(start, changed, null);
+            }
+            if (end > size) {
+                updates.onInserted(Math.max(start, size), end - Math.max(start, size));
+            }
+        }
+        size = Math.max(size, end);
+        listener.onPageLoaded(page, items, more);
+    }
+}
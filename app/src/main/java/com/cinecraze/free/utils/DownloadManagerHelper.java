@@ -6,6 +6,7 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.os.Environment;
 
+import com.cinecraze.free.concurrent.AppExecutors;
 import com.cinecraze.free.database.CineCrazeDatabase;
 import com.cinecraze.free.database.dao.DownloadItemDao;
 import com.cinecraze.free.database.entities.DownloadItemEntity;
@@ -40,7 +41,7 @@ public class DownloadManagerHelper {
 
             CineCrazeDatabase db = CineCrazeDatabase.getInstance(context);
             DownloadItemDao dao = db.downloadItemDao();
-            dao.insert(entity);
+            AppExecutors.dbWrite().execute(() -> dao.insert(entity));
 
             return downloadId;
         } catch (Exception e) {
@@ -48,6 +49,9 @@ public class DownloadManagerHelper {
         }
     }
 
+    /**
+     * Copy the DownloadManager progress of entity into it and the database. Call off the main thread.
+     */
     public static void refreshStatus(Context context, DownloadItemEntity entity) {
         if (entity == null) return;
         try {